@@ -0,0 +1,146 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.cloudformation.model.PermissionModels;
+import software.amazon.cloudformation.stackset.ResourceModel;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the stack instances analysis run by every create, update and delete request
+ *
+ * <p>Forks run with the 512 MB heap of the handler function, so models that do not fit in handler memory fail
+ * instead of reporting a score. Each trial prints the number of stack instances operations the analysis plans for
+ * its model, which is deterministic and therefore not a measured result; run with "-prof gc" for allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class InstancesAnalyzerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Organization {
+
+        @Param({"100", "1000", "5000"})
+        public int accounts;
+
+        @Param({"5", "25"})
+        public int regions;
+
+        @Param({"1", "50"})
+        public int groups;
+
+        @Param({"1", "5"})
+        public int overrideSets;
+
+        @Param({"SELF_MANAGED", "SERVICE_MANAGED"})
+        public PermissionModels permissionModel;
+
+        ResourceModel previousModel;
+
+        ResourceModel desiredModel;
+
+        /**
+         * Equal to the previous model without sharing any instance with it
+         */
+        ResourceModel previousModelCopy;
+
+        Set<StackInstance> flatStackInstances;
+
+        boolean isSelfManaged;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final SyntheticModelGenerator generator = SyntheticModelGenerator.builder()
+                    .accounts(accounts)
+                    .regions(regions)
+                    .groups(groups)
+                    .overrideSets(overrideSets)
+                    .permissionModel(permissionModel)
+                    .build();
+            previousModel = generator.generate(0);
+            desiredModel = generator.generate(1);
+            previousModelCopy = generator.generate(0);
+            isSelfManaged = permissionModel == PermissionModels.SELF_MANAGED;
+
+            flatStackInstances = new HashSet<>();
+            for (final StackInstances stackInstances : previousModel.getStackInstancesGroup()) {
+                final Set<String> targets = isSelfManaged ? stackInstances.getDeploymentTargets().getAccounts()
+                        : stackInstances.getDeploymentTargets().getOrganizationalUnitIds();
+                for (final String target : targets) {
+                    for (final String region : stackInstances.getRegions()) {
+                        flatStackInstances.add(StackInstance.builder()
+                                .deploymentTarget(target)
+                                .region(region)
+                                .parameters(stackInstances.getParameterOverrides())
+                                .build());
+                    }
+                }
+            }
+
+            final StackInstancesPlaceHolder created = new InstancesAnalyzerBenchmark().analyzeForCreate(this);
+            final StackInstancesPlaceHolder updated = new InstancesAnalyzerBenchmark().analyzeForUpdate(this);
+            System.out.printf("%nOperation groups: create %d, update %d/%d/%d (create/delete/update), delete %d, "
+                            + "aggregate %d for %d stack instances%n",
+                    created.getCreateStackInstances().size(),
+                    updated.getCreateStackInstances().size(),
+                    updated.getDeleteStackInstances().size(),
+                    updated.getUpdateStackInstances().size(),
+                    new InstancesAnalyzerBenchmark().analyzeForDelete(this).getDeleteStackInstances().size(),
+                    new InstancesAnalyzerBenchmark().aggregateStackInstances(this).size(),
+                    flatStackInstances.size());
+        }
+    }
+
+    @Benchmark
+    public StackInstancesPlaceHolder analyzeForCreate(final Organization organization) {
+        final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
+        InstancesAnalyzer.builder().desiredModel(organization.previousModel).build().analyzeForCreate(placeHolder);
+        return placeHolder;
+    }
+
+    @Benchmark
+    public StackInstancesPlaceHolder analyzeForUpdate(final Organization organization) {
+        final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
+        InstancesAnalyzer.builder()
+                .previousModel(organization.previousModel)
+                .desiredModel(organization.desiredModel)
+                .build()
+                .analyzeForUpdate(placeHolder);
+        return placeHolder;
+    }
+
+    @Benchmark
+    public StackInstancesPlaceHolder analyzeForDelete(final Organization organization) {
+        final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
+        InstancesAnalyzer.builder().desiredModel(organization.previousModel).build().analyzeForDelete(placeHolder);
+        return placeHolder;
+    }
+
+    @Benchmark
+    public Set<StackInstances> aggregateStackInstances(final Organization organization) {
+        return InstancesAnalyzer.aggregateStackInstances(organization.flatStackInstances, organization.isSelfManaged);
+    }
+
+    @Benchmark
+    public boolean compareStackInstancesGroups(final Organization organization) {
+        return Comparator.equals(organization.previousModel.getStackInstancesGroup(),
+                organization.previousModelCopy.getStackInstancesGroup());
+    }
+}
@@ -0,0 +1,110 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+import lombok.Data;
+import software.amazon.awssdk.services.cloudformation.model.PermissionModels;
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.Parameter;
+import software.amazon.cloudformation.stackset.ResourceModel;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates synthetic {@link ResourceModel} at organization scale for benchmarks
+ *
+ * <p>Targets (accounts or OU IDs) are split into contiguous slices, one per {@link StackInstances} group. Group k
+ * deploys to every region starting from region (k mod 3) and uses parameter set (k mod overrideSets), so groups
+ * sharing both can be merged into fewer operations. Revision 1 drifts the model the way a typical update does:
+ * odd groups drop their first region, every fourth group is extended to all regions and groups with (k mod 5 = 1)
+ * change their parameter values.
+ */
+@Builder
+@Data
+public class SyntheticModelGenerator {
+
+    private static final String TEMPLATE_BODY = "{\"Resources\":{\"WaitHandle\":"
+            + "{\"Type\":\"AWS::CloudFormation::WaitConditionHandle\"}}}";
+
+    /**
+     * Number of accounts, or OU IDs in SERVICE_MANAGED models
+     */
+    private int accounts;
+
+    private int regions;
+
+    /**
+     * Number of {@link StackInstances} groups, capped at the number of accounts
+     */
+    private int groups;
+
+    /**
+     * Number of distinct parameter override sets, the first of which specifies no overrides
+     */
+    private int overrideSets;
+
+    private PermissionModels permissionModel;
+
+    /**
+     * Generates the {@link ResourceModel} of the given revision
+     *
+     * @param revision 0 for the baseline model, 1 for the drifted model
+     * @return {@link ResourceModel}
+     */
+    public ResourceModel generate(final int revision) {
+        final boolean isSelfManaged = permissionModel == PermissionModels.SELF_MANAGED;
+        final int groupCount = Math.max(1, Math.min(groups, accounts));
+
+        final Set<StackInstances> stackInstancesGroup = new HashSet<>();
+        for (int group = 0; group < groupCount; group++) {
+            final Set<String> targets = new HashSet<>();
+            for (int target = group * accounts / groupCount; target < (group + 1) * accounts / groupCount; target++) {
+                targets.add(isSelfManaged ? String.format("%012d", target) : String.format("ou-bench-%08d", target));
+            }
+
+            int firstRegion = Math.min(group % 3, regions - 1);
+            if (revision > 0 && group % 2 == 1) firstRegion = Math.min(firstRegion + 1, regions - 1);
+            if (revision > 0 && group % 4 == 0) firstRegion = 0;
+            final Set<String> groupRegions = new HashSet<>();
+            for (int region = firstRegion; region < regions; region++) {
+                groupRegions.add(String.format("region-%02d", region));
+            }
+
+            final DeploymentTargets deploymentTargets = DeploymentTargets.builder().build();
+            if (isSelfManaged) {
+                deploymentTargets.setAccounts(targets);
+            } else {
+                deploymentTargets.setOrganizationalUnitIds(targets);
+            }
+            stackInstancesGroup.add(StackInstances.builder()
+                    .deploymentTargets(deploymentTargets)
+                    .regions(groupRegions)
+                    .parameterOverrides(parameterOverrides(group % Math.max(1, overrideSets),
+                            revision > 0 && group % 5 == 1))
+                    .build());
+        }
+
+        return ResourceModel.builder()
+                .stackSetId("StackSet:benchmark")
+                .permissionModel(permissionModel.toString())
+                .templateBody(TEMPLATE_BODY)
+                .stackInstancesGroup(stackInstancesGroup)
+                .build();
+    }
+
+    private static Set<Parameter> parameterOverrides(final int overrideSet, final boolean updated) {
+        if (overrideSet == 0) return null;
+
+        final List<Parameter> parameters = new ArrayList<>();
+        for (int parameter = 0; parameter < 3; parameter++) {
+            parameters.add(Parameter.builder()
+                    .parameterKey("Parameter" + parameter)
+                    .parameterValue(String.format("value-%d-%d%s", overrideSet, parameter, updated ? "-updated" : ""))
+                    .build());
+        }
+        return new HashSet<>(parameters);
+    }
+}
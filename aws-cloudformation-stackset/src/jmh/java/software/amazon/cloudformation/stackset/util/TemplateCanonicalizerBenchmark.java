@@ -0,0 +1,109 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the template comparison run by every update request, on templates of hundreds of KB
+ *
+ * <p>Each trial prints the size of its templates. canonicalJson reads and writes a template without caching, which is
+ * what the first comparison of a template costs; compare* run the comparison as the update handler does, with
+ * fingerprints cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class TemplateCanonicalizerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Templates {
+
+        @Param({"100", "1000", "2500"})
+        public int resources;
+
+        String json;
+
+        /**
+         * Same template as json, pretty printed differently
+         */
+        String reformattedJson;
+
+        /**
+         * Same template as json, in YAML with short form intrinsic functions
+         */
+        String yaml;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final StringBuilder json = new StringBuilder("{\"AWSTemplateFormatVersion\": \"2010-09-09\", \"Resources\": {");
+            final StringBuilder yaml = new StringBuilder("AWSTemplateFormatVersion: 2010-09-09\nResources:\n");
+            for (int resource = 0; resource < resources; resource++) {
+                json.append(resource == 0 ? "" : ",")
+                        .append(String.format("\"Queue%d\": {\"Type\": \"AWS::SQS::Queue\", \"Properties\": {", resource))
+                        .append(String.format("\"QueueName\": {\"Fn::Sub\": \"${AWS::StackName}-queue-%d\"}, ", resource))
+                        .append("\"VisibilityTimeout\": 300, \"KmsMasterKeyId\": {\"Fn::GetAtt\": [\"Key\", \"Arn\"]}, ")
+                        .append("\"RedrivePolicy\": {\"maxReceiveCount\": 5, \"deadLetterTargetArn\": ")
+                        .append("{\"Fn::If\": [\"HasDeadLetterQueue\", {\"Ref\": \"DeadLetterQueueArn\"}, ")
+                        .append("{\"Ref\": \"AWS::NoValue\"}]}}, ")
+                        .append("\"Tags\": [{\"Key\": \"Team\", \"Value\": \"payments\"}, ")
+                        .append(String.format("{\"Key\": \"Index\", \"Value\": \"%d\"}]}}", resource));
+                yaml.append(String.format("  Queue%d:\n", resource))
+                        .append("    Type: AWS::SQS::Queue\n")
+                        .append("    Properties:\n")
+                        .append(String.format("      QueueName: !Sub '${AWS::StackName}-queue-%d'\n", resource))
+                        .append("      VisibilityTimeout: 300\n")
+                        .append("      KmsMasterKeyId: !GetAtt Key.Arn\n")
+                        .append("      RedrivePolicy:\n")
+                        .append("        maxReceiveCount: 5\n")
+                        .append("        deadLetterTargetArn: !If [HasDeadLetterQueue, !Ref DeadLetterQueueArn, !Ref AWS::NoValue]\n")
+                        .append("      Tags:\n")
+                        .append("        - Key: Team\n")
+                        .append("          Value: payments\n")
+                        .append("        - Key: Index\n")
+                        .append(String.format("          Value: '%d'\n", resource));
+            }
+            this.json = json.append("}}").toString();
+            this.reformattedJson = this.json.replace(", ", ",\n    ").replace(": ", " : ");
+            this.yaml = yaml.toString();
+            if (!TemplateCanonicalizer.isEquivalent(this.json, this.yaml)
+                    || !TemplateCanonicalizer.isEquivalent(this.json, this.reformattedJson)) {
+                throw new IllegalStateException("Templates are not equivalent");
+            }
+            System.out.printf("%nTemplate sizes: JSON %d KB, YAML %d KB%n", this.json.length() / 1024, this.yaml.length() / 1024);
+        }
+    }
+
+    @Benchmark
+    public String canonicalJson(final Templates templates) {
+        return TemplateCanonicalizer.canonicalJson(templates.json);
+    }
+
+    @Benchmark
+    public String canonicalYaml(final Templates templates) {
+        return TemplateCanonicalizer.canonicalJson(templates.yaml);
+    }
+
+    @Benchmark
+    public boolean compareReformattedJson(final Templates templates) {
+        return TemplateCanonicalizer.isEquivalent(templates.json, templates.reformattedJson);
+    }
+
+    @Benchmark
+    public boolean compareJsonToYaml(final Templates templates) {
+        return TemplateCanonicalizer.isEquivalent(templates.json, templates.yaml);
+    }
+}
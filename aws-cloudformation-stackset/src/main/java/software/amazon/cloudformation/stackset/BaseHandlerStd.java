@@ -2,39 +2,73 @@ package software.amazon.cloudformation.stackset;
 
 import com.google.common.annotations.VisibleForTesting;
 import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
 import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.CreateStackInstancesRequest;
 import software.amazon.awssdk.services.cloudformation.model.CreateStackInstancesResponse;
+import software.amazon.awssdk.services.cloudformation.model.DeleteStackInstancesRequest;
 import software.amazon.awssdk.services.cloudformation.model.DeleteStackInstancesResponse;
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetOperationResponse;
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetResponse;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationsResponse;
+import software.amazon.awssdk.services.cloudformation.model.OperationIdAlreadyExistsException;
 import software.amazon.awssdk.services.cloudformation.model.OperationInProgressException;
 import software.amazon.awssdk.services.cloudformation.model.StackInstanceNotFoundException;
 import software.amazon.awssdk.services.cloudformation.model.StackSet;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperation;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationPreferences;
 import software.amazon.awssdk.services.cloudformation.model.StackSetOperationStatus;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationSummary;
 import software.amazon.awssdk.services.cloudformation.model.StackSetStatus;
+import software.amazon.awssdk.services.cloudformation.model.UpdateStackInstancesRequest;
 import software.amazon.awssdk.services.cloudformation.model.UpdateStackInstancesResponse;
 import software.amazon.cloudformation.Action;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.exceptions.TerminalException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.cloudformation.proxy.delay.MultipleOf;
+import software.amazon.cloudformation.stackset.translator.RequestTranslator;
 import software.amazon.cloudformation.stackset.util.ClientBuilder;
+import software.amazon.cloudformation.stackset.util.Digest;
 import software.amazon.cloudformation.stackset.util.InstancesAnalyzer;
+import software.amazon.cloudformation.stackset.util.OperationChunker;
+import software.amazon.cloudformation.stackset.util.OperationEstimator;
+import software.amazon.cloudformation.stackset.util.OperationKey;
+import software.amazon.cloudformation.stackset.util.OperationMetrics;
+import software.amazon.cloudformation.stackset.util.OperationFailureDetector;
+import software.amazon.cloudformation.stackset.util.OperationFailures;
+import software.amazon.cloudformation.stackset.util.OperationPrediction;
+import software.amazon.cloudformation.stackset.util.OperationProgress;
+import software.amazon.cloudformation.stackset.util.OperationResultsAnalyzer;
+import software.amazon.cloudformation.stackset.util.OperationResultsCursor;
+import software.amazon.cloudformation.stackset.util.StabilizationDelay;
 import software.amazon.cloudformation.stackset.util.StackInstancesPlaceHolder;
+import software.amazon.cloudformation.stackset.util.StackInstancesPlanCache;
 import software.amazon.cloudformation.stackset.util.Validator;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-import static software.amazon.cloudformation.stackset.translator.RequestTranslator.createStackInstancesRequest;
-import static software.amazon.cloudformation.stackset.translator.RequestTranslator.deleteStackInstancesRequest;
 import static software.amazon.cloudformation.stackset.translator.RequestTranslator.describeStackSetOperationRequest;
 import static software.amazon.cloudformation.stackset.translator.RequestTranslator.describeStackSetRequest;
-import static software.amazon.cloudformation.stackset.translator.RequestTranslator.updateStackInstancesRequest;
+import static software.amazon.cloudformation.stackset.translator.RequestTranslator.listStackSetOperationsRequest;
+import static software.amazon.cloudformation.stackset.translator.RequestTranslator.stopStackSetOperationRequest;
+import static software.amazon.cloudformation.stackset.util.Comparator.isSelfManaged;
 
 /**
  * Placeholder for the functionality that could be shared across Create/Read/Update/Delete/List Handlers
@@ -48,22 +82,220 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             .build();
 
     /**
-     * Retrieves the {@link StackSetOperationStatus} from {@link DescribeStackSetOperationResponse}
+     * Delay before resubmitting an operation rejected because of another operation of the StackSet, if that operation
+     * completed by the time it is looked up, see {@link #blockedByOperation}
+     */
+    protected static final int OPERATION_IN_PROGRESS_CALLBACK_DELAY_SECONDS = 5;
+
+    private static final StackInstancesApi<CreateStackInstancesRequest, CreateStackInstancesResponse> CREATE_STACK_INSTANCES =
+            new StackInstancesApi<CreateStackInstancesRequest, CreateStackInstancesResponse>(
+                    "CreateStackInstances", RequestTranslator::createStackInstancesRequest, client -> client::createStackInstances,
+                    CreateStackInstancesRequest::operationPreferences, CreateStackInstancesResponse::operationId,
+                    operationId -> CreateStackInstancesResponse.builder().operationId(operationId).build(), false);
+
+    private static final StackInstancesApi<UpdateStackInstancesRequest, UpdateStackInstancesResponse> UPDATE_STACK_INSTANCES =
+            new StackInstancesApi<UpdateStackInstancesRequest, UpdateStackInstancesResponse>(
+                    "UpdateStackInstances", RequestTranslator::updateStackInstancesRequest, client -> client::updateStackInstances,
+                    UpdateStackInstancesRequest::operationPreferences, UpdateStackInstancesResponse::operationId,
+                    operationId -> UpdateStackInstancesResponse.builder().operationId(operationId).build(), false);
+
+    private static final StackInstancesApi<DeleteStackInstancesRequest, DeleteStackInstancesResponse> DELETE_STACK_INSTANCES =
+            new StackInstancesApi<DeleteStackInstancesRequest, DeleteStackInstancesResponse>(
+                    "DeleteStackInstances", RequestTranslator::deleteStackInstancesRequest, client -> client::deleteStackInstances,
+                    DeleteStackInstancesRequest::operationPreferences, DeleteStackInstancesResponse::operationId,
+                    operationId -> DeleteStackInstancesResponse.builder().operationId(operationId).build(), true);
+
+    /**
+     * Stack instances operations planned by the handler process, keyed by the fingerprint kept in
+     * {@link CallbackContext}, see {@link #analyzeTemplate}
+     */
+    private static final StackInstancesPlanCache STACK_INSTANCES_PLANS = StackInstancesPlanCache.builder().build();
+
+    /**
+     * Splits stack instances operations into bounded chunks. Every chunk has its own call graph in the
+     * {@link CallbackContext}, keyed by its {@link OperationKey}, so chunks that already stabilized are not
+     * submitted again when the handler is re-invoked, and a retry only repeats the chunk that has not completed yet.
+     */
+    private final OperationChunker operationChunker;
+
+    /**
+     * Schedules the callbacks that poll running operations close to their predicted completion, from the
+     * {@link OperationPrediction} of the invocation, see {@link #awaitOperations}
+     */
+    private static final StabilizationDelay STABILIZATION_DELAY = StabilizationDelay.builder().fallback(MULTIPLE_OF).build();
+
+    /**
+     * Environment variable of the handler that opts in to stopping running operations that exceeded their failure
+     * tolerance, see {@link #isStoppingFailingOperations}
+     */
+    static final String STOP_FAILING_OPERATIONS_VARIABLE = "STOP_FAILING_OPERATIONS";
+
+    /**
+     * If running operations that are bound to fail are stopped early, see {@link OperationFailureDetector}. Stack
+     * instances operations stopped this way have the stack instances that failed or were cancelled retried within
+     * their failure budget, other operations fail the handler right away.
+     */
+    private final boolean isStoppingFailingOperations;
+
+    protected BaseHandlerStd() {
+        this(OperationChunker.builder().build(), Boolean.parseBoolean(System.getenv(STOP_FAILING_OPERATIONS_VARIABLE)));
+    }
+
+    BaseHandlerStd(final OperationChunker operationChunker, final boolean isStoppingFailingOperations) {
+        this.operationChunker = operationChunker;
+        this.isStoppingFailingOperations = isStoppingFailingOperations;
+    }
+
+    /**
+     * Retrieves the {@link StackSetOperationStatus} from {@link DescribeStackSetOperationResponse}. While the operation
+     * is running, predicts its completion for {@link #STABILIZATION_DELAY}. Its results are read from the
+     * {@link OperationResultsCursor} kept in {@link CallbackContext} only if stopping is enabled, to stop it once it is
+     * bound to fail, or if the StackSet has no recent operation of the same action to predict from.
+     * Once it completes, reports how many polls it took and how long after its completion it was observed.
      *
-     * @param stackSetId  {@link ResourceModel#getStackSetId()}
-     * @param operationId Operation ID
-     * @return {@link StackSetOperationStatus}
+     * @param model             {@link ResourceModel}
+     * @param callbackContext   {@link CallbackContext}
+     * @param operationId       Operation ID
+     * @param accountsPerRegion number of accounts per region of the operation, or 0 to count them from its results
+     * @param isOwnOperation    if the operation was submitted by the handler, which may stop it
+     * @param logger            {@link Logger}
+     * @return {@link StackSetOperationStatus}, STOPPING once the operation has been stopped
      */
-    private static StackSetOperationStatus getStackSetOperationStatus(
+    private StackSetOperationStatus pollStackSetOperation(
             final ProxyClient<CloudFormationClient> proxyClient,
-            final String stackSetId,
+            final ResourceModel model,
+            final CallbackContext callbackContext,
             final String operationId,
-            final String callAs) {
+            final int accountsPerRegion,
+            final boolean isOwnOperation,
+            final Logger logger) {
 
         final DescribeStackSetOperationResponse response = proxyClient.injectCredentialsAndInvokeV2(
-                describeStackSetOperationRequest(stackSetId, operationId, callAs),
+                describeStackSetOperationRequest(model.getStackSetId(), operationId, model.getCallAs()),
                 proxyClient.client()::describeStackSetOperation);
-        return response.stackSetOperation().status();
+        final StackSetOperation operation = response.stackSetOperation();
+        final int pollCount = callbackContext.getOperationPollCounts().merge(operationId, 1, Integer::sum);
+
+        if (operation.status() == StackSetOperationStatus.RUNNING || operation.status() == StackSetOperationStatus.QUEUED) {
+            // Results take several calls to read on every poll, so they are only read to stop a failing operation,
+            // or to predict the completion of an operation the StackSet has no recent duration for
+            final boolean isStopping = isStoppingFailingOperations && isOwnOperation;
+            OperationProgress progress = isStopping
+                    ? readProgress(proxyClient, model, callbackContext, operationId, accountsPerRegion) : null;
+            if (isStopping && progress.getFailedRegion() != null
+                    && operation.status() == StackSetOperationStatus.RUNNING) {
+                stopOperation(proxyClient, model, callbackContext, operationId, progress.getFailedRegion(), logger);
+                return StackSetOperationStatus.STOPPING;
+            }
+
+            if (callbackContext.getRecentOperationSeconds() == null) {
+                callbackContext.setRecentOperationSeconds(recentOperationSeconds(proxyClient, model));
+            }
+            final Long recentSeconds = callbackContext.getRecentOperationSeconds().get(operation.actionAsString());
+            if (progress == null) {
+                progress = recentSeconds == null
+                        ? readProgress(proxyClient, model, callbackContext, operationId, accountsPerRegion)
+                        : OperationProgress.builder().build();
+            }
+            predictCompletion(callbackContext, operation, progress, recentSeconds, logger);
+        } else {
+            callbackContext.getOperationPollCounts().remove(operationId);
+            callbackContext.getOperationResultsCursors().remove(operationId);
+            logger.log(OperationMetrics.stabilization(operation.actionAsString(), operationId, pollCount,
+                    operation.endTimestamp(), Instant.now()));
+        }
+        return operation.status();
+    }
+
+    /**
+     * Reads the results of a running operation past its cursor in {@link CallbackContext}
+     *
+     * @param model             {@link ResourceModel}
+     * @param callbackContext   {@link CallbackContext}
+     * @param operationId       Operation ID
+     * @param accountsPerRegion number of accounts per region of the operation, or 0 to count them from its results
+     * @return {@link OperationProgress} of the operation
+     */
+    private static OperationProgress readProgress(
+            final ProxyClient<CloudFormationClient> proxyClient,
+            final ResourceModel model,
+            final CallbackContext callbackContext,
+            final String operationId,
+            final int accountsPerRegion) {
+
+        final OperationResultsCursor cursor = callbackContext.getOperationResultsCursors()
+                .computeIfAbsent(operationId, key -> new OperationResultsCursor());
+        return OperationFailureDetector.builder()
+                .proxyClient(proxyClient)
+                .operationPreferences(model.getOperationPreferences())
+                .accountsPerRegion(accountsPerRegion)
+                .build()
+                .read(model.getStackSetId(), operationId, model.getCallAs(), cursor);
+    }
+
+    /**
+     * Predicts the remaining time of a running operation from the share of its stack instances that completed so far,
+     * from the typical duration of recent operations of the StackSet and from the concurrency of the operation, see
+     * {@link OperationEstimator}
+     *
+     * @param callbackContext {@link CallbackContext}
+     * @param operation       {@link StackSetOperation} that is running
+     * @param progress        {@link OperationProgress} read on this poll, empty if the results were not read
+     * @param recentSeconds   Median duration of the recent operations of the same action, or null if unknown
+     * @param logger          {@link Logger}
+     */
+    private static void predictCompletion(
+            final CallbackContext callbackContext,
+            final StackSetOperation operation,
+            final OperationProgress progress,
+            final Long recentSeconds,
+            final Logger logger) {
+
+        final Instant creation = operation.creationTimestamp() == null ? Instant.now() : operation.creationTimestamp();
+        final Duration remaining = OperationEstimator.builder().build().estimateRemaining(
+                Duration.between(creation, Instant.now()),
+                progress.getTotalInstances(),
+                progress.getCompletedInstances(),
+                OperationEstimator.concurrency(operation.operationPreferences(), progress.getAccounts(), progress.getRegions()),
+                recentSeconds == null ? null : Duration.ofSeconds(recentSeconds));
+        if (callbackContext.getOperationPrediction() == null) {
+            callbackContext.setOperationPrediction(new OperationPrediction());
+        }
+        callbackContext.getOperationPrediction().predict(creation, remaining);
+        logger.log(String.format("StackSet Operation [%s] completed %d of %d stack instances, predicted to complete in %d seconds",
+                operation.operationId(), progress.getCompletedInstances(), progress.getTotalInstances(), remaining.getSeconds()));
+    }
+
+    /**
+     * Looks up the median duration of the recent operations of the StackSet that succeeded, for each action
+     *
+     * @param model {@link ResourceModel}
+     * @return Median duration in seconds, keyed by action
+     */
+    private static Map<String, Long> recentOperationSeconds(
+            final ProxyClient<CloudFormationClient> proxyClient,
+            final ResourceModel model) {
+
+        final ListStackSetOperationsResponse response = proxyClient.injectCredentialsAndInvokeV2(
+                listStackSetOperationsRequest(model.getStackSetId(), model.getCallAs()),
+                proxyClient.client()::listStackSetOperations);
+        final Map<String, List<Long>> durations = new HashMap<>();
+        if (response.hasSummaries()) {
+            for (final StackSetOperationSummary summary : response.summaries()) {
+                if (summary.status() != StackSetOperationStatus.SUCCEEDED
+                        || summary.creationTimestamp() == null || summary.endTimestamp() == null) {
+                    continue;
+                }
+                durations.computeIfAbsent(summary.actionAsString(), action -> new ArrayList<>())
+                        .add(Duration.between(summary.creationTimestamp(), summary.endTimestamp()).getSeconds());
+            }
+        }
+        final Map<String, Long> medians = new HashMap<>();
+        durations.forEach((action, seconds) -> {
+            Collections.sort(seconds);
+            medians.put(action, seconds.get(seconds.size() / 2));
+        });
+        return medians;
     }
 
     /**
@@ -98,8 +330,11 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        return handleRequest(proxy, request, callbackContext != null ?
+        final ProgressEvent<ResourceModel, CallbackContext> progressEvent = handleRequest(proxy, request, callbackContext != null ?
                 callbackContext : new CallbackContext(), proxy.newProxy(ClientBuilder::getClient), logger);
+        ClientBuilder.getRateLimiter().reportMetrics().forEach(logger::log);
+        Validator.getTemplateSummaryCache().reportMetrics().forEach(logger::log);
+        return progressEvent;
     }
 
     protected abstract ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -109,19 +344,96 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             final ProxyClient<CloudFormationClient> proxyClient,
             final Logger logger);
 
-    protected boolean filterException(AwsRequest request, Exception e, ProxyClient<CloudFormationClient> client, ResourceModel model, CallbackContext context) {
-        return e instanceof OperationInProgressException;
+    /**
+     * Handles OperationInProgressException, thrown when another operation of the StackSet prevents submitting one.
+     * Rather than backing off blindly, the operation that is running, or else queued, is looked up with
+     * ListStackSetOperations and awaited like the operations of the handler, see {@link #awaitBlockingOperation}.
+     *
+     * @param proxyClient     the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
+     * @param model           {@link ResourceModel}
+     * @param callbackContext {@link CallbackContext}
+     * @param operationKey    key of the rejected operation
+     * @param logger          {@link Logger}
+     * @return in progress with delay callback, to submit the operation again once the blocking operation completed
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> blockedByOperation(
+            final ProxyClient<CloudFormationClient> proxyClient,
+            final ResourceModel model,
+            final CallbackContext callbackContext,
+            final String operationKey,
+            final Logger logger) {
+
+        final ListStackSetOperationsResponse response = proxyClient.injectCredentialsAndInvokeV2(
+                listStackSetOperationsRequest(model.getStackSetId(), model.getCallAs()),
+                proxyClient.client()::listStackSetOperations);
+        final List<StackSetOperationSummary> summaries = response.hasSummaries() ? response.summaries() : Collections.emptyList();
+        final Optional<StackSetOperationSummary> blockingOperation = Stream.of(StackSetOperationStatus.RUNNING, StackSetOperationStatus.QUEUED)
+                .flatMap(status -> summaries.stream().filter(summary -> summary.status() == status))
+                .findFirst();
+        if (!blockingOperation.isPresent()) {
+            logger.log(String.format("%s [%s] %s was blocked by an operation that already completed", ResourceModel.TYPE_NAME, model.getStackSetId(), operationKey));
+            return ProgressEvent.defaultInProgressHandler(callbackContext, OPERATION_IN_PROGRESS_CALLBACK_DELAY_SECONDS, model);
+        }
+
+        logger.log(String.format("%s [%s] %s is blocked by operation [%s], waiting for it to complete", ResourceModel.TYPE_NAME, model.getStackSetId(), operationKey, blockingOperation.get().operationId()));
+        callbackContext.getBlockingOperationIds().put(operationKey, blockingOperation.get().operationId());
+        final ProgressEvent<ResourceModel, CallbackContext> progressEvent = awaitBlockingOperation(proxyClient, model, callbackContext, operationKey, logger);
+        return progressEvent.canContinueProgress()
+                ? ProgressEvent.defaultInProgressHandler(callbackContext, OPERATION_IN_PROGRESS_CALLBACK_DELAY_SECONDS, model)
+                : progressEvent;
+    }
+
+    /**
+     * Awaits the operation that blocked an operation of the handler, if any, with the same single check per
+     * invocation as the operations of the handler, see {@link #awaitOperations}. Whether the blocking operation
+     * succeeds does not matter, so the operation of the handler is submitted again as soon as it completes.
+     *
+     * @param proxyClient     the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
+     * @param model           {@link ResourceModel}
+     * @param callbackContext {@link CallbackContext}
+     * @param operationKey    key of the operation to submit
+     * @param logger          {@link Logger}
+     * @return progress to submit the operation, or in progress with delay callback while it is blocked
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> awaitBlockingOperation(
+            final ProxyClient<CloudFormationClient> proxyClient,
+            final ResourceModel model,
+            final CallbackContext callbackContext,
+            final String operationKey,
+            final Logger logger) {
+
+        final String blockingOperationId = callbackContext.getBlockingOperationIds().get(operationKey);
+        if (blockingOperationId == null) {
+            return ProgressEvent.progress(model, callbackContext);
+        }
+        final ProgressEvent<ResourceModel, CallbackContext> progressEvent = awaitOperations(Collections.singletonList(blockingOperationId), model, callbackContext,
+                operationId -> {
+                    final StackSetOperationStatus status = pollStackSetOperation(proxyClient, model, callbackContext, operationId, 0, false, logger);
+                    return status != StackSetOperationStatus.RUNNING && status != StackSetOperationStatus.QUEUED;
+                });
+        if (!progressEvent.isSuccess()) {
+            return progressEvent;
+        }
+
+        logger.log(String.format("%s [%s] operation [%s] completed, submitting %s", ResourceModel.TYPE_NAME, model.getStackSetId(), blockingOperationId, operationKey));
+        callbackContext.getBlockingOperationIds().remove(operationKey);
+        callbackContext.getStabilizedOperations().remove(blockingOperationId);
+        return ProgressEvent.progress(model, callbackContext);
     }
 
     /**
      * Invocation of CreateStackInstances would possibly used by CREATE/UPDATE handler, after the template being analyzed
-     * by {@link InstancesAnalyzer}
+     * by {@link InstancesAnalyzer}. Operations are either stabilized one at a time, or submitted all together when
+     * ManagedExecution is active.
      *
-     * @param proxy              {@link AmazonWebServicesClientProxy} to initiate proxy chain
-     * @param client             the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
-     * @param progress           {@link ProgressEvent<ResourceModel, CallbackContext>} to place hold the current progress data
-     * @param stackInstancesList StackInstances that need to create, see in {@link InstancesAnalyzer#analyzeForCreate}
-     * @param logger             {@link Logger}
+     * @param proxy                 {@link AmazonWebServicesClientProxy} to initiate proxy chain
+     * @param client                the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
+     * @param progress              {@link ProgressEvent<ResourceModel, CallbackContext>} to place hold the current progress data
+     * @param stackInstancesList    StackInstances that need to create, see in {@link InstancesAnalyzer#analyzeForCreate}
+     * @param clientRequestToken    {@link ResourceHandlerRequest#getClientRequestToken()} to derive OperationIds from
+     * @param submittedOperationIds collects the OperationIds to stabilize with {@link #stabilizeOperations},
+     *                              or null to stabilize each operation in turn
+     * @param logger                {@link Logger}
      * @return {@link ProgressEvent<ResourceModel, CallbackContext>}
      */
     protected ProgressEvent<ResourceModel, CallbackContext> createStackInstances(
@@ -129,41 +441,26 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             final ProxyClient<CloudFormationClient> client,
             final ProgressEvent<ResourceModel, CallbackContext> progress,
             final List<StackInstances> stackInstancesList,
+            final String clientRequestToken,
+            final List<String> submittedOperationIds,
             final Logger logger) {
 
-        final ResourceModel model = progress.getResourceModel();
-        final CallbackContext callbackContext = progress.getCallbackContext();
-
-        for (final StackInstances stackInstances : stackInstancesList) {
-            final ProgressEvent<ResourceModel, CallbackContext> progressEvent = proxy
-                    .initiate("AWS-CloudFormation-StackSet::CreateStackInstances" + stackInstances.hashCode(), client, model, callbackContext)
-                    .translateToServiceRequest(modelRequest -> createStackInstancesRequest(modelRequest.getStackSetId(), modelRequest.getOperationPreferences(), stackInstances, modelRequest.getCallAs()))
-                    .backoffDelay(MULTIPLE_OF)
-                    .makeServiceCall((modelRequest, proxyInvocation) -> {
-                        final CreateStackInstancesResponse response = proxyInvocation.injectCredentialsAndInvokeV2(modelRequest, proxyInvocation.client()::createStackInstances);
-                        logger.log(String.format("%s [%s] CreateStackInstances in [%s] of [%s] initiated", ResourceModel.TYPE_NAME, model.getStackSetId(), stackInstances.getRegions(), stackInstances.getDeploymentTargets()));
-                        return response;
-                    })
-                    .stabilize((request, response, proxyInvocation, resourceModel, context) -> isOperationStabilized(proxyInvocation, resourceModel, response.operationId(), logger))
-                    .success();
-
-            if (!progressEvent.isSuccess()) {
-                return progressEvent;
-            }
-        }
-
-        return ProgressEvent.progress(model, callbackContext);
+        return submitStackInstances(proxy, client, progress, CREATE_STACK_INSTANCES, stackInstancesList, clientRequestToken, submittedOperationIds, null, 0, logger);
     }
 
     /**
      * Invocation of DeleteStackInstances would possibly used by UPDATE/DELETE handler, after the template being analyzed
-     * by {@link InstancesAnalyzer}
+     * by {@link InstancesAnalyzer}. Operations are either stabilized one at a time, or submitted all together when
+     * ManagedExecution is active.
      *
-     * @param proxy              {@link AmazonWebServicesClientProxy} to initiate proxy chain
-     * @param client             the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
-     * @param progress           {@link ProgressEvent<ResourceModel, CallbackContext>} to place hold the current progress data
-     * @param stackInstancesList StackInstances that need to create, see in {@link InstancesAnalyzer#analyzeForDelete}
-     * @param logger             {@link Logger}
+     * @param proxy                 {@link AmazonWebServicesClientProxy} to initiate proxy chain
+     * @param client                the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
+     * @param progress              {@link ProgressEvent<ResourceModel, CallbackContext>} to place hold the current progress data
+     * @param stackInstancesList    StackInstances that need to delete, see in {@link InstancesAnalyzer#analyzeForDelete}
+     * @param clientRequestToken    {@link ResourceHandlerRequest#getClientRequestToken()} to derive OperationIds from
+     * @param submittedOperationIds collects the OperationIds to stabilize with {@link #stabilizeOperations},
+     *                              or null to stabilize each operation in turn
+     * @param logger                {@link Logger}
      * @return {@link ProgressEvent<ResourceModel, CallbackContext>}
      */
     protected ProgressEvent<ResourceModel, CallbackContext> deleteStackInstances(
@@ -171,52 +468,26 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             final ProxyClient<CloudFormationClient> client,
             final ProgressEvent<ResourceModel, CallbackContext> progress,
             final List<StackInstances> stackInstancesList,
+            final String clientRequestToken,
+            final List<String> submittedOperationIds,
             final Logger logger) {
 
-        final ResourceModel model = progress.getResourceModel();
-        final CallbackContext callbackContext = progress.getCallbackContext();
-
-        for (final StackInstances stackInstances : stackInstancesList) {
-            final ProgressEvent<ResourceModel, CallbackContext> progressEvent = proxy
-                    .initiate("AWS-CloudFormation-StackSet::DeleteStackInstances" + stackInstances.hashCode(), client, model, callbackContext)
-                    .translateToServiceRequest(modelRequest -> deleteStackInstancesRequest(modelRequest.getStackSetId(), modelRequest.getOperationPreferences(), stackInstances, modelRequest.getCallAs()))
-                    .backoffDelay(MULTIPLE_OF)
-                    .makeServiceCall((modelRequest, proxyInvocation) -> {
-                        final DeleteStackInstancesResponse response = proxyInvocation.injectCredentialsAndInvokeV2(modelRequest, proxyInvocation.client()::deleteStackInstances);
-                        logger.log(String.format("%s [%s] DeleteStackInstances in [%s] of [%s] initiated", ResourceModel.TYPE_NAME, model.getStackSetId(), stackInstances.getRegions(), stackInstances.getDeploymentTargets()));
-                        return response;
-                    })
-                    .stabilize((request, response, proxyInvocation, resourceModel, context) -> isOperationStabilized(proxyInvocation, resourceModel, response.operationId(), logger))
-                    .handleError((request, e, proxyClient, model_, context) -> {
-                        // If StackInstanceNotFoundException is thrown by the service, then we did succeed delete/stabilization call in case of out of band deletion.
-                        if (e instanceof StackInstanceNotFoundException) {
-                            return ProgressEvent.success(model_, context);
-                        }
-                        // If OperationInProgressException is thrown by the service, then we retry
-                        if (e instanceof OperationInProgressException) {
-                            return ProgressEvent.progress(model_, context);
-                        }
-                        throw e;
-                    })
-                    .success();
-
-            if (!progressEvent.isSuccess()) {
-                return progressEvent;
-            }
-        }
-
-        return ProgressEvent.progress(model, callbackContext);
+        return submitStackInstances(proxy, client, progress, DELETE_STACK_INSTANCES, stackInstancesList, clientRequestToken, submittedOperationIds, null, 0, logger);
     }
 
     /**
-     * Invocation of DeleteStackInstances would possibly used by DELETE handler, after the template being analyzed
-     * by {@link InstancesAnalyzer}
+     * Invocation of UpdateStackInstances would possibly used by UPDATE handler, after the template being analyzed
+     * by {@link InstancesAnalyzer}. Operations are either stabilized one at a time, or submitted all together when
+     * ManagedExecution is active.
      *
-     * @param proxy              {@link AmazonWebServicesClientProxy} to initiate proxy chain
-     * @param client             the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
-     * @param progress           {@link ProgressEvent<ResourceModel, CallbackContext>} to place hold the current progress data
-     * @param stackInstancesList StackInstances that need to create, see in {@link InstancesAnalyzer#analyzeForUpdate}
-     * @param logger             {@link Logger}
+     * @param proxy                 {@link AmazonWebServicesClientProxy} to initiate proxy chain
+     * @param client                the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
+     * @param progress              {@link ProgressEvent<ResourceModel, CallbackContext>} to place hold the current progress data
+     * @param stackInstancesList    StackInstances that need to update, see in {@link InstancesAnalyzer#analyzeForUpdate}
+     * @param clientRequestToken    {@link ResourceHandlerRequest#getClientRequestToken()} to derive OperationIds from
+     * @param submittedOperationIds collects the OperationIds to stabilize with {@link #stabilizeOperations},
+     *                              or null to stabilize each operation in turn
+     * @param logger                {@link Logger}
      * @return {@link ProgressEvent<ResourceModel, CallbackContext>}
      */
     protected ProgressEvent<ResourceModel, CallbackContext> updateStackInstances(
@@ -224,28 +495,93 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             final ProxyClient<CloudFormationClient> client,
             final ProgressEvent<ResourceModel, CallbackContext> progress,
             final List<StackInstances> stackInstancesList,
+            final String clientRequestToken,
+            final List<String> submittedOperationIds,
+            final Logger logger) {
+
+        return submitStackInstances(proxy, client, progress, UPDATE_STACK_INSTANCES, stackInstancesList, clientRequestToken, submittedOperationIds, null, 0, logger);
+    }
+
+    /**
+     * Submits stack instances operations with the given {@link StackInstancesApi}, one chunk of
+     * {@link #operationChunker} after the other, then the stack instances that failed in the given number of previous
+     * operations, see {@link #isOperationStabilized(ProxyClient, ResourceModel, CallbackContext, String, String, StackInstances, String, Logger)}.
+     * The request of a chunk is built once the previous chunk stabilized. Retries are charged to the failure budget of
+     * the chunk they stem from, given by its operation key.
+     */
+    private <RequestT extends AwsRequest, ResponseT extends AwsResponse> ProgressEvent<ResourceModel, CallbackContext> submitStackInstances(
+            final AmazonWebServicesClientProxy proxy,
+            final ProxyClient<CloudFormationClient> client,
+            final ProgressEvent<ResourceModel, CallbackContext> progress,
+            final StackInstancesApi<RequestT, ResponseT> api,
+            final List<StackInstances> stackInstancesList,
+            final String clientRequestToken,
+            final List<String> submittedOperationIds,
+            final String rootOperationKey,
+            final int retry,
             final Logger logger) {
 
         final ResourceModel model = progress.getResourceModel();
         final CallbackContext callbackContext = progress.getCallbackContext();
 
-        for (final StackInstances stackInstances : stackInstancesList) {
+        final List<StackInstances> chunks = operationChunker.chunk(stackInstancesList, isSelfManaged(model));
+        for (int index = 0; index < chunks.size(); index++) {
+            final StackInstances stackInstances = chunks.get(index);
+            final String chunkDescription = String.format("%d/%d", index + 1, chunks.size());
+            final String operationKey = operationKey(api.getOperationType(), stackInstances, retry);
+            final String failureBudgetKey = rootOperationKey == null ? operationKey : rootOperationKey;
+            final ProgressEvent<ResourceModel, CallbackContext> blockedEvent = awaitBlockingOperation(client, model, callbackContext, operationKey, logger);
+            if (!blockedEvent.canContinueProgress()) {
+                return blockedEvent;
+            }
             final ProgressEvent<ResourceModel, CallbackContext> progressEvent = proxy
-                    .initiate("AWS-CloudFormation-StackSet::UpdateStackInstances" + stackInstances.hashCode(), client, model, callbackContext)
-                    .translateToServiceRequest(modelRequest -> updateStackInstancesRequest(modelRequest.getStackSetId(), modelRequest.getOperationPreferences(), stackInstances, modelRequest.getCallAs()))
+                    .initiate("AWS-CloudFormation-StackSet::" + operationKey, client, model, callbackContext)
+                    .translateToServiceRequest(modelRequest -> api.getRequestBuilder().build(modelRequest.getStackSetId(), modelRequest.getOperationPreferences(),
+                            stackInstances, modelRequest.getCallAs(), operationId(clientRequestToken, operationKey)))
                     .backoffDelay(MULTIPLE_OF)
                     .makeServiceCall((modelRequest, proxyInvocation) -> {
-                        final UpdateStackInstancesResponse response = proxyInvocation.injectCredentialsAndInvokeV2(modelRequest, proxyInvocation.client()::updateStackInstances);
-                        logger.log(String.format("%s [%s] UpdateStackInstances in [%s] of [%s] initiated", ResourceModel.TYPE_NAME, model.getStackSetId(), stackInstances.getRegions(), stackInstances.getDeploymentTargets()));
+                        final ResponseT response;
+                        final String operationId = operationId(clientRequestToken, operationKey);
+                        try {
+                            response = proxyInvocation.injectCredentialsAndInvokeV2(modelRequest, api.getCall().apply(proxyInvocation.client()));
+                        } catch (final OperationIdAlreadyExistsException e) {
+                            logger.log(String.format("%s [%s] %s chunk %s attached to operation [%s] submitted before", ResourceModel.TYPE_NAME, model.getStackSetId(), api.getOperationType(), chunkDescription, operationId));
+                            return api.getSubmitted().apply(operationId);
+                        }
+                        logger.log(String.format("%s [%s] %s chunk %s in [%s] of [%s] initiated with %s", ResourceModel.TYPE_NAME, model.getStackSetId(), api.getOperationType(), chunkDescription, stackInstances.getRegions(), stackInstances.getDeploymentTargets(), api.getOperationPreferences().apply(modelRequest)));
                         return response;
                     })
-                    .stabilize((request, response, proxyInvocation, resourceModel, context) -> isOperationStabilized(proxyInvocation, resourceModel, response.operationId(), logger))
-                    .retryErrorFilter(this::filterException)
-                    .progress();
+                    .handleError((request, e, proxyClient, model_, context) -> {
+                        // If StackInstanceNotFoundException is thrown by the service, then we did succeed delete/stabilization call in case of out of band deletion.
+                        if (api.isDeletion() && e instanceof StackInstanceNotFoundException) {
+                            return ProgressEvent.success(model_, context);
+                        }
+                        // If OperationInProgressException is thrown by the service, then we submit this chunk again once the
+                        // blocking operation completed, rather than carrying on with the next steps of the handler chain
+                        if (e instanceof OperationInProgressException) {
+                            return blockedByOperation(proxyClient, model_, context, operationKey, logger);
+                        }
+                        throw e;
+                    })
+                    .done((request, response, proxyInvocation, resourceModel, context) -> {
+                        final String operationId = api.getOperationId().apply(response);
+                        return awaitUnlessConcurrent(operationKey, operationId, submittedOperationIds, resourceModel, context,
+                                () -> isOperationStabilized(proxyInvocation, resourceModel, context, operationId, operationKey, stackInstances,
+                                        failureBudgetKey, logger));
+                    });
 
             if (!progressEvent.isSuccess()) {
                 return progressEvent;
             }
+
+            final List<StackInstances> failedStackInstances = callbackContext.getFailedStackInstances().get(operationKey);
+            if (failedStackInstances != null) {
+                final ProgressEvent<ResourceModel, CallbackContext> retryEvent = submitStackInstances(
+                        proxy, client, progress, api, failedStackInstances, clientRequestToken, submittedOperationIds, failureBudgetKey, retry + 1, logger);
+                if (!retryEvent.canContinueProgress()) {
+                    return retryEvent;
+                }
+            }
         }
 
         return ProgressEvent.progress(model, callbackContext);
@@ -320,54 +656,402 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
         return stackSet;
     }
 
+    /**
+     * Derives the OperationId of a stack instances operation from the client request token and the key of the
+     * operation, see {@link #operationKey}. If the handler submits the same operation again for the same request,
+     * for instance after its callback was lost, StackSets rejects it with {@link OperationIdAlreadyExistsException}
+     * and the handler attaches to the operation that already exists, rather than processing the instances twice.
+     *
+     * @param clientRequestToken {@link ResourceHandlerRequest#getClientRequestToken()}
+     * @param operationKey       key of the operation, see {@link #operationKey}
+     * @return OperationId, or null to let StackSets generate one if there is no client request token
+     */
+    @VisibleForTesting
+    static String operationId(
+            final String clientRequestToken,
+            final String operationKey) {
+
+        if (clientRequestToken == null) {
+            return null;
+        }
+        return Digest.sha256(clientRequestToken, operationKey);
+    }
+
+    /**
+     * Identifies a stack instances operation within the handler, both as its call graph and in {@link CallbackContext}.
+     * A retry of the stack instances that failed gets its own key, even if all of the stack instances failed.
+     *
+     * @param operationType  Name of the stack instances API
+     * @param stackInstances {@link StackInstances} of the operation
+     * @param retry          Number of failed operations the stack instances were retried after
+     * @return Operation key
+     */
+    @VisibleForTesting
+    static String operationKey(final String operationType, final StackInstances stackInstances, final int retry) {
+        final String operationKey = operationType + "-" + OperationKey.of(stackInstances);
+        return retry == 0 ? operationKey : operationKey + "-Retry" + retry;
+    }
+
+    /**
+     * Completes the proxy chain of a submitted operation. Unless operations are submitted concurrently under
+     * ManagedExecution, in which case all of them are awaited together by {@link #stabilizeOperations}, the operation
+     * is awaited right away, see {@link #awaitOperations}.
+     *
+     * @param operationKey          key of the operation, unique within the handler request
+     * @param operationId           OperationId from operation response
+     * @param submittedOperationIds OperationIds submitted concurrently, or null to await the operation now
+     * @param isStabilized          checks once if the operation is stabilized
+     * @return {@link ProgressEvent<ResourceModel, CallbackContext>}
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> awaitUnlessConcurrent(
+            final String operationKey,
+            final String operationId,
+            final List<String> submittedOperationIds,
+            final ResourceModel model,
+            final CallbackContext callbackContext,
+            final BooleanSupplier isStabilized) {
+
+        if (submittedOperationIds != null) {
+            return operationSubmitted(operationId, submittedOperationIds, model, callbackContext);
+        }
+        return awaitOperations(Collections.singletonList(operationKey), model, callbackContext, key -> isStabilized.getAsBoolean());
+    }
+
+    /**
+     * Completes the proxy chain of a submitted operation, recording its OperationId if operations are submitted
+     * concurrently. A memoized response is completed again on every handler invocation, so the OperationIds of
+     * operations submitted by previous invocations are recorded as well.
+     *
+     * @param operationId           OperationId from operation response
+     * @param submittedOperationIds OperationIds submitted concurrently, or null if the operation is already stabilized
+     * @return {@link ProgressEvent<ResourceModel, CallbackContext>}
+     */
+    protected static ProgressEvent<ResourceModel, CallbackContext> operationSubmitted(
+            final String operationId,
+            final List<String> submittedOperationIds,
+            final ResourceModel model,
+            final CallbackContext callbackContext) {
+
+        if (submittedOperationIds != null && !submittedOperationIds.contains(operationId)) {
+            submittedOperationIds.add(operationId);
+        }
+        return ProgressEvent.success(model, callbackContext);
+    }
+
+    /**
+     * Stabilizes operations that were submitted concurrently under ManagedExecution. StackSets runs non-conflicting
+     * operations in parallel and queues conflicting ones in request order, so this waits for roughly the duration of
+     * the longest operation rather than for the sum of all of them.
+     *
+     * @param proxy        {@link AmazonWebServicesClientProxy} to initiate proxy chain
+     * @param client       the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
+     * @param progress     {@link ProgressEvent<ResourceModel, CallbackContext>} to place hold the current progress data
+     * @param operationIds OperationIds in submission order, or null if operations were stabilized one at a time
+     * @param logger       {@link Logger}
+     * @return {@link ProgressEvent<ResourceModel, CallbackContext>}
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> stabilizeOperations(
+            final AmazonWebServicesClientProxy proxy,
+            final ProxyClient<CloudFormationClient> client,
+            final ProgressEvent<ResourceModel, CallbackContext> progress,
+            final List<String> operationIds,
+            final Logger logger) {
+
+        final ResourceModel model = progress.getResourceModel();
+        final CallbackContext callbackContext = progress.getCallbackContext();
+        if (operationIds == null || operationIds.isEmpty()) {
+            return ProgressEvent.progress(model, callbackContext);
+        }
+
+        logger.log(String.format("%s [%s] waiting for %d concurrent operations", ResourceModel.TYPE_NAME, model.getStackSetId(), operationIds.size()));
+        final ProgressEvent<ResourceModel, CallbackContext> progressEvent = awaitOperations(operationIds, model, callbackContext,
+                operationId -> isOperationStabilized(client, model, callbackContext, operationId, logger));
+        return progressEvent.isSuccess() ? ProgressEvent.progress(model, callbackContext) : progressEvent;
+    }
+
+    /**
+     * Awaits StackSet operations across handler invocations rather than within one. Each invocation checks once the
+     * operations that have not stabilized yet, and returns IN_PROGRESS with a callback scheduled by
+     * {@link #STABILIZATION_DELAY}, close to the predicted completion of the operation expected to complete last.
+     * Operations that stabilized are recorded in {@link CallbackContext}, so that callbacks do not describe them again.
+     *
+     * @param operationKeys   keys of the operations to await
+     * @param model           {@link ResourceModel}
+     * @param callbackContext {@link CallbackContext}
+     * @param isStabilized    checks once if the operation with the given key is stabilized
+     * @return success once all operations are stabilized, in progress with delay callback or failed state
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> awaitOperations(
+            final List<String> operationKeys,
+            final ResourceModel model,
+            final CallbackContext callbackContext,
+            final Predicate<String> isStabilized) {
+
+        // Every invocation predicts the completion from its own polls
+        callbackContext.setOperationPrediction(null);
+        final List<String> pendingOperationKeys = new ArrayList<>();
+        for (final String operationKey : operationKeys) {
+            if (callbackContext.getStabilizedOperations().contains(operationKey)) {
+                continue;
+            }
+            if (isStabilized.test(operationKey)) {
+                callbackContext.getStabilizedOperations().add(operationKey);
+            } else {
+                pendingOperationKeys.add(operationKey);
+            }
+        }
+        if (pendingOperationKeys.isEmpty()) {
+            return ProgressEvent.success(model, callbackContext);
+        }
+
+        final int attempt = callbackContext.getOperationPollCounts().values().stream()
+                .max(Integer::compare)
+                .orElse(1);
+        final Duration next = STABILIZATION_DELAY.nextDelay(callbackContext.getOperationPrediction(), attempt);
+        if (next.isZero()) {
+            return ProgressEvent.failed(model, callbackContext, HandlerErrorCode.NotStabilized,
+                    String.format("StackSet Operations %s did not complete in time", pendingOperationKeys));
+        }
+        return ProgressEvent.defaultInProgressHandler(callbackContext, (int) Math.max(1L, next.getSeconds()), model);
+    }
+
     /**
      * Checks if the operation is stabilized using OperationId to interact with
-     * {@link DescribeStackSetOperationResponse}
+     * {@link DescribeStackSetOperationResponse}. Operations awaited this way were submitted together under
+     * ManagedExecution, or are not stack instances operations, so the stack instances of a failed operation are not
+     * retried: the chunks queued behind it were submitted before it failed, and a retry could not be ordered after them.
+     *
+     * @param model           {@link ResourceModel}
+     * @param callbackContext {@link CallbackContext}
+     * @param operationId     OperationId from operation response
+     * @param logger          Logger
+     * @return A boolean value indicates if operation is complete
+     */
+    protected boolean isOperationStabilized(final ProxyClient<CloudFormationClient> proxyClient,
+                                            final ResourceModel model,
+                                            final CallbackContext callbackContext,
+                                            final String operationId,
+                                            final Logger logger) {
+
+        final StackSetOperationStatus status = pollStackSetOperation(proxyClient, model, callbackContext, operationId, 0, true, logger);
+        final String failedRegion = callbackContext.getStoppedOperations().get(operationId);
+        if (failedRegion != null) {
+            throw new TerminalException(
+                    String.format("Stack set operation [%s] exceeded its failure tolerance in [%s] and was stopped", operationId, failedRegion));
+        }
+        if (status == StackSetOperationStatus.FAILED) {
+            logger.log(String.format("StackSet Operation [%s] failed, stack instances of operations awaited together are not retried",
+                    operationId));
+        }
+        return isStackSetOperationDone(status, operationId, logger);
+    }
+
+    /**
+     * Checks if a stack instances operation is stabilized. If the operation failed, or was stopped by the handler as
+     * it exceeded its failure tolerance, rather than failing the handler, the (target, region) pairs that failed or
+     * were cancelled are looked up with ListStackSetOperationResults and recorded in {@link CallbackContext} under the
+     * key of the operation, to be submitted again as long as the failure budget allows it, see {@link #chargeFailures}.
+     * Operations that were stopped otherwise are not retried.
      *
-     * @param model       {@link ResourceModel}
-     * @param operationId OperationId from operation response
-     * @param logger      Logger
+     * @param model            {@link ResourceModel}
+     * @param callbackContext  {@link CallbackContext}
+     * @param operationId      OperationId from operation response
+     * @param operationKey     key of the operation, see {@link #operationKey}
+     * @param stackInstances   {@link StackInstances} of the operation
+     * @param failureBudgetKey key of the operation the stack instances were first submitted with
+     * @param logger           Logger
      * @return A boolean value indicates if operation is complete
      */
     protected boolean isOperationStabilized(final ProxyClient<CloudFormationClient> proxyClient,
                                             final ResourceModel model,
+                                            final CallbackContext callbackContext,
                                             final String operationId,
+                                            final String operationKey,
+                                            final StackInstances stackInstances,
+                                            final String failureBudgetKey,
                                             final Logger logger) {
 
-        final String stackSetId = model.getStackSetId();
-        final String callAs = model.getCallAs();
-        final StackSetOperationStatus status = getStackSetOperationStatus(proxyClient, stackSetId, operationId, callAs);
+        final int accountsPerRegion = isSelfManaged(model) && stackInstances.getDeploymentTargets().getAccounts() != null
+                ? stackInstances.getDeploymentTargets().getAccounts().size() : 0;
+        final StackSetOperationStatus status = pollStackSetOperation(proxyClient, model, callbackContext, operationId, accountsPerRegion, true, logger);
+        final String failedRegion = callbackContext.getStoppedOperations().get(operationId);
+        // The results of an operation the handler stopped are complete once it stopped
+        if (failedRegion != null && status == StackSetOperationStatus.STOPPING) {
+            return false;
+        }
+        if (status == StackSetOperationStatus.FAILED || failedRegion != null && status == StackSetOperationStatus.STOPPED) {
+            final OperationFailures operationFailures = OperationResultsAnalyzer.builder()
+                    .proxyClient(proxyClient)
+                    .isSelfManaged(isSelfManaged(model))
+                    .build()
+                    .analyzeFailures(model.getStackSetId(), operationId, model.getCallAs(), stackInstances);
+            final List<StackInstances> failedStackInstances = operationFailures.getRetryStackInstances();
+            if (!failedStackInstances.isEmpty()
+                    && chargeFailures(model, callbackContext, failureBudgetKey, operationFailures, logger)) {
+                logger.log(String.format("StackSet Operation [%s] %s, retrying %d operations of the stack instances that did not succeed",
+                        operationId, failedRegion == null ? "failed" : "was stopped", failedStackInstances.size()));
+                callbackContext.getFailedStackInstances().put(operationKey, failedStackInstances);
+                callbackContext.getStoppedOperations().remove(operationId);
+                return true;
+            }
+        }
+        if (failedRegion != null) {
+            throw new TerminalException(
+                    String.format("Stack set operation [%s] exceeded its failure tolerance in [%s] and was stopped", operationId, failedRegion));
+        }
         return isStackSetOperationDone(status, operationId, logger);
     }
 
     /**
-     * Analyzes/validates template and StackInstancesGroup
+     * Charges the stack instances that failed in an operation to the failure budget of the operation they were first
+     * submitted with. The first failure sets the budget of each region to the FailureTolerance of the operation for
+     * the number of stack instances it had in that region, and to at least one failed stack instance, so that
+     * transient failures are retried even if no failure is tolerated. Every retry keeps the OperationPreferences of
+     * the model, and the stack instances are retried as long as no region failed more often than its budget.
      *
-     * @param proxyClient the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
-     * @param request     {@link ResourceHandlerRequest<ResourceModel>}
-     * @param placeHolder {@link StackInstancesPlaceHolder}
-     * @param action      {@link Action}
+     * @param model             {@link ResourceModel}
+     * @param callbackContext   {@link CallbackContext}
+     * @param failureBudgetKey  key of the operation the stack instances were first submitted with
+     * @param operationFailures {@link OperationFailures} of the failed operation
+     * @param logger            Logger
+     * @return if the stack instances that did not succeed may be retried
      */
-    protected void analyzeTemplate(
+    private static boolean chargeFailures(final ResourceModel model,
+                                          final CallbackContext callbackContext,
+                                          final String failureBudgetKey,
+                                          final OperationFailures operationFailures,
+                                          final Logger logger) {
+
+        final Map<String, Integer> failureBudget = callbackContext.getFailureBudgets().computeIfAbsent(failureBudgetKey, key -> {
+            final Map<String, Integer> budget = new HashMap<>();
+            operationFailures.getRegionResults().forEach((region, results) -> budget.put(region,
+                    Math.max(1, OperationFailureDetector.toleratedFailures(model.getOperationPreferences(), results))));
+            return budget;
+        });
+        // Every retry is charged at least one failure, so that retries always come to an end
+        if (operationFailures.getRegionFailures().isEmpty()) {
+            return false;
+        }
+        boolean canRetry = true;
+        for (final Map.Entry<String, Integer> failures : operationFailures.getRegionFailures().entrySet()) {
+            final int remaining = failureBudget.getOrDefault(failures.getKey(), 1) - failures.getValue();
+            failureBudget.put(failures.getKey(), remaining);
+            if (remaining < 0) {
+                logger.log(String.format("Stack instances in [%s] failed %d times more than FailureTolerance allows, not retrying them",
+                        failures.getKey(), -remaining));
+                canRetry = false;
+            }
+        }
+        return canRetry;
+    }
+
+    /**
+     * Stops a running operation that is bound to fail, as its failures already exceed its failure tolerance in a region,
+     * rather than waiting for every region to complete. The region is recorded in {@link CallbackContext}, so that the
+     * operation is told apart from operations stopped otherwise once it stopped.
+     *
+     * @param model           {@link ResourceModel}
+     * @param callbackContext {@link CallbackContext}
+     * @param operationId     OperationId of the running operation
+     * @param failedRegion    region in which the failures exceed the failure tolerance
+     * @param logger          Logger
+     */
+    private void stopOperation(final ProxyClient<CloudFormationClient> proxyClient,
+                               final ResourceModel model,
+                               final CallbackContext callbackContext,
+                               final String operationId,
+                               final String failedRegion,
+                               final Logger logger) {
+
+        logger.log(String.format("StackSet Operation [%s] exceeded its failure tolerance in [%s], stopping it", operationId, failedRegion));
+        proxyClient.injectCredentialsAndInvokeV2(
+                stopStackSetOperationRequest(model.getStackSetId(), operationId, model.getCallAs()),
+                proxyClient.client()::stopStackSetOperation);
+        callbackContext.getOperationResultsCursors().remove(operationId);
+        callbackContext.getStoppedOperations().put(operationId, failedRegion);
+    }
+
+    /**
+     * Analyzes/validates template and StackInstancesGroup. The first invocation stores the fingerprints of the template
+     * and of the planned stack instances in {@link CallbackContext}, so that callbacks neither call GetTemplateSummary
+     * again nor carry the plan itself. Callbacks served by the same handler process get the plan from
+     * {@link #STACK_INSTANCES_PLANS}, others analyze the StackInstancesGroup again, which plans the same operations.
+     *
+     * @param proxyClient     the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
+     * @param request         {@link ResourceHandlerRequest<ResourceModel>}
+     * @param callbackContext {@link CallbackContext}
+     * @param action          {@link Action}
+     * @return {@link StackInstancesPlaceHolder} with the planned operations
+     */
+    protected StackInstancesPlaceHolder analyzeTemplate(
             final ProxyClient<CloudFormationClient> proxyClient,
             final ResourceHandlerRequest<ResourceModel> request,
-            final StackInstancesPlaceHolder placeHolder,
+            final CallbackContext callbackContext,
             final Action action) {
 
         final ResourceModel desiredModel = request.getDesiredResourceState();
         final ResourceModel previousModel = request.getPreviousResourceState();
 
-        switch (action) {
-            case CREATE:
-                new Validator().validateTemplate(proxyClient, desiredModel.getTemplateBody(), desiredModel.getTemplateURL());
-                InstancesAnalyzer.builder().desiredModel(desiredModel).build().analyzeForCreate(placeHolder);
-                break;
-            case UPDATE:
+        if (action != Action.DELETE) {
+            final String templateFingerprint = Digest.sha256(desiredModel.getTemplateBody(), desiredModel.getTemplateURL());
+            if (!templateFingerprint.equals(callbackContext.getTemplateFingerprint())) {
                 new Validator().validateTemplate(proxyClient, desiredModel.getTemplateBody(), desiredModel.getTemplateURL());
-                InstancesAnalyzer.builder().desiredModel(desiredModel).previousModel(previousModel).build().analyzeForUpdate(placeHolder);
-                break;
-            case DELETE:
-                InstancesAnalyzer.builder().desiredModel(desiredModel).build().analyzeForDelete(placeHolder);
+                callbackContext.setTemplateFingerprint(templateFingerprint);
+            }
+        }
+
+        if (callbackContext.getStackInstancesFingerprint() == null) {
+            callbackContext.setStackInstancesFingerprint(StackInstancesPlanCache.fingerprint(action, desiredModel, previousModel));
         }
+        return STACK_INSTANCES_PLANS.get(callbackContext.getStackInstancesFingerprint(), () -> {
+            final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
+            switch (action) {
+                case CREATE:
+                    InstancesAnalyzer.builder().desiredModel(desiredModel).build().analyzeForCreate(placeHolder);
+                    break;
+                case UPDATE:
+                    InstancesAnalyzer.builder().desiredModel(desiredModel).previousModel(previousModel).build().analyzeForUpdate(placeHolder);
+                    break;
+                case DELETE:
+                    InstancesAnalyzer.builder().desiredModel(desiredModel).build().analyzeForDelete(placeHolder);
+            }
+            return placeHolder;
+        });
+    }
+
+    /**
+     * Stack instances API that chunks of stack instances are submitted with, see {@link #submitStackInstances}
+     */
+    @lombok.Value
+    private static class StackInstancesApi<RequestT extends AwsRequest, ResponseT extends AwsResponse> {
+
+        /**
+         * Name of the API, which operation keys start with
+         */
+        String operationType;
+
+        StackInstancesRequestBuilder<RequestT> requestBuilder;
+
+        Function<CloudFormationClient, Function<RequestT, ResponseT>> call;
+
+        Function<RequestT, StackSetOperationPreferences> operationPreferences;
+
+        Function<ResponseT, String> operationId;
+
+        /**
+         * Builds the response of an operation that was submitted before, from its OperationId
+         */
+        Function<String, ResponseT> submitted;
+
+        /**
+         * If stack instances that are not found are already done with
+         */
+        boolean deletion;
+    }
+
+    @FunctionalInterface
+    private interface StackInstancesRequestBuilder<RequestT> {
+        RequestT build(String stackSetName, OperationPreferences operationPreferences, StackInstances stackInstances,
+                       String callAs, String operationId);
     }
 }
@@ -1,10 +1,76 @@
 package software.amazon.cloudformation.stackset;
 
 import software.amazon.cloudformation.proxy.StdCallbackContext;
+import software.amazon.cloudformation.stackset.util.OperationPrediction;
+import software.amazon.cloudformation.stackset.util.OperationResultsCursor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @lombok.Getter
 @lombok.Setter
 @lombok.ToString
 @lombok.EqualsAndHashCode(callSuper = true)
 public class CallbackContext extends StdCallbackContext {
+
+    /**
+     * Fingerprint of the template that passed validation, so that callbacks do not validate it again
+     */
+    private String templateFingerprint;
+
+    /**
+     * Fingerprint of the stack instances planned by the first invocation, which every callback carries on with, see
+     * {@link software.amazon.cloudformation.stackset.util.StackInstancesPlanCache}
+     */
+    private String stackInstancesFingerprint;
+
+    /**
+     * Stack instances that failed or were cancelled, keyed by the operation key of the failed operation
+     */
+    private Map<String, List<StackInstances>> failedStackInstances = new HashMap<>();
+
+    /**
+     * Number of failed stack instances that may still be retried per region, keyed by the operation key of the
+     * operation the retries stem from
+     */
+    private Map<String, Map<String, Integer>> failureBudgets = new HashMap<>();
+
+    /**
+     * Operations that stabilized, which callbacks do not describe again. Operations awaited one at a time are
+     * recorded by their operation key, and operations awaited together by their OperationId.
+     */
+    private List<String> stabilizedOperations = new ArrayList<>();
+
+    /**
+     * OperationIds of the operations of the StackSet that blocked submitting an operation, keyed by operation key
+     */
+    private Map<String, String> blockingOperationIds = new HashMap<>();
+
+    /**
+     * Number of times each running operation has been described, keyed by OperationId
+     */
+    private Map<String, Integer> operationPollCounts = new HashMap<>();
+
+    /**
+     * Position in the results of each running operation, keyed by OperationId, see
+     * {@link software.amazon.cloudformation.stackset.util.OperationFailureDetector}
+     */
+    private Map<String, OperationResultsCursor> operationResultsCursors = new HashMap<>();
+
+    /**
+     * Region in which each operation the handler stopped exceeded its failure tolerance, keyed by OperationId
+     */
+    private Map<String, String> stoppedOperations = new HashMap<>();
+
+    /**
+     * Predicted completion of the operations polled by the current invocation, which schedules the next callback
+     */
+    private OperationPrediction operationPrediction;
+
+    /**
+     * Typical duration in seconds of recent operations of the StackSet, keyed by action, or null until looked up
+     */
+    private Map<String, Long> recentOperationSeconds;
 }
@@ -8,14 +8,27 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.stackset.util.OperationChunker;
 import software.amazon.cloudformation.stackset.util.StackInstancesPlaceHolder;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static software.amazon.cloudformation.stackset.translator.RequestTranslator.createStackSetRequest;
+import static software.amazon.cloudformation.stackset.util.Comparator.isManagedExecutionActive;
 
 public class CreateHandler extends BaseHandlerStd {
 
     private Logger logger;
 
+    public CreateHandler() {
+        super();
+    }
+
+    CreateHandler(final OperationChunker operationChunker, final boolean isStoppingFailingOperations) {
+        super(operationChunker, isStoppingFailingOperations);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -25,8 +38,9 @@ public class CreateHandler extends BaseHandlerStd {
 
         this.logger = logger;
         final ResourceModel model = request.getDesiredResourceState();
-        final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
-        analyzeTemplate(proxyClient, request, placeHolder, Action.CREATE);
+        final StackInstancesPlaceHolder placeHolder = analyzeTemplate(proxyClient, request, callbackContext, Action.CREATE);
+        // With ManagedExecution, all operations are submitted up front and stabilized together
+        final List<String> submittedOperationIds = isManagedExecutionActive(model) ? new ArrayList<>() : null;
 
         return proxy.initiate("AWS-CloudFormation-StackSet::Create", proxyClient, model, callbackContext)
                 .translateToServiceRequest(resourceModel -> createStackSetRequest(resourceModel, request.getClientRequestToken(), request.getDesiredResourceTags()))
@@ -37,7 +51,8 @@ public class CreateHandler extends BaseHandlerStd {
                     return response;
                 })
                 .progress()
-                .then(progress -> createStackInstances(proxy, proxyClient, progress, placeHolder.getCreateStackInstances(), logger))
+                .then(progress -> createStackInstances(proxy, proxyClient, progress, placeHolder.getCreateStackInstances(), request.getClientRequestToken(), submittedOperationIds, logger))
+                .then(progress -> stabilizeOperations(proxy, proxyClient, progress, submittedOperationIds, logger))
                 .then(progress -> ProgressEvent.defaultSuccessHandler(model));
     }
 }
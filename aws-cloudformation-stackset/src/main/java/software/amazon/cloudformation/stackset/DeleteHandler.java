@@ -8,14 +8,27 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.stackset.util.OperationChunker;
 import software.amazon.cloudformation.stackset.util.StackInstancesPlaceHolder;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static software.amazon.cloudformation.stackset.translator.RequestTranslator.deleteStackSetRequest;
+import static software.amazon.cloudformation.stackset.util.Comparator.isManagedExecutionActive;
 
 public class DeleteHandler extends BaseHandlerStd {
 
     private Logger logger;
 
+    public DeleteHandler() {
+        super();
+    }
+
+    DeleteHandler(final OperationChunker operationChunker, final boolean isStoppingFailingOperations) {
+        super(operationChunker, isStoppingFailingOperations);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -26,14 +39,16 @@ public class DeleteHandler extends BaseHandlerStd {
         this.logger = logger;
         final ResourceModel model = request.getDesiredResourceState();
         // Analyzes stack instances group for delete
-        final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
-        analyzeTemplate(proxyClient, request, placeHolder, Action.DELETE);
+        final StackInstancesPlaceHolder placeHolder = analyzeTemplate(proxyClient, request, callbackContext, Action.DELETE);
+        // With ManagedExecution, all operations are submitted up front and stabilized together
+        final List<String> submittedOperationIds = isManagedExecutionActive(model) ? new ArrayList<>() : null;
 
         return ProgressEvent.progress(model, callbackContext)
                 // describe StackSet in case it is DELETED
                 .then(progress -> describeStackSet(proxy, proxyClient, progress, logger))
                 // delete/stabilize progress chain - delete all associated stack instances
-                .then(progress -> deleteStackInstances(proxy, proxyClient, progress, placeHolder.getDeleteStackInstances(), logger))
+                .then(progress -> deleteStackInstances(proxy, proxyClient, progress, placeHolder.getDeleteStackInstances(), request.getClientRequestToken(), submittedOperationIds, logger))
+                .then(progress -> stabilizeOperations(proxy, proxyClient, progress, submittedOperationIds, logger))
                 .then(progress -> deleteStackSet(proxy, proxyClient, progress))
                 .onSuccess(progress -> ProgressEvent.defaultSuccessHandler(null));
     }
@@ -3,21 +3,90 @@ package software.amazon.cloudformation.stackset;
 import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
 import software.amazon.awssdk.services.cloudformation.model.ListStackSetsResponse;
 import software.amazon.awssdk.services.cloudformation.model.StackSetStatus;
+import software.amazon.awssdk.services.cloudformation.model.StackSetSummary;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.stackset.util.ListPageToken;
 import software.amazon.cloudformation.stackset.util.ResourceModelBuilder;
+import software.amazon.cloudformation.stackset.util.CallBudget;
+import software.amazon.cloudformation.stackset.util.StackInstancesReader;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
 
 import static software.amazon.cloudformation.stackset.translator.RequestTranslator.listStackSetsRequest;
 
+/**
+ * Builds the models of a page of ListStackSets concurrently on a bounded executor
+ *
+ * <p>Each stack set is described and has its stack instances read within an item timeout, counted from when its
+ * model starts being built. Once a stack set after the first exceeds its item timeout, or the page timeout is reached,
+ * the models built so far are returned with a {@link ListPageToken} to resume from the first stack set left out,
+ * rather than failing the whole List request. A first stack set of a request that exceeds its item timeout is listed
+ * by its StackSetId only, so that every request moves the listing forward however slow a stack set is. The calls of every stack set take their permits
+ * from the {@link CallBudget#shared} budget, so that the calls in flight stay bounded across requests.
+ *
+ * <p>The List contract only requires the StackSetId of each stack set, so in {@link Mode#IDENTIFIER} models are
+ * read straight from the ListStackSets summaries, without describing stack sets or listing their stack instances.
+ * The mode is read from the {@value #LIST_MODE_VARIABLE} environment variable of the handler, and defaults to
+ * {@link Mode#FULL}.
+ */
 public class ListHandler extends BaseHandlerStd {
 
+    /**
+     * Environment variable selecting the {@link Mode} of the handler
+     */
+    static final String LIST_MODE_VARIABLE = "LIST_MODE";
+
+    /**
+     * Default number of stack sets built at a time
+     */
+    static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    /**
+     * Default time to build the model of a stack set
+     */
+    static final Duration DEFAULT_ITEM_TIMEOUT = Duration.ofSeconds(20L);
+
+    /**
+     * Default time to build the models of a page, after which the page is cut short
+     */
+    static final Duration DEFAULT_PAGE_TIMEOUT = Duration.ofSeconds(40L);
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final Mode mode;
+    private final int maxConcurrency;
+    private final Duration itemTimeout;
+    private final Duration pageTimeout;
+
+    public ListHandler() {
+        this(Mode.of(System.getenv(LIST_MODE_VARIABLE)), DEFAULT_MAX_CONCURRENCY, DEFAULT_ITEM_TIMEOUT,
+                DEFAULT_PAGE_TIMEOUT);
+    }
+
+    ListHandler(final Mode mode, final int maxConcurrency, final Duration itemTimeout, final Duration pageTimeout) {
+        this.mode = mode;
+        this.maxConcurrency = maxConcurrency;
+        this.itemTimeout = itemTimeout;
+        this.pageTimeout = pageTimeout;
+    }
+
     @Override
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
@@ -26,24 +95,160 @@ public class ListHandler extends BaseHandlerStd {
             final ProxyClient<CloudFormationClient> proxyClient,
             final Logger logger) {
 
+        final long deadline = System.nanoTime() + pageTimeout.toNanos();
+        final ListPageToken pageToken = ListPageToken.decode(request.getNextToken());
         final ListStackSetsResponse response = proxyClient.injectCredentialsAndInvokeV2(
-                listStackSetsRequest(request.getNextToken()), proxyClient.client()::listStackSets);
+                listStackSetsRequest(pageToken.getNextToken()), proxyClient.client()::listStackSets);
+
+        final List<StackSetSummary> pageSummaries = response.hasSummaries()
+                ? response.summaries() : Collections.emptyList();
+        final List<StackSetSummary> summaries = pageSummaries
+                .subList(Math.min(pageToken.getOffset(), pageSummaries.size()), pageSummaries.size());
+        if (mode == Mode.IDENTIFIER) {
+            return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                    .resourceModels(summaries.stream()
+                            .filter(stackSetSummary -> StackSetStatus.DELETED != stackSetSummary.status())
+                            .map(stackSetSummary -> ResourceModel.builder()
+                                    .stackSetId(stackSetSummary.stackSetId())
+                                    .build())
+                            .collect(Collectors.toList()))
+                    .status(OperationStatus.SUCCESS)
+                    .nextToken(response.nextToken())
+                    .build();
+        }
+
+        final ExecutorService executor = StackInstancesReader.newExecutor(
+                Math.max(1, Math.min(maxConcurrency, summaries.size())), "ListHandler");
+        try {
+            final long[] notStarted = new long[summaries.size()];
+            Arrays.fill(notStarted, NOT_STARTED);
+            final AtomicLongArray starts = new AtomicLongArray(notStarted);
+            final List<Future<ResourceModel>> futures = new ArrayList<>();
+            for (int index = 0; index < summaries.size(); index++) {
+                final int item = index;
+                futures.add(executor.submit(() -> {
+                    starts.set(item, System.nanoTime());
+                    return buildModel(proxyClient, summaries.get(item));
+                }));
+            }
 
-        final List<ResourceModel> models = response
-                .summaries()
-                .stream()
-                .filter(stackSetSummary -> StackSetStatus.DELETED != stackSetSummary.status())
-                .map(stackSetSummary -> ResourceModelBuilder.builder()
+            final List<ResourceModel> models = new ArrayList<>();
+            for (int index = 0; index < futures.size(); index++) {
+                final ResourceModel model;
+                try {
+                    model = await(futures.get(index), starts, index, deadline);
+                } catch (final TimeoutException e) {
+                    final String stackSetId = summaries.get(index).stackSetId();
+                    int listed = index;
+                    if (index == 0) {
+                        // Waiting for it again would time out again, so it is listed by its StackSetId only
+                        logger.log(String.format("StackSet [%s] was not built within %s, listing its StackSetId only",
+                                stackSetId, itemTimeout));
+                        models.add(ResourceModel.builder().stackSetId(stackSetId).build());
+                        listed++;
+                    } else {
+                        logger.log(String.format("Listed %d of %d stack sets of the page, StackSet [%s] was not "
+                                + "built within %s", index, summaries.size(), stackSetId,
+                                System.nanoTime() - deadline >= 0 ? pageTimeout : itemTimeout));
+                    }
+                    return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                            .resourceModels(models)
+                            .status(OperationStatus.SUCCESS)
+                            .nextToken(listed < summaries.size()
+                                    ? new ListPageToken(pageToken.getNextToken(), pageToken.getOffset() + listed).encode()
+                                    : response.nextToken())
+                            .build();
+                }
+                if (model != null) models.add(model);
+            }
+
+            return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                    .resourceModels(models)
+                    .status(OperationStatus.SUCCESS)
+                    .nextToken(response.nextToken())
+                    .build();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new CfnGeneralServiceException("ListStackSets", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CfnGeneralServiceException("ListStackSets", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the model of a stack set until its item timeout, counted from when it started being built, and for
+     * stack sets after the first, until the page deadline at the latest
+     *
+     * @param future   Model being built
+     * @param starts   Time each model started being built at, {@link #NOT_STARTED} until then
+     * @param index    Index of the stack set in the page
+     * @param deadline Page deadline
+     * @return {@link ResourceModel} of the stack set, or null if it is DELETED
+     * @throws TimeoutException if the model is not built by either deadline
+     */
+    private ResourceModel await(
+            final Future<ResourceModel> future,
+            final AtomicLongArray starts,
+            final int index,
+            final long deadline) throws ExecutionException, InterruptedException, TimeoutException {
+
+        while (true) {
+            final long now = System.nanoTime();
+            final long start = starts.get(index);
+            // A stack set still queued behind others has not started its item timeout yet
+            final long itemDeadline = (start == NOT_STARTED ? now : start) + itemTimeout.toNanos();
+            final long waitDeadline = index == 0 || itemDeadline - deadline < 0 ? itemDeadline : deadline;
+            try {
+                return future.get(Math.max(0L, waitDeadline - now), TimeUnit.NANOSECONDS);
+            } catch (final TimeoutException e) {
+                if (start != NOT_STARTED || index > 0 && System.nanoTime() - deadline >= 0) throw e;
+            }
+        }
+    }
+
+    /**
+     * @param stackSetSummary {@link StackSetSummary}
+     * @return {@link ResourceModel} of the stack set, or null if it is DELETED
+     */
+    private ResourceModel buildModel(
+            final ProxyClient<CloudFormationClient> proxyClient,
+            final StackSetSummary stackSetSummary) {
+
+        if (StackSetStatus.DELETED == stackSetSummary.status()) return null;
+
+        // The item timeout bounds the whole model, so the reader keeps its own read timeout as a backstop only
+        return ResourceModelBuilder.builder()
+                .proxyClient(proxyClient)
+                .stackSet(CallBudget.shared().call(() -> describeStackSet(proxyClient, stackSetSummary.stackSetId())))
+                .stackInstancesReader(StackInstancesReader.builder()
                         .proxyClient(proxyClient)
-                        .stackSet(describeStackSet(proxyClient, stackSetSummary.stackSetId()))
-                        .build()
-                        .buildModel())
-                .collect(Collectors.toList());
-
-        return ProgressEvent.<ResourceModel, CallbackContext>builder()
-                .resourceModels(models)
-                .status(OperationStatus.SUCCESS)
-                .nextToken(response.nextToken())
-                .build();
+                        .build())
+                .build()
+                .buildModel();
+    }
+
+    /**
+     * Selects how the models of stack sets are built
+     */
+    enum Mode {
+        /**
+         * Models with the properties of the stack set and its stack instances
+         */
+        FULL,
+        /**
+         * Models with the StackSetId only
+         */
+        IDENTIFIER;
+
+        /**
+         * @param name Name of the mode, case insensitive
+         * @return {@link Mode} of the name, {@link #FULL} if there is none
+         */
+        static Mode of(final String name) {
+            return IDENTIFIER.name().equalsIgnoreCase(name) ? IDENTIFIER : FULL;
+        }
     }
 }
@@ -14,10 +14,30 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.stackset.util.ParameterOverridesReader;
 import software.amazon.cloudformation.stackset.util.ResourceModelBuilder;
 
+/**
+ * Parameter overrides of stack instances cost a DescribeStackInstance call each to read, so they are only read when
+ * the {@value #READ_PARAMETER_OVERRIDES_VARIABLE} environment variable of the handler is set to true.
+ */
 public class ReadHandler extends BaseHandlerStd {
 
+    /**
+     * Environment variable enabling reading the parameter overrides of stack instances
+     */
+    static final String READ_PARAMETER_OVERRIDES_VARIABLE = "READ_PARAMETER_OVERRIDES";
+
+    private final boolean isReadingParameterOverrides;
+
+    public ReadHandler() {
+        this(Boolean.parseBoolean(System.getenv(READ_PARAMETER_OVERRIDES_VARIABLE)));
+    }
+
+    ReadHandler(final boolean isReadingParameterOverrides) {
+        this.isReadingParameterOverrides = isReadingParameterOverrides;
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -73,6 +93,9 @@ public class ReadHandler extends BaseHandlerStd {
                 .resourceModel(ResourceModelBuilder.builder()
                         .proxyClient(proxyClient)
                         .stackSet(stackSet)
+                        .parameterOverridesReader(isReadingParameterOverrides
+                                ? ParameterOverridesReader.builder().proxyClient(proxyClient).logger(logger).build()
+                                : null)
                         .build()
                         .buildModel(callAs))
                 .status(OperationStatus.SUCCESS)
@@ -1,6 +1,7 @@
 package software.amazon.cloudformation.stackset;
 
 import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.OperationInProgressException;
 import software.amazon.awssdk.services.cloudformation.model.UpdateStackSetResponse;
 import software.amazon.cloudformation.Action;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
@@ -8,15 +9,28 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.stackset.util.OperationChunker;
 import software.amazon.cloudformation.stackset.util.StackInstancesPlaceHolder;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static software.amazon.cloudformation.stackset.translator.RequestTranslator.updateStackSetRequest;
+import static software.amazon.cloudformation.stackset.util.Comparator.isManagedExecutionActive;
 import static software.amazon.cloudformation.stackset.util.Comparator.isStackSetConfigEquals;
 
 public class UpdateHandler extends BaseHandlerStd {
 
     private Logger logger;
 
+    public UpdateHandler() {
+        super();
+    }
+
+    UpdateHandler(final OperationChunker operationChunker, final boolean isStoppingFailingOperations) {
+        super(operationChunker, isStoppingFailingOperations);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -28,16 +42,21 @@ public class UpdateHandler extends BaseHandlerStd {
 
         final ResourceModel model = request.getDesiredResourceState();
         final ResourceModel previousModel = request.getPreviousResourceState();
-        final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
-        analyzeTemplate(proxyClient, request, placeHolder, Action.UPDATE);
+        final StackInstancesPlaceHolder placeHolder = analyzeTemplate(proxyClient, request, callbackContext, Action.UPDATE);
+        // Operations are submitted up front and stabilized together only if ManagedExecution is active for all of them,
+        // that is, if this update neither activates nor deactivates it
+        final List<String> submittedOperationIds = isManagedExecutionActive(previousModel) && isManagedExecutionActive(model)
+                ? new ArrayList<>() : null;
 
         return ProgressEvent.progress(model, callbackContext)
                 // describe StackSet in case it is DELETED
                 .then(progress -> describeStackSet(proxy, proxyClient, progress, logger))
-                .then(progress -> deleteStackInstances(proxy, proxyClient, progress, placeHolder.getDeleteStackInstances(), logger))
-                .then(progress -> updateStackSet(proxy, proxyClient, request, progress, previousModel))
-                .then(progress -> createStackInstances(proxy, proxyClient, progress, placeHolder.getCreateStackInstances(), logger))
-                .then(progress -> updateStackInstances(proxy, proxyClient, progress, placeHolder.getUpdateStackInstances(), logger))
+                .then(progress -> deleteStackInstances(proxy, proxyClient, progress, placeHolder.getDeleteStackInstances(), request.getClientRequestToken(), submittedOperationIds, logger))
+                .then(progress -> updateStackSet(proxy, proxyClient, request, progress, previousModel, placeHolder.getUpdateStackSetScope(), submittedOperationIds))
+                .then(progress -> createStackInstances(proxy, proxyClient, progress, placeHolder.getCreateStackInstances(), request.getClientRequestToken(), submittedOperationIds, logger))
+                .then(progress -> updateStackInstances(proxy, proxyClient, progress, placeHolder.getUpdateStackInstances(), request.getClientRequestToken(), submittedOperationIds, logger))
+                // StackSets queues conflicting operations in request order, which keeps the order of the steps above
+                .then(progress -> stabilizeOperations(proxy, proxyClient, progress, submittedOperationIds, logger))
                 .then(progress -> ProgressEvent.defaultSuccessHandler(model));
     }
 
@@ -45,11 +64,14 @@ public class UpdateHandler extends BaseHandlerStd {
      * Implement client invocation of the update request through the proxyClient, which is already initialised with
      * caller credentials, correct region and retry settings
      *
-     * @param proxy          {@link AmazonWebServicesClientProxy} to initiate proxy chain
-     * @param client         the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
-     * @param handlerRequest Resource handler request {@link ResourceHandlerRequest<ResourceModel>}
-     * @param progress       {@link ProgressEvent<ResourceModel, CallbackContext>} to place hold the current progress data
-     * @param previousModel  previous {@link ResourceModel} for comparing with desired model
+     * @param proxy                 {@link AmazonWebServicesClientProxy} to initiate proxy chain
+     * @param client                the aws service client {@link ProxyClient<CloudFormationClient>} to make the call
+     * @param handlerRequest        Resource handler request {@link ResourceHandlerRequest<ResourceModel>}
+     * @param progress              {@link ProgressEvent<ResourceModel, CallbackContext>} to place hold the current progress data
+     * @param previousModel         previous {@link ResourceModel} for comparing with desired model
+     * @param scope                 {@link StackInstances} to deploy to, or null for all the stack instances, see
+     *                              {@link StackInstancesPlaceHolder#getUpdateStackSetScope()}
+     * @param submittedOperationIds OperationIds submitted concurrently, or null to stabilize the update right away
      * @return progressEvent indicating success, in progress with delay callback or failed state
      */
     private ProgressEvent<ResourceModel, CallbackContext> updateStackSet(
@@ -57,23 +79,36 @@ public class UpdateHandler extends BaseHandlerStd {
             final ProxyClient<CloudFormationClient> client,
             final ResourceHandlerRequest<ResourceModel> handlerRequest,
             final ProgressEvent<ResourceModel, CallbackContext> progress,
-            final ResourceModel previousModel) {
+            final ResourceModel previousModel,
+            final StackInstances scope,
+            final List<String> submittedOperationIds) {
 
         final ResourceModel desiredModel = progress.getResourceModel();
         final CallbackContext callbackContext = progress.getCallbackContext();
         if (isStackSetConfigEquals(previousModel, desiredModel, handlerRequest.getPreviousResourceTags(), handlerRequest.getDesiredResourceTags())) {
             return ProgressEvent.progress(desiredModel, callbackContext);
         }
-        return proxy.initiate("AWS-CloudFormation-StackSet::UpdateStackSet", client, desiredModel, callbackContext)
-                .translateToServiceRequest(modelRequest -> updateStackSetRequest(modelRequest, handlerRequest.getDesiredResourceTags()))
+        final ProgressEvent<ResourceModel, CallbackContext> blockedEvent = awaitBlockingOperation(client, desiredModel, callbackContext, "UpdateStackSet", logger);
+        if (!blockedEvent.canContinueProgress()) {
+            return blockedEvent;
+        }
+        final ProgressEvent<ResourceModel, CallbackContext> progressEvent = proxy
+                .initiate("AWS-CloudFormation-StackSet::UpdateStackSet", client, desiredModel, callbackContext)
+                .translateToServiceRequest(modelRequest -> updateStackSetRequest(modelRequest, handlerRequest.getDesiredResourceTags(), scope))
                 .backoffDelay(MULTIPLE_OF)
                 .makeServiceCall((modelRequest, proxyInvocation) -> {
                     final UpdateStackSetResponse response = proxyInvocation.injectCredentialsAndInvokeV2(modelRequest, proxyInvocation.client()::updateStackSet);
-                    logger.log(String.format("%s [%s] UpdateStackSet initiated", ResourceModel.TYPE_NAME, previousModel.getStackSetId()));
+                    logger.log(String.format("%s [%s] UpdateStackSet of [%s] initiated with %s", ResourceModel.TYPE_NAME, previousModel.getStackSetId(), scope == null ? "all stack instances" : scope, modelRequest.operationPreferences()));
                     return response;
                 })
-                .stabilize((request, response, proxyInvocation, resourceModel, context) -> isOperationStabilized(proxyInvocation, resourceModel, response.operationId(), logger))
-                .retryErrorFilter(this::filterException)
-                .progress();
+                .handleError((request, e, proxyClient, model, context) -> {
+                    if (e instanceof OperationInProgressException) {
+                        return blockedByOperation(proxyClient, model, context, "UpdateStackSet", logger);
+                    }
+                    throw e;
+                })
+                .done((request, response, proxyInvocation, resourceModel, context) -> awaitUnlessConcurrent("UpdateStackSet", response.operationId(), submittedOperationIds, resourceModel, context,
+                        () -> isOperationStabilized(proxyInvocation, resourceModel, context, response.operationId(), logger)));
+        return progressEvent.isSuccess() ? ProgressEvent.progress(desiredModel, callbackContext) : progressEvent;
     }
 }
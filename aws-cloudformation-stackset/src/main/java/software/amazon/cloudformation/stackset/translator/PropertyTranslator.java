@@ -2,16 +2,20 @@ package software.amazon.cloudformation.stackset.translator;
 
 import software.amazon.awssdk.services.cloudformation.model.AutoDeployment;
 import software.amazon.awssdk.services.cloudformation.model.DeploymentTargets;
+import software.amazon.awssdk.services.cloudformation.model.ManagedExecution;
 import software.amazon.awssdk.services.cloudformation.model.Parameter;
 import software.amazon.awssdk.services.cloudformation.model.StackInstanceSummary;
 import software.amazon.awssdk.services.cloudformation.model.StackSetOperationPreferences;
 import software.amazon.awssdk.services.cloudformation.model.Tag;
 import software.amazon.awssdk.utils.CollectionUtils;
 import software.amazon.cloudformation.stackset.OperationPreferences;
+import software.amazon.cloudformation.stackset.StackInstances;
+import software.amazon.cloudformation.stackset.util.OperationPreferencesTuner;
 import software.amazon.cloudformation.stackset.util.StackInstance;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -20,6 +24,10 @@ import java.util.stream.Collectors;
 
 public class PropertyTranslator {
 
+    private static final Comparator<software.amazon.cloudformation.stackset.Parameter> PARAMETER_ORDER = Comparator
+            .comparing(software.amazon.cloudformation.stackset.Parameter::getParameterKey, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(software.amazon.cloudformation.stackset.Parameter::getParameterValue, Comparator.nullsFirst(Comparator.naturalOrder()));
+
     /**
      * Converts AutoDeployment (from StackSet SDK) to AutoDeployment (from CFN resource model)
      *
@@ -50,6 +58,34 @@ public class PropertyTranslator {
                 .build();
     }
 
+    /**
+     * Converts ManagedExecution (from StackSet SDK) to ManagedExecution (from CFN resource model)
+     *
+     * @param managedExecution SDK ManagedExecution
+     * @return Resource model ManagedExecution
+     */
+    public static software.amazon.cloudformation.stackset.ManagedExecution translateFromSdkManagedExecution(
+            final ManagedExecution managedExecution) {
+        if (managedExecution == null) return null;
+        return software.amazon.cloudformation.stackset.ManagedExecution.builder()
+                .active(managedExecution.active())
+                .build();
+    }
+
+    /**
+     * Converts ManagedExecution (from CFN resource model) to ManagedExecution (from StackSet SDK)
+     *
+     * @param managedExecution ManagedExecution from resource model
+     * @return SDK ManagedExecution
+     */
+    public static ManagedExecution translateToSdkManagedExecution(
+            final software.amazon.cloudformation.stackset.ManagedExecution managedExecution) {
+        if (managedExecution == null) return null;
+        return ManagedExecution.builder()
+                .active(managedExecution.getActive())
+                .build();
+    }
+
     /**
      * Converts resource model DeploymentTargets to StackSet SDK DeploymentTargets
      *
@@ -59,11 +95,23 @@ public class PropertyTranslator {
     static DeploymentTargets translateToSdkDeploymentTargets(
             final software.amazon.cloudformation.stackset.DeploymentTargets deploymentTargets) {
         return DeploymentTargets.builder()
-                .accounts(deploymentTargets.getAccounts())
-                .organizationalUnitIds(deploymentTargets.getOrganizationalUnitIds())
+                .accounts(translateToSortedList(deploymentTargets.getAccounts()))
+                .organizationalUnitIds(translateToSortedList(deploymentTargets.getOrganizationalUnitIds()))
                 .build();
     }
 
+    /**
+     * Converts a resource model set of values to a sorted list, so that requests built from equal sets are equal
+     * and hash the same regardless of the set iteration order
+     *
+     * @param values Values from resource model
+     * @return Sorted values
+     */
+    static List<String> translateToSortedList(final Collection<String> values) {
+        if (values == null) return null;
+        return values.stream().sorted().collect(Collectors.toList());
+    }
+
     /**
      * Converts StackSet SDK Parameters to resource model Parameters
      *
@@ -75,6 +123,7 @@ public class PropertyTranslator {
         // To remove Parameters from a StackSet or StackSetInstance, set it as an empty list
         if (CollectionUtils.isNullOrEmpty(parameters)) return Collections.emptyList();
         return parameters.stream()
+                .sorted(PARAMETER_ORDER)
                 .map(parameter -> Parameter.builder()
                         .parameterKey(parameter.getParameterKey())
                         .parameterValue(parameter.getParameterValue())
@@ -107,7 +156,25 @@ public class PropertyTranslator {
      */
     static StackSetOperationPreferences translateToSdkOperationPreferences(
             final OperationPreferences operationPreferences) {
+        return translateToSdkOperationPreferences(operationPreferences, Collections.emptyList());
+    }
+
+    /**
+     * Converts resource model OperationPreferences to StackSet SDK OperationPreferences of an operation. With
+     * AutoTuning, the preferences that are not specified are picked from the stack instances of the operation, see
+     * {@link OperationPreferencesTuner}.
+     *
+     * @param operationPreferences OperationPreferences from resource model
+     * @param stackInstancesList   {@link StackInstances} the operation deploys
+     * @return SDK OperationPreferences
+     */
+    static StackSetOperationPreferences translateToSdkOperationPreferences(
+            final OperationPreferences operationPreferences,
+            final Collection<StackInstances> stackInstancesList) {
         if (operationPreferences == null) return null;
+        if (OperationPreferencesTuner.isAutoTuning(operationPreferences)) {
+            return OperationPreferencesTuner.tune(operationPreferences, stackInstancesList);
+        }
         return StackSetOperationPreferences.builder()
                 .maxConcurrentCount(operationPreferences.getMaxConcurrentCount())
                 .maxConcurrentPercentage(operationPreferences.getMaxConcurrentPercentage())
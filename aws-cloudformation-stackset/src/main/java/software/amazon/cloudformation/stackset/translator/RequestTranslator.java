@@ -9,20 +9,28 @@ import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetOper
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetRequest;
 import software.amazon.awssdk.services.cloudformation.model.GetTemplateSummaryRequest;
 import software.amazon.awssdk.services.cloudformation.model.ListStackInstancesRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationResultsRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationsRequest;
 import software.amazon.awssdk.services.cloudformation.model.ListStackSetsRequest;
+import software.amazon.awssdk.services.cloudformation.model.StopStackSetOperationRequest;
 import software.amazon.awssdk.services.cloudformation.model.UpdateStackInstancesRequest;
 import software.amazon.awssdk.services.cloudformation.model.UpdateStackSetRequest;
 import software.amazon.cloudformation.stackset.OperationPreferences;
 import software.amazon.cloudformation.stackset.ResourceModel;
 import software.amazon.cloudformation.stackset.StackInstances;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
 import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateToSdkAutoDeployment;
 import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateToSdkDeploymentTargets;
+import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateToSdkManagedExecution;
 import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateToSdkOperationPreferences;
 import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateToSdkParameters;
 import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateToSdkTags;
+import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateToSortedList;
+import static software.amazon.cloudformation.stackset.util.Comparator.isSelfManaged;
 
 public class RequestTranslator {
 
@@ -34,6 +42,7 @@ public class RequestTranslator {
                 .stackSetName(model.getStackSetName())
                 .administrationRoleARN(model.getAdministrationRoleARN())
                 .autoDeployment(translateToSdkAutoDeployment(model.getAutoDeployment()))
+                .managedExecution(translateToSdkManagedExecution(model.getManagedExecution()))
                 .clientRequestToken(requestToken)
                 .permissionModel(model.getPermissionModel())
                 .capabilitiesWithStrings(model.getCapabilities())
@@ -51,14 +60,16 @@ public class RequestTranslator {
             final String stackSetName,
             final OperationPreferences operationPreferences,
             final StackInstances stackInstances,
-            final String callAs) {
+            final String callAs,
+            final String operationId) {
         return CreateStackInstancesRequest.builder()
                 .stackSetName(stackSetName)
-                .regions(stackInstances.getRegions())
-                .operationPreferences(translateToSdkOperationPreferences(operationPreferences))
+                .regions(translateToSortedList(stackInstances.getRegions()))
+                .operationPreferences(translateToSdkOperationPreferences(operationPreferences, Collections.singletonList(stackInstances)))
                 .deploymentTargets(translateToSdkDeploymentTargets(stackInstances.getDeploymentTargets()))
                 .parameterOverrides(translateToSdkParameters(stackInstances.getParameterOverrides()))
                 .callAs(callAs)
+                .operationId(operationId)
                 .build();
     }
 
@@ -66,14 +77,16 @@ public class RequestTranslator {
             final String stackSetName,
             final OperationPreferences operationPreferences,
             final StackInstances stackInstances,
-            final String callAs) {
+            final String callAs,
+            final String operationId) {
         return UpdateStackInstancesRequest.builder()
                 .stackSetName(stackSetName)
-                .regions(stackInstances.getRegions())
-                .operationPreferences(translateToSdkOperationPreferences(operationPreferences))
+                .regions(translateToSortedList(stackInstances.getRegions()))
+                .operationPreferences(translateToSdkOperationPreferences(operationPreferences, Collections.singletonList(stackInstances)))
                 .deploymentTargets(translateToSdkDeploymentTargets(stackInstances.getDeploymentTargets()))
                 .parameterOverrides(translateToSdkParameters(stackInstances.getParameterOverrides()))
                 .callAs(callAs)
+                .operationId(operationId)
                 .build();
     }
 
@@ -90,24 +103,51 @@ public class RequestTranslator {
             final String stackSetName,
             final OperationPreferences operationPreferences,
             final StackInstances stackInstances,
-            final String callAs) {
+            final String callAs,
+            final String operationId) {
         return DeleteStackInstancesRequest.builder()
                 .stackSetName(stackSetName)
-                .regions(stackInstances.getRegions())
-                .operationPreferences(translateToSdkOperationPreferences(operationPreferences))
+                .regions(translateToSortedList(stackInstances.getRegions()))
+                .operationPreferences(translateToSdkOperationPreferences(operationPreferences, Collections.singletonList(stackInstances)))
                 .deploymentTargets(translateToSdkDeploymentTargets(stackInstances.getDeploymentTargets()))
                 .callAs(callAs)
+                .operationId(operationId)
                 .build();
     }
 
     public static UpdateStackSetRequest updateStackSetRequest(
             final ResourceModel model,
             final Map<String, String> tags) {
-        return UpdateStackSetRequest.builder()
+        return updateStackSetRequest(model, tags, null);
+    }
+
+    /**
+     * @param model  {@link ResourceModel}
+     * @param tags   tags of the StackSet
+     * @param scope  {@link StackInstances} to deploy to, or null for all the stack instances of the StackSet
+     * @return {@link UpdateStackSetRequest}
+     */
+    public static UpdateStackSetRequest updateStackSetRequest(
+            final ResourceModel model,
+            final Map<String, String> tags,
+            final StackInstances scope) {
+        final UpdateStackSetRequest.Builder builder = UpdateStackSetRequest.builder();
+        if (scope != null) {
+            // Accounts are only taken as such with SELF_MANAGED permissions
+            if (isSelfManaged(model)) {
+                builder.accounts(translateToSortedList(scope.getDeploymentTargets().getAccounts()));
+            } else {
+                builder.deploymentTargets(translateToSdkDeploymentTargets(scope.getDeploymentTargets()));
+            }
+            builder.regions(translateToSortedList(scope.getRegions()));
+        }
+        return builder
                 .stackSetName(model.getStackSetId())
                 .administrationRoleARN(model.getAdministrationRoleARN())
                 .autoDeployment(translateToSdkAutoDeployment(model.getAutoDeployment()))
-                .operationPreferences(translateToSdkOperationPreferences(model.getOperationPreferences()))
+                .managedExecution(translateToSdkManagedExecution(model.getManagedExecution()))
+                .operationPreferences(translateToSdkOperationPreferences(model.getOperationPreferences(),
+                        scope == null ? stackInstancesGroup(model) : Collections.singletonList(scope)))
                 .capabilitiesWithStrings(model.getCapabilities())
                 .description(model.getDescription())
                 .executionRoleName(model.getExecutionRoleName())
@@ -139,6 +179,30 @@ public class RequestTranslator {
                 .build();
     }
 
+    public static ListStackSetOperationResultsRequest listStackSetOperationResultsRequest(
+            final String nextToken,
+            final String stackSetName,
+            final String operationId,
+            final String callAs) {
+        return ListStackSetOperationResultsRequest.builder()
+                .maxResults(LIST_MAX_ITEMS)
+                .nextToken(nextToken)
+                .stackSetName(stackSetName)
+                .operationId(operationId)
+                .callAs(callAs)
+                .build();
+    }
+
+    public static ListStackSetOperationsRequest listStackSetOperationsRequest(
+            final String stackSetName,
+            final String callAs) {
+        return ListStackSetOperationsRequest.builder()
+                .maxResults(LIST_MAX_ITEMS)
+                .stackSetName(stackSetName)
+                .callAs(callAs)
+                .build();
+    }
+
     public static DescribeStackSetRequest describeStackSetRequest(
             final String stackSetId,
             final String callAs) {
@@ -172,6 +236,17 @@ public class RequestTranslator {
                 .build();
     }
 
+    public static StopStackSetOperationRequest stopStackSetOperationRequest(
+            final String stackSetName,
+            final String operationId,
+            final String callAs) {
+        return StopStackSetOperationRequest.builder()
+                .stackSetName(stackSetName)
+                .operationId(operationId)
+                .callAs(callAs)
+                .build();
+    }
+
     public static GetTemplateSummaryRequest getTemplateSummaryRequest(
             final String templateBody,
             final String templateUrl) {
@@ -180,4 +255,8 @@ public class RequestTranslator {
                 .templateURL(templateUrl)
                 .build();
     }
+
+    private static Collection<StackInstances> stackInstancesGroup(final ResourceModel model) {
+        return model.getStackInstancesGroup() == null ? Collections.emptySet() : model.getStackInstancesGroup();
+    }
 }
@@ -0,0 +1,154 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket whose rate adapts to throttling, increasing additively on success and decreasing multiplicatively on
+ * throttling (AIMD), so that callers settle close to the rate the service accepts rather than retrying into it
+ */
+public class AdaptiveRateLimiter {
+
+    /**
+     * Default rate in requests per second before any feedback
+     */
+    public static final double DEFAULT_INITIAL_RATE = 10.0;
+
+    /**
+     * Default lowest rate in requests per second
+     */
+    public static final double DEFAULT_MIN_RATE = 0.5;
+
+    /**
+     * Default highest rate in requests per second
+     */
+    public static final double DEFAULT_MAX_RATE = 50.0;
+
+    /**
+     * Default rate added per successful request
+     */
+    public static final double DEFAULT_INCREMENT = 0.1;
+
+    /**
+     * Default factor applied to the rate per throttled request
+     */
+    public static final double DEFAULT_BACKOFF = 0.5;
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private final double minRate;
+    private final double maxRate;
+    private final double increment;
+    private final double backoff;
+    private final LongSupplier nanoClock;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long throttleCount;
+    private long waitedNanos;
+
+    @Builder
+    public AdaptiveRateLimiter(
+            final Double initialRate,
+            final Double minRate,
+            final Double maxRate,
+            final Double increment,
+            final Double backoff,
+            final LongSupplier nanoClock) {
+        this.minRate = minRate == null ? DEFAULT_MIN_RATE : minRate;
+        this.maxRate = maxRate == null ? DEFAULT_MAX_RATE : maxRate;
+        this.increment = increment == null ? DEFAULT_INCREMENT : increment;
+        this.backoff = backoff == null ? DEFAULT_BACKOFF : backoff;
+        this.nanoClock = nanoClock == null ? System::nanoTime : nanoClock;
+        this.rate = initialRate == null ? DEFAULT_INITIAL_RATE : initialRate;
+        this.tokens = capacity();
+        this.lastRefill = this.nanoClock.getAsLong();
+    }
+
+    /**
+     * Waits until a request may be sent. Requests are served in the order they reserve a token, and the wait is not
+     * interrupted, so that the request is still sent at the rate the limiter allows.
+     */
+    public void acquire() {
+        final long wait = reserve();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Takes a token, possibly ahead of time
+     *
+     * @return Nanoseconds to wait before the request may be sent
+     */
+    synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0L;
+        }
+        final long wait = (long) (-tokens / rate * NANOS_PER_SECOND);
+        waitedNanos += wait;
+        return wait;
+    }
+
+    /**
+     * Increases the rate after a request succeeded
+     */
+    public synchronized void onSuccess() {
+        refill();
+        rate = Math.min(maxRate, rate + increment);
+    }
+
+    /**
+     * Decreases the rate after a request was throttled, and drops the burst the bucket may have saved up
+     */
+    public synchronized void onThrottle() {
+        refill();
+        rate = Math.max(minRate, rate * backoff);
+        tokens = Math.min(tokens, 0);
+        throttleCount++;
+    }
+
+    /**
+     * @return Current rate in requests per second
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return Number of throttled requests since the previous call
+     */
+    public synchronized long drainThrottleCount() {
+        final long count = throttleCount;
+        throttleCount = 0;
+        return count;
+    }
+
+    /**
+     * @return Time requests waited for a token since the previous call, in milliseconds
+     */
+    public synchronized long drainWaitedMillis() {
+        final long waited = TimeUnit.NANOSECONDS.toMillis(waitedNanos);
+        waitedNanos = 0;
+        return waited;
+    }
+
+    private void refill() {
+        final long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity(), tokens + (now - lastRefill) / NANOS_PER_SECOND * rate);
+        lastRefill = now;
+    }
+
+    private double capacity() {
+        return Math.max(1.0, rate);
+    }
+}
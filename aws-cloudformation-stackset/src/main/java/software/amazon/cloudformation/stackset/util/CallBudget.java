@@ -0,0 +1,59 @@
+package software.amazon.cloudformation.stackset.util;
+
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the service calls in flight across the executors of a handler process
+ *
+ * <p>The List handler builds several stack sets at a time, and the requests a handler process serves may overlap.
+ * Their DescribeStackSet and ListStackInstances calls take their permits from the {@link #shared} budget, so that
+ * the calls in flight stay bounded however many executors are running. A permit is only held for the duration of a single call, so executors waiting on each
+ * other cannot deadlock on the budget.
+ */
+public class CallBudget {
+
+    /**
+     * Default number of calls in flight in a handler process
+     */
+    public static final int DEFAULT_PERMITS = 8;
+
+    private static final CallBudget SHARED = new CallBudget(DEFAULT_PERMITS);
+
+    private final Semaphore permits;
+
+    CallBudget(final int permits) {
+        this.permits = new Semaphore(permits, true);
+    }
+
+    /**
+     * @return {@link CallBudget} shared by the requests a handler process serves
+     */
+    public static CallBudget shared() {
+        return SHARED;
+    }
+
+    /**
+     * Makes a call once a permit of the budget is available
+     *
+     * @param call service call
+     * @param <T>  type of the response
+     * @return response of the call
+     * @throws CfnGeneralServiceException if interrupted while waiting for a permit
+     */
+    public <T> T call(final Supplier<T> call) {
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CfnGeneralServiceException("CallBudget", e);
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
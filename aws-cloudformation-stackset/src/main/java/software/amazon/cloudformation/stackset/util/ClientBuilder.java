@@ -15,6 +15,11 @@ import software.amazon.cloudformation.LambdaWrapper;
 
 public class ClientBuilder {
 
+    /**
+     * Client-side rate limiter shared by every request of the handler process
+     */
+    private static final ClientRateLimiter RATE_LIMITER = new ClientRateLimiter();
+
     private ClientBuilder() {
     }
 
@@ -22,6 +27,10 @@ public class ClientBuilder {
         return LazyHolder.SERVICE_CLIENT;
     }
 
+    public static ClientRateLimiter getRateLimiter() {
+        return RATE_LIMITER;
+    }
+
     /**
      * Get CloudFormationClient for requests to interact with StackSet client
      *
@@ -34,11 +43,14 @@ public class ClientBuilder {
         public static CloudFormationClient SERVICE_CLIENT = CloudFormationClient.builder()
                 .httpClient(LambdaWrapper.HTTP_CLIENT)
                 .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .addExecutionInterceptor(RATE_LIMITER)
                         .retryPolicy(RetryPolicy.builder()
                                 .backoffStrategy(BackoffStrategy.defaultThrottlingStrategy())
                                 .throttlingBackoffStrategy(BackoffStrategy.defaultThrottlingStrategy())
                                 .numRetries(MAX_RETRIES)
                                 .retryCondition(OrRetryCondition.create(new RetryCondition[]{
+                                        // Only lowers the rate of throttled requests, the other conditions decide on retries
+                                        RATE_LIMITER,
                                         RetryCondition.defaultRetryCondition(),
                                         CloudFormationRetryCondition.create()
                                 }))
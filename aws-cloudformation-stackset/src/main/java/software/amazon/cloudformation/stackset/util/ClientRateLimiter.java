@@ -0,0 +1,118 @@
+package software.amazon.cloudformation.stackset.util;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.RetryUtils;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client-side rate limiter of the CloudFormationClient, with an {@link AdaptiveRateLimiter} per {@link ApiFamily} so
+ * that heavy Describe/List polling cannot starve the calls that submit operations
+ *
+ * <p>As an {@link ExecutionInterceptor}, it holds every attempt of a request until the limiter of its family allows
+ * it, and raises the rate once the request succeeds. As a {@link RetryCondition}, it lowers the rate whenever an
+ * attempt is throttled, without deciding whether the attempt is retried. The SDK only evaluates retry conditions while
+ * retries remain, so the last attempt of a request is counted once the request fails, unless it was already counted.
+ */
+public class ClientRateLimiter implements ExecutionInterceptor, RetryCondition {
+
+    /**
+     * Families of CloudFormation APIs sharing a rate limit
+     */
+    public enum ApiFamily {
+        DESCRIBE,
+        LIST,
+        MUTATING;
+
+        /**
+         * @param request request of a CloudFormation API
+         * @return {@link ApiFamily} of the API, DESCRIBE for Describe* and Get* APIs, LIST for List* APIs, and MUTATING
+         * for any other
+         */
+        public static ApiFamily of(final SdkRequest request) {
+            final String apiName = request.getClass().getSimpleName();
+            if (apiName.startsWith("Describe") || apiName.startsWith("Get")) {
+                return DESCRIBE;
+            }
+            return apiName.startsWith("List") ? LIST : MUTATING;
+        }
+    }
+
+    /**
+     * Throttling exception the retry condition already counted, so that the failure of the request does not count
+     * it again
+     */
+    private static final ExecutionAttribute<SdkException> COUNTED_THROTTLE =
+            new ExecutionAttribute<>("ClientRateLimiter.CountedThrottle");
+
+    private final Map<ApiFamily, AdaptiveRateLimiter> limiters = new EnumMap<>(ApiFamily.class);
+
+    public ClientRateLimiter() {
+        for (final ApiFamily family : ApiFamily.values()) {
+            limiters.put(family, AdaptiveRateLimiter.builder().build());
+        }
+    }
+
+    public AdaptiveRateLimiter getLimiter(final ApiFamily family) {
+        return limiters.get(family);
+    }
+
+    @Override
+    public void beforeTransmission(final Context.BeforeTransmission context, final ExecutionAttributes executionAttributes) {
+        limiters.get(ApiFamily.of(context.request())).acquire();
+    }
+
+    @Override
+    public void afterExecution(final Context.AfterExecution context, final ExecutionAttributes executionAttributes) {
+        limiters.get(ApiFamily.of(context.request())).onSuccess();
+    }
+
+    @Override
+    public void onExecutionFailure(final Context.FailedExecution context, final ExecutionAttributes executionAttributes) {
+        final Throwable exception = context.exception();
+        if (exception instanceof SdkException && isThrottled((SdkException) exception)
+                && exception != executionAttributes.getAttribute(COUNTED_THROTTLE)) {
+            limiters.get(ApiFamily.of(context.request())).onThrottle();
+        }
+    }
+
+    @Override
+    public boolean shouldRetry(final RetryPolicyContext context) {
+        if (context.exception() != null && context.originalRequest() != null && isThrottled(context.exception())) {
+            limiters.get(ApiFamily.of(context.originalRequest())).onThrottle();
+            if (context.executionAttributes() != null) {
+                context.executionAttributes().putAttribute(COUNTED_THROTTLE, context.exception());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isThrottled(final SdkException exception) {
+        return RetryUtils.isThrottlingException(exception) || ClientBuilder.CloudFormationRetryCondition.create()
+                .shouldRetry(RetryPolicyContext.builder().exception(exception).build());
+    }
+
+    /**
+     * Reports the state of the limiters since the previous report, see {@link OperationMetrics#rateLimiter}
+     *
+     * @return Log events with the metrics of each {@link ApiFamily}
+     */
+    public List<String> reportMetrics() {
+        final Instant now = Instant.now();
+        final List<String> metrics = new ArrayList<>();
+        limiters.forEach((family, limiter) -> metrics.add(OperationMetrics.rateLimiter(
+                family.name(), limiter.getRate(), limiter.drainThrottleCount(), limiter.drainWaitedMillis(), now)));
+        return metrics;
+    }
+}
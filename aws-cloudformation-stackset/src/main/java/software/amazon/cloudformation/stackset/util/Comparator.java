@@ -40,7 +40,8 @@ public class Comparator {
         if (StringUtils.compare(previousModel.getExecutionRoleName(), desiredModel.getExecutionRoleName()) != 0)
             return false;
 
-        if (StringUtils.compare(previousModel.getTemplateBody(), desiredModel.getTemplateBody()) != 0)
+        // Templates differing only by format do not redeploy every stack instance, see TemplateCanonicalizer
+        if (!TemplateCanonicalizer.isEquivalent(previousModel.getTemplateBody(), desiredModel.getTemplateBody()))
             return false;
 
         if (!equals(previousModel.getParameters(), desiredModel.getParameters()))
@@ -49,6 +50,9 @@ public class Comparator {
         if (!equals(previousModel.getAutoDeployment(), desiredModel.getAutoDeployment()))
             return false;
 
+        if (!equals(previousModel.getManagedExecution(), desiredModel.getManagedExecution()))
+            return false;
+
         // If TemplateURL is specified, always call Update API, Service client will decide if it is updatable
         return desiredModel.getTemplateURL() == null;
     }
@@ -91,4 +95,15 @@ public class Comparator {
     public static boolean isSelfManaged(final ResourceModel model) {
         return PermissionModels.SELF_MANAGED.equals(PermissionModels.fromValue(model.getPermissionModel()));
     }
+
+    /**
+     * Checks if StackSets runs non-conflicting operations of the model concurrently
+     *
+     * @param model {@link ResourceModel}
+     * @return boolean indicates if ManagedExecution is active
+     */
+    public static boolean isManagedExecutionActive(final ResourceModel model) {
+        return model != null && model.getManagedExecution() != null
+                && Boolean.TRUE.equals(model.getManagedExecution().getActive());
+    }
 }
@@ -0,0 +1,54 @@
+package software.amazon.cloudformation.stackset.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility class to compute stable digests of handler inputs, which are stored in
+ * {@link software.amazon.cloudformation.stackset.CallbackContext} across handler invocations
+ */
+public class Digest {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * Computes the hex encoded SHA-256 digest of the given parts. Each part is length prefixed, so that different
+     * splits of the same characters never give the same digest, and null parts are distinct from empty ones.
+     *
+     * @param parts Parts to digest, in order
+     * @return Hex encoded digest
+     */
+    public static String sha256(final String... parts) {
+        final MessageDigest messageDigest = newMessageDigest();
+        for (final String part : parts) {
+            if (part == null) {
+                messageDigest.update((byte) 0);
+                continue;
+            }
+            final byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+            messageDigest.update((byte) 1);
+            messageDigest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) ':');
+            messageDigest.update(bytes);
+        }
+        return toHex(messageDigest.digest());
+    }
+
+    private static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -5,19 +5,16 @@ import lombok.Data;
 import software.amazon.awssdk.utils.CollectionUtils;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.stackset.DeploymentTargets;
-import software.amazon.cloudformation.stackset.Parameter;
 import software.amazon.cloudformation.stackset.ResourceModel;
 import software.amazon.cloudformation.stackset.StackInstances;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import static software.amazon.cloudformation.stackset.util.Comparator.isSelfManaged;
 
@@ -34,181 +31,206 @@ public class InstancesAnalyzer {
 
     /**
      * Aggregates flat {@link StackInstance} to a group of {@link StackInstances} to call
-     * corresponding StackSet APIs
+     * corresponding StackSet APIs, using the fewest operations {@link StackInstancesPlanner} can find
      *
      * @param flatStackInstances {@link StackInstance}
      * @return {@link StackInstances} set
      */
     public static Set<StackInstances> aggregateStackInstances(
             final Set<StackInstance> flatStackInstances, final boolean isSelfManaged) {
-        final Set<StackInstances> groupedStacks = groupInstancesByTargets(flatStackInstances, isSelfManaged);
-        return aggregateInstancesByRegions(groupedStacks, isSelfManaged);
-    }
-
-
-    /**
-     * Group regions by {@link DeploymentTargets} and {@link StackInstance#getParameters()}
-     *
-     * @return {@link StackInstances}
-     */
-    private static Set<StackInstances> groupInstancesByTargets(
-            final Set<StackInstance> flatStackInstances, final boolean isSelfManaged) {
-
-        final Map<List<Object>, StackInstances> groupedStacksMap = new HashMap<>();
-        for (final StackInstance stackInstance : flatStackInstances) {
-            final String target = stackInstance.getDeploymentTarget();
-            final String region = stackInstance.getRegion();
-            final Set<Parameter> parameterSet = stackInstance.getParameters();
-            final List<Object> compositeKey = Arrays.asList(target, parameterSet);
-
-            if (groupedStacksMap.containsKey(compositeKey)) {
-                groupedStacksMap.get(compositeKey).getRegions().add(stackInstance.getRegion());
-            } else {
-                final DeploymentTargets targets = DeploymentTargets.builder().build();
-                if (isSelfManaged) {
-                    targets.setAccounts(new HashSet<>(Arrays.asList(target)));
-                } else {
-                    targets.setOrganizationalUnitIds(new HashSet<>(Arrays.asList(target)));
-                }
-
-                final StackInstances stackInstances = StackInstances.builder()
-                        .regions(new HashSet<>(Arrays.asList(region)))
-                        .deploymentTargets(targets)
-                        .parameterOverrides(parameterSet)
-                        .build();
-                groupedStacksMap.put(compositeKey, stackInstances);
-            }
-        }
-        return new HashSet<>(groupedStacksMap.values());
+        return StackInstancesPlanner.builder().build().plan(flatStackInstances, isSelfManaged);
     }
 
     /**
-     * Aggregates instances with similar {@link StackInstances#getRegions()}
-     *
-     * @param groupedStacks {@link StackInstances} set
-     * @return Aggregated {@link StackInstances} set
-     */
-    private static Set<StackInstances> aggregateInstancesByRegions(
-            final Set<StackInstances> groupedStacks,
-            final boolean isSelfManaged) {
-
-        final Map<List<Object>, StackInstances> groupedStacksMap = new HashMap<>();
-        for (final StackInstances stackInstances : groupedStacks) {
-            final DeploymentTargets target = stackInstances.getDeploymentTargets();
-            final Set<Parameter> parameterSet = stackInstances.getParameterOverrides();
-            final List<Object> compositeKey = Arrays.asList(stackInstances.getRegions(), parameterSet);
-            if (groupedStacksMap.containsKey(compositeKey)) {
-                if (isSelfManaged) {
-                    groupedStacksMap.get(compositeKey).getDeploymentTargets()
-                            .getAccounts().addAll(target.getAccounts());
-                } else {
-                    groupedStacksMap.get(compositeKey).getDeploymentTargets()
-                            .getOrganizationalUnitIds().addAll(target.getOrganizationalUnitIds());
-                }
-            } else {
-                groupedStacksMap.put(compositeKey, stackInstances);
-            }
-        }
-        return new HashSet<>(groupedStacksMap.values());
-    }
-
-    /**
-     * Compares {@link StackInstance#getParameters()} with previous {@link StackInstance#getParameters()}
-     * Gets the StackInstances need to update
+     * Aggregates a {@link StackInstanceMatrix} to a group of {@link StackInstances} to call
+     * corresponding StackSet APIs
      *
-     * @param intersection     {@link StackInstance} retaining desired stack instances
-     * @param previousStackMap Map contains previous stack instances
-     * @return {@link StackInstance} to update
+     * @param matrix {@link StackInstanceMatrix}
+     * @return {@link StackInstances} set
      */
-    private static Set<StackInstance> getUpdatingStackInstances(
-            final Set<StackInstance> intersection,
-            final Map<StackInstance, StackInstance> previousStackMap) {
-
-        return intersection.stream()
-                .filter(stackInstance -> !Comparator.equals(
-                        previousStackMap.get(stackInstance).getParameters(), stackInstance.getParameters()))
-                .collect(Collectors.toSet());
+    public static Set<StackInstances> aggregateStackInstances(
+            final StackInstanceMatrix matrix, final boolean isSelfManaged) {
+        return StackInstancesPlanner.builder().build().plan(matrix, isSelfManaged);
     }
 
     /**
      * Since Stack instances are defined across accounts and regions with(out) parameters,
-     * We are expanding all before we tack actions
+     * We are expanding all into a {@link StackInstanceMatrix} before we tack actions
      *
      * @param stackInstancesGroup {@link ResourceModel#getStackInstancesGroup()}
-     * @return {@link StackInstance} set
+     * @param matrix              {@link StackInstanceMatrix} to expand into
+     * @return {@link StackInstanceMatrix}
      */
-    private static Set<StackInstance> flattenStackInstancesGroup(
-            final Collection<StackInstances> stackInstancesGroup, final boolean isSelfManaged) {
+    private static StackInstanceMatrix flattenStackInstancesGroup(
+            final Collection<StackInstances> stackInstancesGroup,
+            final boolean isSelfManaged,
+            final StackInstanceMatrix matrix) {
 
-        final Set<StackInstance> flatStacks = new HashSet<>();
-        if (CollectionUtils.isNullOrEmpty(stackInstancesGroup)) return flatStacks;
+        if (CollectionUtils.isNullOrEmpty(stackInstancesGroup)) return matrix;
 
         for (final StackInstances stackInstances : stackInstancesGroup) {
             for (final String region : stackInstances.getRegions()) {
-
-                final Set<String> targets = isSelfManaged ? stackInstances.getDeploymentTargets().getAccounts()
-                        : stackInstances.getDeploymentTargets().getOrganizationalUnitIds();
-
-                // Validates expected DeploymentTargets exist in the template
-                if (CollectionUtils.isNullOrEmpty(targets)) {
-                    throw new CfnInvalidRequestException(
-                            String.format("%s should be specified in DeploymentTargets in [%s] model",
-                                    isSelfManaged ? "Accounts" : "OrganizationalUnitIds",
-                                    isSelfManaged ? "SELF_MANAGED" : "SERVICE_MANAGED"));
-                }
-
-                for (final String target : targets) {
-                    final StackInstance stackInstance = StackInstance.builder()
-                            .region(region).deploymentTarget(target).parameters(stackInstances.getParameterOverrides())
-                            .build();
-
+                for (final String target : getTargets(stackInstances, isSelfManaged)) {
                     // Validates no duplicated stack instance is specified
-                    if (flatStacks.contains(stackInstance)) {
-                        throw new CfnInvalidRequestException(
-                                String.format("Stack instance [%s,%s] is duplicated", target, region));
+                    if (!matrix.add(target, region, stackInstances.getParameterOverrides())) {
+                        throw duplicatedStackInstanceException(target, region);
                     }
-
-                    flatStacks.add(stackInstance);
                 }
             }
         }
-        return flatStacks;
+        return matrix;
+    }
+
+    /**
+     * Gets the targets of {@link StackInstances} matching the permission model
+     *
+     * @param stackInstances {@link StackInstances}
+     * @return Accounts or OU IDs
+     */
+    private static Set<String> getTargets(final StackInstances stackInstances, final boolean isSelfManaged) {
+        final Set<String> targets = isSelfManaged ? stackInstances.getDeploymentTargets().getAccounts()
+                : stackInstances.getDeploymentTargets().getOrganizationalUnitIds();
+
+        // Validates expected DeploymentTargets exist in the template
+        if (CollectionUtils.isNullOrEmpty(targets)) {
+            throw new CfnInvalidRequestException(
+                    String.format("%s should be specified in DeploymentTargets in [%s] model",
+                            isSelfManaged ? "Accounts" : "OrganizationalUnitIds",
+                            isSelfManaged ? "SELF_MANAGED" : "SERVICE_MANAGED"));
+        }
+        return targets;
+    }
+
+    private static CfnInvalidRequestException duplicatedStackInstanceException(final String target, final String region) {
+        return new CfnInvalidRequestException(String.format("Stack instance [%s,%s] is duplicated", target, region));
     }
 
     /**
      * Analyzes {@link StackInstances} that need to be modified during the update operations
      *
+     * <p>{@link StackInstances} present in both models cannot contribute any difference, so they are matched and
+     * dropped first, and only the residual groups are flattened and diffed. This gives the same result as diffing
+     * both models in full, because the previous model was validated when it was applied and every unchanged group
+     * is still validated against the residual desired groups.
+     *
      * @param placeHolder {@link StackInstancesPlaceHolder}
      */
     public void analyzeForUpdate(final StackInstancesPlaceHolder placeHolder) {
         final boolean isSelfManaged = isSelfManaged(desiredModel);
 
-        final Set<StackInstance> previousStackInstances =
-                flattenStackInstancesGroup(previousModel.getStackInstancesGroup(), isSelfManaged);
-        final Set<StackInstance> desiredStackInstances =
-                flattenStackInstancesGroup(desiredModel.getStackInstancesGroup(), isSelfManaged);
+        // Matches structurally identical groups, counting them in case the collections are not sets
+        final Map<StackInstances, Integer> residualPreviousCounts = new HashMap<>();
+        if (previousModel.getStackInstancesGroup() != null) {
+            previousModel.getStackInstancesGroup().forEach(
+                    stackInstances -> residualPreviousCounts.merge(stackInstances, 1, Integer::sum));
+        }
+        final List<StackInstances> unchangedGroup = new ArrayList<>();
+        final List<StackInstances> residualDesiredGroup = new ArrayList<>();
+        if (desiredModel.getStackInstancesGroup() != null) {
+            for (final StackInstances stackInstances : desiredModel.getStackInstancesGroup()) {
+                if (residualPreviousCounts.getOrDefault(stackInstances, 0) > 0) {
+                    residualPreviousCounts.merge(stackInstances, -1, Integer::sum);
+                    unchangedGroup.add(stackInstances);
+                } else {
+                    residualDesiredGroup.add(stackInstances);
+                }
+            }
+        }
+        final List<StackInstances> residualPreviousGroup = new ArrayList<>();
+        residualPreviousCounts.forEach((stackInstances, count) ->
+                residualPreviousGroup.addAll(Collections.nCopies(count, stackInstances)));
+
+        final StackInstanceMatrix previousStackInstances =
+                flattenStackInstancesGroup(residualPreviousGroup, isSelfManaged, new StackInstanceMatrix());
+        // Shares dictionaries with the previous matrix so that differences are computed bit by bit
+        final StackInstanceMatrix desiredStackInstances =
+                flattenStackInstancesGroup(residualDesiredGroup, isSelfManaged, previousStackInstances.newSibling());
+
+        for (final StackInstances stackInstances : unchangedGroup) {
+            if (stackInstances.getRegions().isEmpty()) continue;
+            final Set<String> targets = getTargets(stackInstances, isSelfManaged);
+            // Validates no residual stack instance duplicates one of the unchanged groups
+            if (desiredStackInstances.containsAny(targets, stackInstances.getRegions())) {
+                for (final String target : targets) {
+                    for (final String region : stackInstances.getRegions()) {
+                        if (desiredStackInstances.containsAny(
+                                Collections.singleton(target), Collections.singleton(region))) {
+                            throw duplicatedStackInstanceException(target, region);
+                        }
+                    }
+                }
+            }
+        }
 
         // Calculates all necessary differences that we need to take actions
-        final Set<StackInstance> stacksToAdd = new HashSet<>(desiredStackInstances);
-        stacksToAdd.removeAll(previousStackInstances);
-        final Set<StackInstance> stacksToDelete = new HashSet<>(previousStackInstances);
-        stacksToDelete.removeAll(desiredStackInstances);
-        final Set<StackInstance> stacksToCompare = new HashSet<>(desiredStackInstances);
-        stacksToCompare.retainAll(previousStackInstances);
+        final StackInstanceMatrix stacksToAdd = desiredStackInstances.minus(previousStackInstances);
+        final StackInstanceMatrix stacksToDelete = previousStackInstances.minus(desiredStackInstances);
+        final StackInstanceMatrix stacksToUpdate = desiredStackInstances.parametersChangedFrom(previousStackInstances);
 
         final Set<StackInstances> stackInstancesGroupToAdd = aggregateStackInstances(stacksToAdd, isSelfManaged);
         final Set<StackInstances> stackInstancesGroupToDelete = aggregateStackInstances(stacksToDelete, isSelfManaged);
-
-        // Since StackInstance.parameters is excluded for @EqualsAndHashCode,
-        // we needs to construct a key value map to keep track on previous StackInstance objects
-        final Set<StackInstance> stacksToUpdate = getUpdatingStackInstances(
-                stacksToCompare, previousStackInstances.stream().collect(Collectors.toMap(s -> s, s -> s)));
         final Set<StackInstances> stackInstancesGroupToUpdate = aggregateStackInstances(stacksToUpdate, isSelfManaged);
 
         // Update the stack lists that need to write of callbackContext holder
-        placeHolder.setCreateStackInstances(new ArrayList<>(stackInstancesGroupToAdd));
-        placeHolder.setDeleteStackInstances(new ArrayList<>(stackInstancesGroupToDelete));
-        placeHolder.setUpdateStackInstances(new ArrayList<>(stackInstancesGroupToUpdate));
+        placeHolder.setCreateStackInstances(OperationKey.sorted(stackInstancesGroupToAdd));
+        placeHolder.setDeleteStackInstances(OperationKey.sorted(stackInstancesGroupToDelete));
+        placeHolder.setUpdateStackInstances(OperationKey.sorted(stackInstancesGroupToUpdate));
+        if (!stacksToUpdate.isEmpty()) {
+            placeHolder.setUpdateStackSetScope(scopeUpdateStackSet(
+                    unchangedGroup, desiredStackInstances, stacksToAdd, stacksToUpdate, isSelfManaged));
+        }
+    }
+
+    /**
+     * Scopes UpdateStackSet so that it leaves out stack instances UpdateStackInstances deploys right after it
+     *
+     * <p>UpdateStackSet deploys the new template to every stack instance, and UpdateStackInstances then deploys it
+     * once more with the new parameter overrides. UpdateStackSet can be scoped to a single rectangle of targets times
+     * regions though, and the stack instances left out are still deployed the new template by UpdateStackInstances.
+     * The rectangle spans the stack instances kept without parameter changes, so it is only used if every stack
+     * instance it covers exists, and if it does leave out some of the updated stack instances.
+     *
+     * @param unchangedGroup        {@link StackInstances} present in both models
+     * @param desiredStackInstances residual desired {@link StackInstanceMatrix}
+     * @param stacksToAdd           {@link StackInstanceMatrix} of the stack instances to create
+     * @param stacksToUpdate        {@link StackInstanceMatrix} of the stack instances to update
+     * @return {@link StackInstances} to scope UpdateStackSet to, or null to deploy all stack instances
+     */
+    private static StackInstances scopeUpdateStackSet(
+            final List<StackInstances> unchangedGroup,
+            final StackInstanceMatrix desiredStackInstances,
+            final StackInstanceMatrix stacksToAdd,
+            final StackInstanceMatrix stacksToUpdate,
+            final boolean isSelfManaged) {
+
+        final StackInstanceMatrix keptStackInstances = desiredStackInstances.minus(stacksToAdd);
+        for (final StackInstances stackInstances : unchangedGroup) {
+            for (final String target : getTargets(stackInstances, isSelfManaged)) {
+                for (final String region : stackInstances.getRegions()) {
+                    keptStackInstances.add(target, region, stackInstances.getParameterOverrides());
+                }
+            }
+        }
+        final StackInstanceMatrix unchangedStackInstances = keptStackInstances.minus(stacksToUpdate);
+        if (unchangedStackInstances.isEmpty()) return null;
+
+        final Set<String> targets = unchangedStackInstances.targets();
+        final Set<String> regions = unchangedStackInstances.regions();
+        if ((long) targets.size() * regions.size() >= keptStackInstances.size()
+                || !keptStackInstances.containsAll(targets, regions)) {
+            return null;
+        }
+
+        final DeploymentTargets deploymentTargets = DeploymentTargets.builder().build();
+        if (isSelfManaged) {
+            deploymentTargets.setAccounts(targets);
+        } else {
+            deploymentTargets.setOrganizationalUnitIds(targets);
+        }
+        return StackInstances.builder()
+                .regions(regions)
+                .deploymentTargets(deploymentTargets)
+                .build();
     }
 
     /**
@@ -219,16 +241,16 @@ public class InstancesAnalyzer {
     public void analyzeForCreate(final StackInstancesPlaceHolder placeHolder) {
         if (desiredModel.getStackInstancesGroup() == null) return;
         if (desiredModel.getStackInstancesGroup().size() == 1) {
-            placeHolder.setCreateStackInstances(new ArrayList<>(desiredModel.getStackInstancesGroup()));
+            placeHolder.setCreateStackInstances(OperationKey.sorted(desiredModel.getStackInstancesGroup()));
             return;
         }
         final boolean isSelfManaged = isSelfManaged(desiredModel);
 
-        final Set<StackInstance> desiredStackInstances =
-                flattenStackInstancesGroup(desiredModel.getStackInstancesGroup(), isSelfManaged);
+        final StackInstanceMatrix desiredStackInstances =
+                flattenStackInstancesGroup(desiredModel.getStackInstancesGroup(), isSelfManaged, new StackInstanceMatrix());
 
         final Set<StackInstances> stackInstancesGroupToAdd = aggregateStackInstances(desiredStackInstances, isSelfManaged);
-        placeHolder.setCreateStackInstances(new ArrayList<>(stackInstancesGroupToAdd));
+        placeHolder.setCreateStackInstances(OperationKey.sorted(stackInstancesGroupToAdd));
     }
 
     /**
@@ -239,15 +261,15 @@ public class InstancesAnalyzer {
     public void analyzeForDelete(final StackInstancesPlaceHolder placeHolder) {
         if (desiredModel.getStackInstancesGroup() == null) return;
         if (desiredModel.getStackInstancesGroup().size() == 1) {
-            placeHolder.setDeleteStackInstances(new ArrayList<>(desiredModel.getStackInstancesGroup()));
+            placeHolder.setDeleteStackInstances(OperationKey.sorted(desiredModel.getStackInstancesGroup()));
             return;
         }
         final boolean isSelfManaged = isSelfManaged(desiredModel);
 
-        final Set<StackInstance> desiredStackInstances =
-                flattenStackInstancesGroup(desiredModel.getStackInstancesGroup(), isSelfManaged);
+        final StackInstanceMatrix desiredStackInstances =
+                flattenStackInstancesGroup(desiredModel.getStackInstancesGroup(), isSelfManaged, new StackInstanceMatrix());
 
         final Set<StackInstances> stackInstancesGroupToDelete = aggregateStackInstances(desiredStackInstances, isSelfManaged);
-        placeHolder.setDeleteStackInstances(new ArrayList<>(stackInstancesGroupToDelete));
+        placeHolder.setDeleteStackInstances(OperationKey.sorted(stackInstancesGroupToDelete));
     }
 }
@@ -0,0 +1,64 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Continuation token of a List request, which may stop within a page of ListStackSets
+ *
+ * <p>The token holds the ListStackSets token of the page and the offset of the first stack set of that page left
+ * to list, Base64 encoded behind {@link #PREFIX}. Tokens of whole pages are passed through as ListStackSets returns
+ * them, and any token that does not decode to an offset is taken as one of those.
+ */
+@Data
+@AllArgsConstructor
+public class ListPageToken {
+
+    static final String PREFIX = "~ListPageToken~";
+
+    private static final char SEPARATOR = '#';
+
+    /**
+     * ListStackSets token of the page, null for the first page
+     */
+    private final String nextToken;
+
+    /**
+     * Offset of the first stack set of the page left to list
+     */
+    private final int offset;
+
+    /**
+     * @param token NextToken of a List request
+     * @return {@link ListPageToken}
+     */
+    public static ListPageToken decode(final String token) {
+        if (token != null && token.startsWith(PREFIX)) {
+            try {
+                final String pair = new String(Base64.getUrlDecoder().decode(token.substring(PREFIX.length())),
+                        StandardCharsets.UTF_8);
+                // The offset is written first and holds no separator, so the first one ends it
+                final int separator = pair.indexOf(SEPARATOR);
+                if (separator > 0) {
+                    final String nextToken = pair.substring(separator + 1);
+                    return new ListPageToken(nextToken.isEmpty() ? null : nextToken,
+                            Integer.parseInt(pair.substring(0, separator)));
+                }
+            } catch (final IllegalArgumentException e) {
+                // Not a token of ours, decoded as a whole page token below
+            }
+        }
+        return new ListPageToken(token, 0);
+    }
+
+    /**
+     * @return NextToken of a List request
+     */
+    public String encode() {
+        final String pair = offset + String.valueOf(SEPARATOR) + (nextToken == null ? "" : nextToken);
+        return PREFIX + Base64.getUrlEncoder().encodeToString(pair.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+import lombok.Data;
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Utility class to split {@link StackInstances} into operations of bounded size
+ *
+ * <p>Each chunk covers at most {@link #maxTargets} targets (accounts or OU IDs) times {@link #maxRegions} regions of
+ * the original {@link StackInstances}, keeping its parameter overrides. Targets and regions are chunked in sorted
+ * order, so the same input always gives the same chunks and each chunk can be tracked on its own across handler
+ * invocations.
+ */
+@Builder
+@Data
+public class OperationChunker {
+
+    /**
+     * Default number of accounts or OU IDs per operation
+     */
+    public static final int DEFAULT_MAX_TARGETS = 500;
+
+    /**
+     * Default number of regions per operation, which exceeds the number of regions available today
+     */
+    public static final int DEFAULT_MAX_REGIONS = 50;
+
+    @Builder.Default
+    private int maxTargets = DEFAULT_MAX_TARGETS;
+
+    @Builder.Default
+    private int maxRegions = DEFAULT_MAX_REGIONS;
+
+    /**
+     * Splits {@link StackInstances} into chunks within the size bounds
+     *
+     * @param stackInstancesList {@link StackInstances} to split
+     * @param isSelfManaged      if PermissionModel is SELF_MANAGED
+     * @return {@link StackInstances} chunks, in submission order
+     */
+    public List<StackInstances> chunk(final Collection<StackInstances> stackInstancesList, final boolean isSelfManaged) {
+        final List<StackInstances> chunks = new ArrayList<>();
+        for (final StackInstances stackInstances : stackInstancesList) {
+            final DeploymentTargets deploymentTargets = stackInstances.getDeploymentTargets();
+            final Set<String> targets = isSelfManaged ? deploymentTargets.getAccounts()
+                    : deploymentTargets.getOrganizationalUnitIds();
+
+            if (fits(targets, maxTargets) && fits(stackInstances.getRegions(), maxRegions)) {
+                chunks.add(stackInstances);
+                continue;
+            }
+            for (final Set<String> targetsChunk : partition(targets, maxTargets)) {
+                for (final Set<String> regionsChunk : partition(stackInstances.getRegions(), maxRegions)) {
+                    final DeploymentTargets chunkTargets = DeploymentTargets.builder()
+                            .accounts(isSelfManaged ? targetsChunk : deploymentTargets.getAccounts())
+                            .organizationalUnitIds(isSelfManaged ? deploymentTargets.getOrganizationalUnitIds() : targetsChunk)
+                            .build();
+                    chunks.add(StackInstances.builder()
+                            .deploymentTargets(chunkTargets)
+                            .regions(regionsChunk)
+                            .parameterOverrides(stackInstances.getParameterOverrides())
+                            .build());
+                }
+            }
+        }
+        return chunks;
+    }
+
+    private static boolean fits(final Collection<String> values, final int max) {
+        return values == null || max <= 0 || values.size() <= max;
+    }
+
+    private static List<Set<String>> partition(final Collection<String> values, final int max) {
+        final List<Set<String>> partitions = new ArrayList<>();
+        if (fits(values, max)) {
+            partitions.add(values == null ? null : new HashSet<>(values));
+            return partitions;
+        }
+        Set<String> partition = new HashSet<>();
+        for (final String value : new TreeSet<>(values)) {
+            if (partition.size() == max) {
+                partitions.add(partition);
+                partition = new HashSet<>();
+            }
+            partition.add(value);
+        }
+        partitions.add(partition);
+        return partitions;
+    }
+}
@@ -0,0 +1,99 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+import lombok.Data;
+import software.amazon.awssdk.services.cloudformation.model.RegionConcurrencyType;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationPreferences;
+
+import java.time.Duration;
+
+/**
+ * Utility class to estimate the remaining time of a running StackSet operation
+ *
+ * <p>The estimate extrapolates the rate at which the stack instances of the operation have completed so far, and
+ * blends it with the typical duration of recent operations of the StackSet, trusting the progress of the operation
+ * more as more of its stack instances complete. Before either is known, the operation is assumed to deploy its stack
+ * instances in waves of the concurrency allowed by its operation preferences.
+ */
+@Builder
+@Data
+public class OperationEstimator {
+
+    /**
+     * Default time to deploy a single stack instance, used until the operation or the StackSet has a track record
+     */
+    public static final Duration DEFAULT_INSTANCE_DURATION = Duration.ofMinutes(1L);
+
+    @Builder.Default
+    private Duration instanceDuration = DEFAULT_INSTANCE_DURATION;
+
+    /**
+     * Estimates the remaining time of an operation
+     *
+     * @param elapsed            time since the operation was created
+     * @param totalInstances     number of stack instances of the operation, or 0 if unknown
+     * @param completedInstances number of stack instances that completed, whether they succeeded or not
+     * @param concurrency        number of stack instances deployed at the same time, see {@link #concurrency}
+     * @param recentDuration     typical duration of recent operations of the same action, or null if unknown
+     * @return Remaining time, zero if the operation is due
+     */
+    public Duration estimateRemaining(
+            final Duration elapsed,
+            final int totalInstances,
+            final int completedInstances,
+            final int concurrency,
+            final Duration recentDuration) {
+
+        Duration progressEstimate = null;
+        if (totalInstances > 0 && completedInstances > 0) {
+            if (completedInstances >= totalInstances) {
+                return Duration.ZERO;
+            }
+            progressEstimate = elapsed.multipliedBy(totalInstances - completedInstances).dividedBy(completedInstances);
+        }
+        final Duration historyEstimate = recentDuration == null ? null : positive(recentDuration.minus(elapsed));
+
+        if (progressEstimate != null && historyEstimate != null) {
+            final double progress = (double) completedInstances / totalInstances;
+            return Duration.ofMillis(Math.round(
+                    progress * progressEstimate.toMillis() + (1 - progress) * historyEstimate.toMillis()));
+        }
+        if (progressEstimate != null) {
+            return progressEstimate;
+        }
+        if (historyEstimate != null) {
+            return historyEstimate;
+        }
+        final int waveSize = Math.max(concurrency, 1);
+        final int waves = (Math.max(totalInstances, 1) + waveSize - 1) / waveSize;
+        return positive(instanceDuration.multipliedBy(waves).minus(elapsed));
+    }
+
+    /**
+     * Computes how many stack instances an operation deploys at the same time. StackSets deploys to at most
+     * MaxConcurrentCount, or MaxConcurrentPercentage rounded down, of the accounts of a region at a time, and to one
+     * region at a time unless RegionConcurrencyType is PARALLEL.
+     *
+     * @param preferences {@link StackSetOperationPreferences} of the operation
+     * @param accounts    number of accounts of the operation
+     * @param regions     number of regions of the operation
+     * @return Number of stack instances deployed at the same time
+     */
+    public static int concurrency(final StackSetOperationPreferences preferences, final int accounts, final int regions) {
+        int perRegion = 1;
+        if (preferences != null && preferences.maxConcurrentCount() != null) {
+            perRegion = preferences.maxConcurrentCount();
+        } else if (preferences != null && preferences.maxConcurrentPercentage() != null) {
+            perRegion = preferences.maxConcurrentPercentage() * accounts / 100;
+        }
+        perRegion = Math.max(1, Math.min(perRegion, Math.max(accounts, 1)));
+
+        final boolean isParallel = preferences != null
+                && preferences.regionConcurrencyType() == RegionConcurrencyType.PARALLEL;
+        return isParallel ? perRegion * Math.max(regions, 1) : perRegion;
+    }
+
+    private static Duration positive(final Duration duration) {
+        return duration.isNegative() ? Duration.ZERO : duration;
+    }
+}
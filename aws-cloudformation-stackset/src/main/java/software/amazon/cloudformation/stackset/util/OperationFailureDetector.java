@@ -0,0 +1,160 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationResultsResponse;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationResultStatus;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationResultSummary;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.stackset.OperationPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static software.amazon.cloudformation.stackset.translator.RequestTranslator.listStackSetOperationResultsRequest;
+
+/**
+ * Utility class to read the progress of a running StackSet operation, and to tell that it is bound to fail before it
+ * completes
+ *
+ * <p>StackSets stops an operation in a region once more stack instances failed there than the FailureToleranceCount,
+ * or the FailureTolerancePercentage of the accounts of the region, allow, and the operation fails. The results of the
+ * operation are read a few pages per poll, both to count the failures and to measure how many stack instances
+ * completed for {@link OperationEstimator}. The cursor only moves past a page once all of its results completed, so
+ * that failures of stack instances still running on that page are counted by a later poll.
+ */
+@AllArgsConstructor
+@Builder
+public class OperationFailureDetector {
+
+    /**
+     * Default number of ListStackSetOperationResults pages read per poll
+     */
+    public static final int DEFAULT_MAX_PAGES = 5;
+
+    private ProxyClient<CloudFormationClient> proxyClient;
+    private OperationPreferences operationPreferences;
+    /**
+     * Number of accounts per region of the operation, or 0 to count them from the results
+     */
+    private int accountsPerRegion;
+    @Builder.Default
+    private int maxPages = DEFAULT_MAX_PAGES;
+
+    /**
+     * Reads the results of the operation from the cursor on, counts the stack instances that completed and the failed
+     * stack instances per region
+     *
+     * @param stackSetId  {@link software.amazon.cloudformation.stackset.ResourceModel#getStackSetId()}
+     * @param operationId OperationId of the running operation
+     * @param callAs      {@link software.amazon.cloudformation.stackset.ResourceModel#getCallAs()}
+     * @param cursor      {@link OperationResultsCursor} of the operation, moved past the pages read in full
+     * @return {@link OperationProgress} of the operation
+     */
+    public OperationProgress read(
+            final String stackSetId,
+            final String operationId,
+            final String callAs,
+            final OperationResultsCursor cursor) {
+
+        final Map<String, Integer> regionResults = new HashMap<>(cursor.getRegionResults());
+        final Map<String, Integer> regionFailures = new HashMap<>(cursor.getRegionFailures());
+        int completedInstances = sum(regionResults);
+        boolean isCursorMoving = true;
+        boolean isLastPageRead = false;
+        String token = cursor.getNextToken();
+        for (int page = 0; page < maxPages && !isLastPageRead; page++) {
+            final ListStackSetOperationResultsResponse response = proxyClient.injectCredentialsAndInvokeV2(
+                    listStackSetOperationResultsRequest(token, stackSetId, operationId, callAs),
+                    proxyClient.client()::listStackSetOperationResults);
+            if (!response.hasSummaries()) break;
+
+            final Map<String, Integer> pageResults = new HashMap<>();
+            final Map<String, Integer> pageFailures = new HashMap<>();
+            boolean isPageCompleted = true;
+            for (final StackSetOperationResultSummary summary : response.summaries()) {
+                if (summary.status() == StackSetOperationResultStatus.PENDING
+                        || summary.status() == StackSetOperationResultStatus.RUNNING) {
+                    isPageCompleted = false;
+                } else {
+                    completedInstances++;
+                }
+                if (summary.region() == null) continue;
+                pageResults.merge(summary.region(), 1, Integer::sum);
+                if (summary.status() == StackSetOperationResultStatus.FAILED) {
+                    pageFailures.merge(summary.region(), 1, Integer::sum);
+                }
+            }
+            pageResults.forEach((region, results) -> regionResults.merge(region, results, Integer::sum));
+            pageFailures.forEach((region, failures) -> regionFailures.merge(region, failures, Integer::sum));
+
+            token = response.nextToken();
+            isLastPageRead = token == null;
+            // The last page is read again by the next poll, as a null NextToken would start over from the first one
+            isCursorMoving = isCursorMoving && isPageCompleted && !isLastPageRead;
+            if (isCursorMoving) {
+                pageResults.forEach((region, results) -> cursor.getRegionResults().merge(region, results, Integer::sum));
+                pageFailures.forEach((region, failures) -> cursor.getRegionFailures().merge(region, failures, Integer::sum));
+                cursor.setNextToken(token);
+            }
+        }
+
+        String failedRegion = null;
+        for (final Map.Entry<String, Integer> failures : new TreeMap<>(regionFailures).entrySet()) {
+            final int accounts = accountsPerRegion > 0 || !isLastPageRead
+                    ? accountsPerRegion : regionResults.get(failures.getKey());
+            if (failures.getValue() > toleratedFailures(operationPreferences, accounts)) {
+                failedRegion = failures.getKey();
+                break;
+            }
+        }
+        return OperationProgress.builder()
+                .totalInstances(isLastPageRead ? sum(regionResults) : 0)
+                .completedInstances(completedInstances)
+                .accounts(regionResults.values().stream().max(Integer::compare).orElse(0))
+                .regions(regionResults.size())
+                .failedRegion(failedRegion)
+                .build();
+    }
+
+    private static int sum(final Map<String, Integer> counts) {
+        return counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Computes how many stack instances may fail in a region before StackSets stops the operation there
+     *
+     * @return Number of failures tolerated per region, {@link Integer#MAX_VALUE} if it depends on an unknown number
+     * of accounts
+     */
+    int toleratedFailures() {
+        return toleratedFailures(operationPreferences, accountsPerRegion);
+    }
+
+    /**
+     * Computes how many stack instances may fail in a region before StackSets stops an operation there
+     *
+     * @param operationPreferences {@link OperationPreferences} of the operation
+     * @param accountsPerRegion    number of accounts per region of the operation, or 0 if unknown
+     * @return Number of failures tolerated per region, {@link Integer#MAX_VALUE} if it depends on an unknown number
+     * of accounts
+     */
+    public static int toleratedFailures(final OperationPreferences operationPreferences, final int accountsPerRegion) {
+        final Integer count = operationPreferences == null ? null : operationPreferences.getFailureToleranceCount();
+        Integer percentage = operationPreferences == null ? null : operationPreferences.getFailureTolerancePercentage();
+        if (count != null) {
+            return count;
+        }
+        if (percentage == null && OperationPreferencesTuner.isAutoTuning(operationPreferences)) {
+            // Same tolerance as OperationPreferencesTuner picked for the operation
+            percentage = operationPreferences.getRiskBudgetPercentage() == null
+                    ? OperationPreferencesTuner.DEFAULT_RISK_BUDGET_PERCENTAGE : operationPreferences.getRiskBudgetPercentage();
+        }
+        if (percentage == null || percentage == 0) {
+            return 0;
+        }
+        return accountsPerRegion > 0 ? percentage * accountsPerRegion / 100 : Integer.MAX_VALUE;
+    }
+}
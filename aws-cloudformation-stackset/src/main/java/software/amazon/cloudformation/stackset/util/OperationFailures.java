@@ -0,0 +1,32 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Data;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of a failed StackSet operation, as read by {@link OperationResultsAnalyzer}
+ */
+@Data
+public class OperationFailures {
+
+    /**
+     * {@link StackInstances} covering the stack instances that failed or were cancelled, sorted by {@link OperationKey},
+     * or empty if the results do not tell which stack instances to retry
+     */
+    private List<StackInstances> retryStackInstances = new ArrayList<>();
+
+    /**
+     * Number of stack instances that failed, per region
+     */
+    private Map<String, Integer> regionFailures = new HashMap<>();
+
+    /**
+     * Number of stack instances of the operation, per region
+     */
+    private Map<String, Integer> regionResults = new HashMap<>();
+}
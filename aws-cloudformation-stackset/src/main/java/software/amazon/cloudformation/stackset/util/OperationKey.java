@@ -0,0 +1,78 @@
+package software.amazon.cloudformation.stackset.util;
+
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.Parameter;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Utility class to derive content-addressed keys of stack instances operations
+ *
+ * <p>The key of {@link StackInstances} is a digest of its sorted accounts, OU IDs, regions and parameter overrides.
+ * Unlike {@link StackInstances#hashCode()}, it does not collide in practice, and it stays the same when the
+ * {@link StackInstances} is rebuilt from {@link software.amazon.cloudformation.stackset.CallbackContext} with a
+ * different iteration order, so a callback always finds the call graph of an operation it has already submitted.
+ */
+public class OperationKey {
+
+    /**
+     * Computes the content-addressed key of {@link StackInstances}
+     *
+     * @param stackInstances {@link StackInstances}
+     * @return Hex encoded key
+     */
+    public static String of(final StackInstances stackInstances) {
+        final DeploymentTargets deploymentTargets = stackInstances.getDeploymentTargets();
+        final List<String> parts = new ArrayList<>();
+        addSorted(parts, "Accounts", deploymentTargets == null ? null : deploymentTargets.getAccounts());
+        addSorted(parts, "OrganizationalUnitIds", deploymentTargets == null ? null : deploymentTargets.getOrganizationalUnitIds());
+        addSorted(parts, "Regions", stackInstances.getRegions());
+
+        // Requests do not tell no parameter overrides from an empty set of them, so neither do keys
+        final Map<String, String> parameterOverrides = new TreeMap<>();
+        if (stackInstances.getParameterOverrides() != null) {
+            for (final Parameter parameter : stackInstances.getParameterOverrides()) {
+                parameterOverrides.put(parameter.getParameterKey(), parameter.getParameterValue());
+            }
+        }
+        parts.add("ParameterOverrides");
+        parts.add(Integer.toString(parameterOverrides.size()));
+        parameterOverrides.forEach((key, value) -> {
+            parts.add(key);
+            parts.add(value);
+        });
+        return Digest.sha256(parts.toArray(new String[0]));
+    }
+
+    /**
+     * Orders {@link StackInstances} by key, so that the same plan is always submitted in the same order. Operations
+     * with the same key are the same operation, which is kept once.
+     *
+     * @param stackInstancesGroup {@link StackInstances} to order
+     * @return {@link StackInstances} sorted by key
+     */
+    public static List<StackInstances> sorted(final Collection<StackInstances> stackInstancesGroup) {
+        final Map<String, StackInstances> byKey = new TreeMap<>();
+        for (final StackInstances stackInstances : stackInstancesGroup) {
+            byKey.put(of(stackInstances), stackInstances);
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    private static void addSorted(final List<String> parts, final String name, final Collection<String> values) {
+        parts.add(name);
+        if (values == null) {
+            parts.add(null);
+            return;
+        }
+        final Collection<String> sortedValues = new TreeSet<>(values);
+        parts.add(Integer.toString(sortedValues.size()));
+        parts.addAll(sortedValues);
+    }
+}
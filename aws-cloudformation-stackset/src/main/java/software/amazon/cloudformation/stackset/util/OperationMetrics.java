@@ -0,0 +1,96 @@
+package software.amazon.cloudformation.stackset.util;
+
+import software.amazon.cloudformation.stackset.ResourceModel;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Utility class to report metrics of StackSet operations through the handler log, in CloudWatch embedded metric
+ * format, so that CloudWatch extracts them from the log events without an additional client
+ */
+public class OperationMetrics {
+
+    private static final String STABILIZATION_FORMAT = "{\"_aws\":{\"Timestamp\":%d,\"CloudWatchMetrics\":[{"
+            + "\"Namespace\":\"%s\",\"Dimensions\":[[\"Action\"]],\"Metrics\":["
+            + "{\"Name\":\"PollCount\",\"Unit\":\"Count\"},{\"Name\":\"CompletionLag\",\"Unit\":\"Milliseconds\"}]}]},"
+            + "\"Action\":\"%s\",\"OperationId\":\"%s\",\"PollCount\":%d,\"CompletionLag\":%d}";
+
+    private static final String RATE_LIMITER_FORMAT = "{\"_aws\":{\"Timestamp\":%d,\"CloudWatchMetrics\":[{"
+            + "\"Namespace\":\"%s\",\"Dimensions\":[[\"ApiFamily\"]],\"Metrics\":["
+            + "{\"Name\":\"RequestRate\",\"Unit\":\"Count/Second\"},{\"Name\":\"ThrottleCount\",\"Unit\":\"Count\"},"
+            + "{\"Name\":\"RateLimitedWait\",\"Unit\":\"Milliseconds\"}]}]},"
+            + "\"ApiFamily\":\"%s\",\"RequestRate\":%.2f,\"ThrottleCount\":%d,\"RateLimitedWait\":%d}";
+
+    private static final String TEMPLATE_SUMMARY_CACHE_FORMAT = "{\"_aws\":{\"Timestamp\":%d,\"CloudWatchMetrics\":[{"
+            + "\"Namespace\":\"%s\",\"Dimensions\":[[]],\"Metrics\":["
+            + "{\"Name\":\"TemplateSummaryCacheHit\",\"Unit\":\"Count\"},"
+            + "{\"Name\":\"TemplateSummaryCacheMiss\",\"Unit\":\"Count\"},"
+            + "{\"Name\":\"TemplateSummaryCacheSize\",\"Unit\":\"Count\"}]}]},"
+            + "\"TemplateSummaryCacheHit\":%d,\"TemplateSummaryCacheMiss\":%d,\"TemplateSummaryCacheSize\":%d}";
+
+    /**
+     * Formats the metrics of a completed operation
+     *
+     * @param action        action of the operation
+     * @param operationId   OperationId
+     * @param pollCount     number of times the operation was described until it completed
+     * @param endTimestamp  completion time of the operation, or null if unknown
+     * @param observedAt    time the completion was observed
+     * @return Log event with PollCount and CompletionLag metrics, the time between the completion of the operation
+     * and the poll that observed it
+     */
+    public static String stabilization(
+            final String action,
+            final String operationId,
+            final int pollCount,
+            final Instant endTimestamp,
+            final Instant observedAt) {
+
+        final long completionLag = endTimestamp == null ? 0L
+                : Math.max(0L, Duration.between(endTimestamp, observedAt).toMillis());
+        return String.format(STABILIZATION_FORMAT, observedAt.toEpochMilli(), ResourceModel.TYPE_NAME,
+                action, operationId, pollCount, completionLag);
+    }
+
+    /**
+     * Formats the state of the client-side rate limiter of an API family
+     *
+     * @param apiFamily     {@link ClientRateLimiter.ApiFamily} of the limiter
+     * @param requestRate   rate the limiter currently allows, in requests per second
+     * @param throttleCount number of throttled requests since the previous report
+     * @param waitedMillis  time requests waited for the limiter since the previous report
+     * @param observedAt    time of the report
+     * @return Log event with RequestRate, ThrottleCount and RateLimitedWait metrics
+     */
+    public static String rateLimiter(
+            final String apiFamily,
+            final double requestRate,
+            final long throttleCount,
+            final long waitedMillis,
+            final Instant observedAt) {
+
+        return String.format(Locale.ROOT, RATE_LIMITER_FORMAT, observedAt.toEpochMilli(), ResourceModel.TYPE_NAME,
+                apiFamily, requestRate, throttleCount, waitedMillis);
+    }
+
+    /**
+     * Formats the lookups of the GetTemplateSummary cache
+     *
+     * @param hitCount   number of lookups served from the cache since the previous report
+     * @param missCount  number of lookups that called GetTemplateSummary since the previous report
+     * @param size       number of templates in the cache
+     * @param observedAt time of the report
+     * @return Log event with TemplateSummaryCacheHit, TemplateSummaryCacheMiss and TemplateSummaryCacheSize metrics
+     */
+    public static String templateSummaryCache(
+            final long hitCount,
+            final long missCount,
+            final int size,
+            final Instant observedAt) {
+
+        return String.format(TEMPLATE_SUMMARY_CACHE_FORMAT, observedAt.toEpochMilli(), ResourceModel.TYPE_NAME,
+                hitCount, missCount, size);
+    }
+}
@@ -0,0 +1,40 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Predicted completion of the running StackSet operations polled by a handler invocation, see
+ * {@link StabilizationDelay}
+ */
+@Data
+public class OperationPrediction {
+
+    /**
+     * Creation time of the earliest operation polled, in epoch seconds
+     */
+    private Long creationEpochSecond;
+
+    /**
+     * Predicted remaining time in seconds of the operation expected to complete last
+     */
+    private Long remainingSeconds;
+
+    /**
+     * Records the predicted remaining time of a running operation. If operations are polled together, the next poll
+     * waits for the one predicted to complete last.
+     *
+     * @param creation  creation time of the operation
+     * @param remaining predicted remaining time of the operation
+     */
+    public void predict(final Instant creation, final Duration remaining) {
+        if (remainingSeconds == null || remaining.getSeconds() > remainingSeconds) {
+            remainingSeconds = remaining.getSeconds();
+        }
+        if (creationEpochSecond == null || creation.getEpochSecond() < creationEpochSecond) {
+            creationEpochSecond = creation.getEpochSecond();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package software.amazon.cloudformation.stackset.util;
+
+import software.amazon.awssdk.services.cloudformation.model.RegionConcurrencyType;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationPreferences;
+import software.amazon.awssdk.utils.CollectionUtils;
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.OperationPreferences;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utility class to pick the OperationPreferences of a StackSet operation from its shape, when AutoTuning is true
+ *
+ * <p>Each region tolerates the RiskBudgetPercentage of its stack instances to fail, and deploys as many of them at a
+ * time as StackSets allows with that tolerance, that is one more than it tolerates to fail. Regions are deployed in
+ * parallel, unless no failure is tolerated, in which case the first region serves as a canary for the next ones.
+ * Preferences specified alongside AutoTuning are kept as they are.
+ */
+public class OperationPreferencesTuner {
+
+    /**
+     * Default percentage of the stack instances of a region that may fail
+     */
+    public static final int DEFAULT_RISK_BUDGET_PERCENTAGE = 10;
+
+    public static boolean isAutoTuning(final OperationPreferences operationPreferences) {
+        return operationPreferences != null && Boolean.TRUE.equals(operationPreferences.getAutoTuning());
+    }
+
+    /**
+     * Picks the preferences of an operation
+     *
+     * @param operationPreferences OperationPreferences from resource model, with AutoTuning
+     * @param stackInstancesList   {@link StackInstances} the operation deploys
+     * @return SDK OperationPreferences
+     */
+    public static StackSetOperationPreferences tune(
+            final OperationPreferences operationPreferences,
+            final Collection<StackInstances> stackInstancesList) {
+
+        final int riskBudget = operationPreferences.getRiskBudgetPercentage() == null
+                ? DEFAULT_RISK_BUDGET_PERCENTAGE : operationPreferences.getRiskBudgetPercentage();
+        final Map<String, Integer> accountsPerRegion = new HashMap<>();
+        boolean isAccountsKnown = true;
+        for (final StackInstances stackInstances : stackInstancesList) {
+            final DeploymentTargets deploymentTargets = stackInstances.getDeploymentTargets();
+            // Organizational units deploy to accounts that are only known to StackSets
+            if (deploymentTargets == null || deploymentTargets.getAccounts() == null
+                    || !CollectionUtils.isNullOrEmpty(deploymentTargets.getOrganizationalUnitIds())) {
+                isAccountsKnown = false;
+            }
+            final int accounts = deploymentTargets == null || deploymentTargets.getAccounts() == null
+                    ? 0 : deploymentTargets.getAccounts().size();
+            if (stackInstances.getRegions() != null) {
+                stackInstances.getRegions().forEach(region -> accountsPerRegion.merge(region, accounts, Integer::sum));
+            }
+        }
+        // The failure tolerance applies to every region, so the smallest one bounds the risk
+        final int accounts = isAccountsKnown
+                ? accountsPerRegion.values().stream().min(Integer::compare).orElse(0) : 0;
+
+        final StackSetOperationPreferences.Builder builder = StackSetOperationPreferences.builder()
+                .regionOrder(operationPreferences.getRegionOrder())
+                .regionConcurrencyType(operationPreferences.getRegionConcurrencyType() != null
+                        ? operationPreferences.getRegionConcurrencyType()
+                        : regionConcurrencyType(accountsPerRegion.size(), riskBudget).toString());
+
+        Integer failureToleranceCount = operationPreferences.getFailureToleranceCount();
+        Integer failureTolerancePercentage = operationPreferences.getFailureTolerancePercentage();
+        if (failureToleranceCount == null && failureTolerancePercentage == null) {
+            if (accounts > 0) {
+                failureToleranceCount = riskBudget * accounts / 100;
+            } else {
+                failureTolerancePercentage = riskBudget;
+            }
+        }
+        builder.failureToleranceCount(failureToleranceCount)
+                .failureTolerancePercentage(failureTolerancePercentage);
+
+        if (operationPreferences.getMaxConcurrentCount() != null || operationPreferences.getMaxConcurrentPercentage() != null) {
+            return builder.maxConcurrentCount(operationPreferences.getMaxConcurrentCount())
+                    .maxConcurrentPercentage(operationPreferences.getMaxConcurrentPercentage())
+                    .build();
+        }
+        if (failureToleranceCount != null) {
+            return builder.maxConcurrentCount(accounts > 0
+                    ? Math.min(accounts, failureToleranceCount + 1) : failureToleranceCount + 1)
+                    .build();
+        }
+        if (accounts > 0) {
+            return builder.maxConcurrentCount(Math.max(1, failureTolerancePercentage * accounts / 100 + 1))
+                    .build();
+        }
+        // StackSets rounds the percentage down, and deploys at least one stack instance at a time
+        return builder.maxConcurrentPercentage(Math.max(1, failureTolerancePercentage)).build();
+    }
+
+    private static RegionConcurrencyType regionConcurrencyType(final int regions, final int riskBudget) {
+        return regions > 1 && riskBudget > 0 ? RegionConcurrencyType.PARALLEL : RegionConcurrencyType.SEQUENTIAL;
+    }
+}
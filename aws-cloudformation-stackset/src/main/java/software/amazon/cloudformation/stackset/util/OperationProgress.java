@@ -0,0 +1,37 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Progress of a running StackSet operation, as read by {@link OperationFailureDetector} on a poll
+ */
+@Builder
+@Data
+public class OperationProgress {
+
+    /**
+     * Number of stack instances of the operation, or 0 if not every result has been read
+     */
+    private final int totalInstances;
+
+    /**
+     * Number of stack instances read that completed, whether they succeeded or not
+     */
+    private final int completedInstances;
+
+    /**
+     * Largest number of stack instances read in a region, which is the number of accounts of the operation
+     */
+    private final int accounts;
+
+    /**
+     * Number of regions read
+     */
+    private final int regions;
+
+    /**
+     * Region in which the failures exceed the failure tolerance of the operation, or null if it may still succeed
+     */
+    private final String failedRegion;
+}
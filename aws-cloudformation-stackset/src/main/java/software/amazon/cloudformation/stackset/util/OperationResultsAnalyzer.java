@@ -0,0 +1,87 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationResultsResponse;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationResultStatus;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationResultSummary;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static software.amazon.cloudformation.stackset.translator.RequestTranslator.listStackSetOperationResultsRequest;
+
+/**
+ * Utility class to find the stack instances a failed StackSet operation did not deploy, so that only those are
+ * submitted again rather than every stack instance of the operation.
+ */
+@AllArgsConstructor
+@Builder
+public class OperationResultsAnalyzer {
+
+    private ProxyClient<CloudFormationClient> proxyClient;
+    private boolean isSelfManaged;
+
+    /**
+     * Pages through the results of a failed operation and plans {@link StackInstances} operations covering the
+     * (target, region) pairs that failed or were cancelled, with the parameter overrides of the failed operation.
+     * The stack instances that failed and the stack instances of the operation are counted per region as well.
+     *
+     * @param stackSetId     {@link software.amazon.cloudformation.stackset.ResourceModel#getStackSetId()}
+     * @param operationId    OperationId of the failed operation
+     * @param callAs         {@link software.amazon.cloudformation.stackset.ResourceModel#getCallAs()}
+     * @param stackInstances {@link StackInstances} of the failed operation
+     * @return {@link OperationFailures} of the operation
+     */
+    public OperationFailures analyzeFailures(
+            final String stackSetId,
+            final String operationId,
+            final String callAs,
+            final StackInstances stackInstances) {
+
+        final OperationFailures operationFailures = new OperationFailures();
+        final Set<StackInstance> failedStackInstances = new HashSet<>();
+        boolean isRetryable = true;
+        String token = null;
+        do {
+            final ListStackSetOperationResultsResponse response = proxyClient.injectCredentialsAndInvokeV2(
+                    listStackSetOperationResultsRequest(token, stackSetId, operationId, callAs),
+                    proxyClient.client()::listStackSetOperationResults);
+            if (!response.hasSummaries()) break;
+            for (final StackSetOperationResultSummary summary : response.summaries()) {
+                if (summary.region() != null) {
+                    operationFailures.getRegionResults().merge(summary.region(), 1, Integer::sum);
+                    if (summary.status() == StackSetOperationResultStatus.FAILED) {
+                        operationFailures.getRegionFailures().merge(summary.region(), 1, Integer::sum);
+                    }
+                }
+                if (!isFailed(summary.status())) continue;
+                final String deploymentTarget = isSelfManaged ? summary.account() : summary.organizationalUnitId();
+                // Retrying the whole operation is the only safe option if a failed stack instance cannot be told apart
+                if (deploymentTarget == null || summary.region() == null) {
+                    isRetryable = false;
+                    continue;
+                }
+                failedStackInstances.add(StackInstance.builder()
+                        .region(summary.region())
+                        .deploymentTarget(deploymentTarget)
+                        .parameters(stackInstances.getParameterOverrides())
+                        .build());
+            }
+            token = response.nextToken();
+        } while (token != null);
+
+        if (isRetryable && !failedStackInstances.isEmpty()) {
+            operationFailures.setRetryStackInstances(OperationKey.sorted(
+                    StackInstancesPlanner.builder().build().plan(failedStackInstances, isSelfManaged)));
+        }
+        return operationFailures;
+    }
+
+    private static boolean isFailed(final StackSetOperationResultStatus status) {
+        return status == StackSetOperationResultStatus.FAILED || status == StackSetOperationResultStatus.CANCELLED;
+    }
+}
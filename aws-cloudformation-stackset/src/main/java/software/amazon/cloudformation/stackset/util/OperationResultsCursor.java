@@ -0,0 +1,29 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Position of {@link OperationFailureDetector} in the results of a running StackSet operation, carried across polls.
+ * Every result before the position completed, so it is only counted once rather than read again on every poll.
+ */
+@Data
+public class OperationResultsCursor {
+
+    /**
+     * NextToken of the first ListStackSetOperationResults page that has not been read in full, or null for the first
+     */
+    private String nextToken;
+
+    /**
+     * Number of failed stack instances per region, in the pages before {@link #nextToken}
+     */
+    private Map<String, Integer> regionFailures = new HashMap<>();
+
+    /**
+     * Number of stack instances per region, in the pages before {@link #nextToken}
+     */
+    private Map<String, Integer> regionResults = new HashMap<>();
+}
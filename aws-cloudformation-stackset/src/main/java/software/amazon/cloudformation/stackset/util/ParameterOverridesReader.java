@@ -0,0 +1,243 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.DescribeStackInstanceResponse;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.stackset.Parameter;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateFromSdkParameters;
+import static software.amazon.cloudformation.stackset.translator.RequestTranslator.describeStackInstanceRequest;
+
+/**
+ * Utility class to read the parameter overrides of stack instances, which ListStackInstances does not return
+ *
+ * <p>Describing every stack instance would not fit in a Read, so each planned {@link StackInstances} is probed first:
+ * every target is described in the first region, and the first target in every region. If the probes agree, the
+ * overrides apply to the whole {@link StackInstances}, otherwise only the stack instances of the targets and regions
+ * whose probe differs from the first one are described. Stack instances are described in parallel on a bounded
+ * executor, through the client-side rate limiter of the client, and within a time budget. A read that would take more
+ * describes than the budget can cover gives up before making them. SERVICE_MANAGED stack instances are described through one account of their OU and region.
+ * If any of them cannot be described in time, no parameter overrides are returned and the reason is logged.
+ */
+public class ParameterOverridesReader {
+
+    /**
+     * Default number of stack instances described at a time
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    /**
+     * Default time the parameter overrides are read for
+     */
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofSeconds(15L);
+
+    /**
+     * Default number of stack instances described per read, about what {@link #DEFAULT_MAX_CONCURRENCY} calls at a
+     * time complete within {@link #DEFAULT_TIME_BUDGET}
+     */
+    public static final int DEFAULT_MAX_DESCRIBED = 300;
+
+    private final ProxyClient<CloudFormationClient> proxyClient;
+    private final int maxConcurrency;
+    private final Duration timeBudget;
+    private final int maxDescribed;
+    private final Logger logger;
+
+    @Builder
+    public ParameterOverridesReader(
+            final ProxyClient<CloudFormationClient> proxyClient,
+            final Integer maxConcurrency,
+            final Duration timeBudget,
+            final Integer maxDescribed,
+            final Logger logger) {
+        this.proxyClient = proxyClient;
+        this.maxConcurrency = maxConcurrency == null ? DEFAULT_MAX_CONCURRENCY : maxConcurrency;
+        this.timeBudget = timeBudget == null ? DEFAULT_TIME_BUDGET : timeBudget;
+        this.maxDescribed = maxDescribed == null ? DEFAULT_MAX_DESCRIBED : maxDescribed;
+        this.logger = logger;
+    }
+
+    /**
+     * Reads the parameter overrides of stack instances
+     *
+     * @param stackSetId          StackSetId
+     * @param callAs              CallAs of the requests
+     * @param isSelfManaged       if permission model is SELF_MANAGED
+     * @param stackInstancesGroup {@link StackInstances} planned without parameter overrides
+     * @param accounts            Account of a stack instance per {@link StackInstance}, for SERVICE_MANAGED
+     * @return {@link StackInstanceMatrix} with parameter overrides, or null if they could not be read in time
+     */
+    public StackInstanceMatrix read(
+            final String stackSetId,
+            final String callAs,
+            final boolean isSelfManaged,
+            final Collection<StackInstances> stackInstancesGroup,
+            final Map<StackInstance, String> accounts) {
+
+        final List<List<StackInstance>> probes = new ArrayList<>();
+        final Set<StackInstance> probed = new HashSet<>();
+        for (final StackInstances stackInstances : stackInstancesGroup) {
+            final List<StackInstance> probe = probe(stackInstances, isSelfManaged);
+            probed.addAll(probe);
+            probes.add(probe);
+        }
+        if (probed.size() > maxDescribed) {
+            log(String.format("Parameter overrides of StackSet [%s] take %d DescribeStackInstance calls to probe, "
+                    + "more than the %d of the budget", stackSetId, probed.size(), maxDescribed));
+            return null;
+        }
+
+        final long deadline = System.nanoTime() + timeBudget.toNanos();
+        final ExecutorService executor = StackInstancesReader.newExecutor(maxConcurrency, "DescribeStackInstance");
+        final Map<StackInstance, Future<Set<Parameter>>> described = new HashMap<>();
+        try {
+            probed.forEach(stackInstance -> describe(executor, described, stackSetId, callAs, isSelfManaged,
+                    accounts, stackInstance));
+
+            final StackInstanceMatrix matrix = new StackInstanceMatrix();
+            final List<StackInstance> expanded = new ArrayList<>();
+            int index = 0;
+            for (final StackInstances stackInstances : stackInstancesGroup) {
+                final List<StackInstance> probe = probes.get(index++);
+                final Set<Parameter> first = get(described.get(probe.get(0)), deadline);
+                // The first probe is the first target in the first region, on both the probed row and column
+                final Set<String> divergedTargets = new HashSet<>();
+                final Set<String> divergedRegions = new HashSet<>();
+                for (final StackInstance stackInstance : probe) {
+                    if (!Objects.equals(first, get(described.get(stackInstance), deadline))) {
+                        if (stackInstance.getRegion().equals(probe.get(0).getRegion())) {
+                            divergedTargets.add(stackInstance.getDeploymentTarget());
+                        } else {
+                            divergedRegions.add(stackInstance.getRegion());
+                        }
+                    }
+                }
+                for (final StackInstance stackInstance : flatten(stackInstances, isSelfManaged)) {
+                    if (divergedTargets.contains(stackInstance.getDeploymentTarget())
+                            || divergedRegions.contains(stackInstance.getRegion())) {
+                        expanded.add(stackInstance);
+                    } else {
+                        matrix.add(stackInstance.getDeploymentTarget(), stackInstance.getRegion(), first);
+                    }
+                }
+            }
+
+            final long toDescribe = expanded.stream().filter(stackInstance -> !described.containsKey(stackInstance))
+                    .count();
+            if (described.size() + toDescribe > maxDescribed) {
+                log(String.format("Parameter overrides of StackSet [%s] differ across %d stack instances, more than "
+                        + "the %d DescribeStackInstance calls of the budget", stackSetId, expanded.size(), maxDescribed));
+                return null;
+            }
+            expanded.forEach(stackInstance -> describe(executor, described, stackSetId, callAs, isSelfManaged,
+                    accounts, stackInstance));
+            for (final StackInstance stackInstance : expanded) {
+                matrix.add(stackInstance.getDeploymentTarget(), stackInstance.getRegion(),
+                        get(described.get(stackInstance), deadline));
+            }
+            return matrix;
+        } catch (final ExecutionException e) {
+            log(String.format("Parameter overrides of StackSet [%s] could not be read: %s", stackSetId, e.getCause()));
+            return null;
+        } catch (final TimeoutException e) {
+            log(String.format("Parameter overrides of StackSet [%s] could not be read within %s",
+                    stackSetId, timeBudget));
+            return null;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log(String.format("Reading the parameter overrides of StackSet [%s] was interrupted", stackSetId));
+            return null;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void log(final String message) {
+        if (logger != null) {
+            logger.log(message + ", stack instances are returned without parameter overrides");
+        }
+    }
+
+    /**
+     * @return Stack instances of every target in the first region, and of the first target in every region, starting
+     * with the first target in the first region
+     */
+    private static List<StackInstance> probe(final StackInstances stackInstances, final boolean isSelfManaged) {
+        final List<String> targets = sorted(targets(stackInstances, isSelfManaged));
+        final List<String> regions = sorted(stackInstances.getRegions());
+        final List<StackInstance> probe = new ArrayList<>();
+        targets.forEach(target -> probe.add(stackInstance(target, regions.get(0))));
+        regions.subList(1, regions.size()).forEach(region -> probe.add(stackInstance(targets.get(0), region)));
+        return probe;
+    }
+
+    private static List<StackInstance> flatten(final StackInstances stackInstances, final boolean isSelfManaged) {
+        final List<StackInstance> flatStackInstances = new ArrayList<>();
+        for (final String target : targets(stackInstances, isSelfManaged)) {
+            for (final String region : stackInstances.getRegions()) {
+                flatStackInstances.add(stackInstance(target, region));
+            }
+        }
+        return flatStackInstances;
+    }
+
+    private void describe(
+            final ExecutorService executor,
+            final Map<StackInstance, Future<Set<Parameter>>> described,
+            final String stackSetId,
+            final String callAs,
+            final boolean isSelfManaged,
+            final Map<StackInstance, String> accounts,
+            final StackInstance stackInstance) {
+
+        described.computeIfAbsent(stackInstance, key -> executor.submit(() -> {
+            final String account = isSelfManaged ? key.getDeploymentTarget() : accounts.get(key);
+            if (account == null) {
+                throw new IllegalStateException(String.format("No account of stack instance [%s,%s] was read",
+                        key.getDeploymentTarget(), key.getRegion()));
+            }
+            final DescribeStackInstanceResponse response = proxyClient.injectCredentialsAndInvokeV2(
+                    describeStackInstanceRequest(account, key.getRegion(), stackSetId, callAs),
+                    proxyClient.client()::describeStackInstance);
+            return translateFromSdkParameters(response.stackInstance().parameterOverrides());
+        }));
+    }
+
+    private static Set<Parameter> get(final Future<Set<Parameter>> future, final long deadline)
+            throws ExecutionException, TimeoutException, InterruptedException {
+        return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private static Set<String> targets(final StackInstances stackInstances, final boolean isSelfManaged) {
+        return isSelfManaged ? stackInstances.getDeploymentTargets().getAccounts()
+                : stackInstances.getDeploymentTargets().getOrganizationalUnitIds();
+    }
+
+    private static List<String> sorted(final Collection<String> names) {
+        final List<String> sorted = new ArrayList<>(names);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    private static StackInstance stackInstance(final String target, final String region) {
+        return StackInstance.builder().deploymentTarget(target).region(region).build();
+    }
+}
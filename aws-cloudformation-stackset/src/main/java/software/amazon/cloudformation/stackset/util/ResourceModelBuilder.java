@@ -3,21 +3,21 @@ package software.amazon.cloudformation.stackset.util;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
-import software.amazon.awssdk.services.cloudformation.model.ListStackInstancesResponse;
 import software.amazon.awssdk.services.cloudformation.model.PermissionModels;
 import software.amazon.awssdk.services.cloudformation.model.StackSet;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.stackset.ResourceModel;
 import software.amazon.cloudformation.stackset.StackInstances;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateFromSdkAutoDeployment;
+import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateFromSdkManagedExecution;
 import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateFromSdkParameters;
 import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateFromSdkTags;
-import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateToStackInstance;
-import static software.amazon.cloudformation.stackset.translator.RequestTranslator.listStackInstancesRequest;
 import static software.amazon.cloudformation.stackset.util.InstancesAnalyzer.aggregateStackInstances;
 
 /**
@@ -31,6 +31,13 @@ public class ResourceModelBuilder {
     private ProxyClient<CloudFormationClient> proxyClient;
     private StackSet stackSet;
     private boolean isSelfManaged;
+    private StackInstancesReader stackInstancesReader;
+
+    /**
+     * Reads the parameter overrides of stack instances through {@link ParameterOverridesReader}, null to leave them
+     * out, as ListStackInstances does not return them
+     */
+    private ParameterOverridesReader parameterOverridesReader;
 
     public ResourceModel buildModel() {
         return buildModel(null);
@@ -48,6 +55,7 @@ public class ResourceModelBuilder {
         final ResourceModel model = ResourceModel.builder()
                 .stackSetName(stackSet.stackSetName())
                 .autoDeployment(translateFromSdkAutoDeployment(stackSet.autoDeployment()))
+                .managedExecution(translateFromSdkManagedExecution(stackSet.managedExecution()))
                 .stackSetId(stackSetId)
                 .description(stackSet.description())
                 .permissionModel(stackSet.permissionModelAsString() == null
@@ -66,47 +74,27 @@ public class ResourceModelBuilder {
             model.setExecutionRoleName(stackSet.executionRoleName());
         }
 
-        String token = null;
-        final Set<StackInstance> stackInstanceSet = new HashSet<>();
         // Retrieves all Stack Instances associated with the StackSet,
         // Attaches regions and deploymentTargets to the constructing model
-        do {
-            token = attachStackInstances(stackSetId, isSelfManaged, stackInstanceSet, callAs, token);
-        } while (token != null);
+        final Map<StackInstance, String> accounts = parameterOverridesReader != null && !isSelfManaged
+                ? new HashMap<>() : null;
+        final StackInstanceMatrix stackInstanceMatrix = (stackInstancesReader != null ? stackInstancesReader
+                : StackInstancesReader.builder().proxyClient(proxyClient).build())
+                .read(stackSet, isSelfManaged, callAs, accounts);
 
-        if (!stackInstanceSet.isEmpty()) {
-            final Set<StackInstances> stackInstancesGroup = aggregateStackInstances(stackInstanceSet, isSelfManaged);
+        if (!stackInstanceMatrix.isEmpty()) {
+            Set<StackInstances> stackInstancesGroup = aggregateStackInstances(stackInstanceMatrix, isSelfManaged);
+            if (parameterOverridesReader != null) {
+                // Stack instances are left without parameter overrides if they cannot be read in time, which the reader logs
+                final StackInstanceMatrix parameterOverridesMatrix = parameterOverridesReader.read(
+                        stackSetId, callAs, isSelfManaged, stackInstancesGroup, accounts);
+                if (parameterOverridesMatrix != null) {
+                    stackInstancesGroup = aggregateStackInstances(parameterOverridesMatrix, isSelfManaged);
+                }
+            }
             model.setStackInstancesGroup(stackInstancesGroup);
         }
 
         return model;
     }
-
-    /**
-     * Loop through all stack instance details and attach to the constructing model
-     *
-     * @param stackSetId    {@link ResourceModel#getStackSetId()}
-     * @param isSelfManaged if permission model is SELF_MANAGED
-     * @param token         {@link ListStackInstancesResponse#nextToken()}
-     * @return String nextToken
-     */
-    private String attachStackInstances(
-            final String stackSetId,
-            final boolean isSelfManaged,
-            final Set<StackInstance> stackInstanceSet,
-            final String callAs,
-            String token) {
-
-        final ListStackInstancesResponse listStackInstancesResponse = proxyClient.injectCredentialsAndInvokeV2(
-                listStackInstancesRequest(token, stackSetId, callAs), proxyClient.client()::listStackInstances);
-        final String nextToken = listStackInstancesResponse.nextToken();
-        if (!listStackInstancesResponse.hasSummaries()) return null;
-        listStackInstancesResponse.summaries().forEach(member -> {
-            // Parameters are set null as we can't retrieve parameter override from List API.
-            // Retrieving from Describe API requires to brutal force every single stack instance
-            // which will likely cause timeout issue
-            stackInstanceSet.add(translateToStackInstance(isSelfManaged, member, null));
-        });
-        return nextToken;
-    }
 }
@@ -0,0 +1,69 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+import software.amazon.cloudformation.proxy.Delay;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Delay between polls of a running StackSet operation, scheduled close to its predicted completion
+ *
+ * <p>Each poll predicts the remaining time of the operation, see {@link OperationEstimator}, and records it in an
+ * {@link OperationPrediction} of the handler invocation. The next poll happens once that time has passed, within
+ * {@link #minDelay} and {@link #maxDelay} so that a wrong prediction is corrected by a later poll. Without a
+ * prediction, the {@link #fallback} delay applies. Operations running longer than {@link #timeout} are no longer
+ * waited for.
+ */
+public class StabilizationDelay {
+
+    /**
+     * Default shortest delay between polls, for operations that are due
+     */
+    public static final Duration DEFAULT_MIN_DELAY = Duration.ofSeconds(5L);
+
+    /**
+     * Default longest delay between polls, after which the prediction is refreshed
+     */
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMinutes(10L);
+
+    /**
+     * Default time to wait for an operation since it was created
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofHours(24L);
+
+    private final Delay fallback;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final Duration timeout;
+
+    @Builder
+    public StabilizationDelay(final Delay fallback, final Duration minDelay, final Duration maxDelay, final Duration timeout) {
+        this.fallback = fallback;
+        this.minDelay = minDelay == null ? DEFAULT_MIN_DELAY : minDelay;
+        this.maxDelay = maxDelay == null ? DEFAULT_MAX_DELAY : maxDelay;
+        this.timeout = timeout == null ? DEFAULT_TIMEOUT : timeout;
+    }
+
+    /**
+     * Computes the delay before the next poll
+     *
+     * @param prediction {@link OperationPrediction} of the polls so far, or null if none
+     * @param attempt    number of polls so far, for the {@link #fallback} delay
+     * @return Delay before the next poll, or zero if the operations are no longer waited for
+     */
+    public Duration nextDelay(final OperationPrediction prediction, final int attempt) {
+        if (prediction == null || prediction.getRemainingSeconds() == null) {
+            return fallback.nextDelay(attempt);
+        }
+        final Instant creation = Instant.ofEpochSecond(prediction.getCreationEpochSecond());
+        if (Duration.between(creation, Instant.now()).compareTo(timeout) > 0) {
+            return Duration.ZERO;
+        }
+        final Duration predictedRemaining = Duration.ofSeconds(prediction.getRemainingSeconds());
+        if (predictedRemaining.compareTo(minDelay) < 0) {
+            return minDelay;
+        }
+        return predictedRemaining.compareTo(maxDelay) > 0 ? maxDelay : predictedRemaining;
+    }
+}
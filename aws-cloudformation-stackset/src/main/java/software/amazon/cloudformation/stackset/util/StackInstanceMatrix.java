@@ -0,0 +1,305 @@
+package software.amazon.cloudformation.stackset.util;
+
+import software.amazon.cloudformation.stackset.Parameter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact (target x region) membership of stack instances, used in place of flat {@link StackInstance} sets
+ *
+ * <p>Targets (accounts or OU IDs), regions and parameter sets are interned to ints. Membership is kept as region
+ * bits per target, once overall and once per parameter set, so differences between two matrices sharing the same
+ * dictionaries are word-wise bit operations instead of hashing one object per stack instance.
+ */
+public class StackInstanceMatrix {
+
+    private final Dictionary<String> targets;
+
+    private final Dictionary<String> regions;
+
+    private final Dictionary<Set<Parameter>> parameterSets;
+
+    /**
+     * Region bits of each target index, regardless of parameters
+     */
+    private final List<BitSet> rows = new ArrayList<>();
+
+    /**
+     * Region bits of each target index, per parameter set index
+     */
+    private final List<List<BitSet>> layers = new ArrayList<>();
+
+    private int size;
+
+    public StackInstanceMatrix() {
+        this(new Dictionary<>(), new Dictionary<>(), new Dictionary<>());
+    }
+
+    private StackInstanceMatrix(
+            final Dictionary<String> targets,
+            final Dictionary<String> regions,
+            final Dictionary<Set<Parameter>> parameterSets) {
+        this.targets = targets;
+        this.regions = regions;
+        this.parameterSets = parameterSets;
+    }
+
+    /**
+     * Builds a matrix from flat {@link StackInstance}
+     *
+     * @param flatStackInstances {@link StackInstance} collection
+     * @return {@link StackInstanceMatrix}
+     */
+    public static StackInstanceMatrix of(final Collection<StackInstance> flatStackInstances) {
+        final StackInstanceMatrix matrix = new StackInstanceMatrix();
+        flatStackInstances.forEach(stackInstance -> matrix.add(
+                stackInstance.getDeploymentTarget(), stackInstance.getRegion(), stackInstance.getParameters()));
+        return matrix;
+    }
+
+    /**
+     * Creates an empty matrix sharing the dictionaries of this one, so that both can be compared bit by bit
+     *
+     * @return Empty {@link StackInstanceMatrix}
+     */
+    public StackInstanceMatrix newSibling() {
+        return new StackInstanceMatrix(targets, regions, parameterSets);
+    }
+
+    /**
+     * Adds a stack instance
+     *
+     * @param target       Account or OU ID
+     * @param region       Region
+     * @param parameterSet Parameter overrides
+     * @return false if the stack instance was already present
+     */
+    public boolean add(final String target, final String region, final Set<Parameter> parameterSet) {
+        final int targetIndex = targets.intern(target);
+        final int regionIndex = regions.intern(region);
+        final BitSet row = bits(rows, targetIndex);
+        if (row.get(regionIndex)) return false;
+
+        row.set(regionIndex);
+        bits(layer(parameterSets.intern(parameterSet)), targetIndex).set(regionIndex);
+        size++;
+        return true;
+    }
+
+    /**
+     * @return Number of stack instances
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if any stack instance of the given targets and regions is present, without interning them
+     *
+     * @param targets Accounts or OU IDs
+     * @param regions Regions
+     * @return true if at least one (target, region) pair is present
+     */
+    public boolean containsAny(final Collection<String> targets, final Collection<String> regions) {
+        final BitSet regionBits = new BitSet();
+        for (final String region : regions) {
+            final int regionIndex = this.regions.indexOf(region);
+            if (regionIndex >= 0) regionBits.set(regionIndex);
+        }
+        if (regionBits.isEmpty()) return false;
+
+        for (final String target : targets) {
+            final int targetIndex = this.targets.indexOf(target);
+            if (targetIndex >= 0 && bitsOrEmpty(rows, targetIndex).intersects(regionBits)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if every (target, region) pair of the given targets and regions is present
+     *
+     * @param targets Accounts or OU IDs
+     * @param regions Regions
+     * @return true if the matrix holds the whole targets x regions rectangle
+     */
+    public boolean containsAll(final Collection<String> targets, final Collection<String> regions) {
+        final BitSet regionBits = new BitSet();
+        for (final String region : regions) {
+            final int regionIndex = this.regions.indexOf(region);
+            if (regionIndex < 0) return targets.isEmpty();
+            regionBits.set(regionIndex);
+        }
+        for (final String target : targets) {
+            final int targetIndex = this.targets.indexOf(target);
+            final BitSet missing = (BitSet) regionBits.clone();
+            if (targetIndex >= 0) missing.andNot(bitsOrEmpty(rows, targetIndex));
+            if (!missing.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stack instances of this matrix that are absent from the other one
+     *
+     * @param other {@link StackInstanceMatrix} sharing the same dictionaries
+     * @return {@link StackInstanceMatrix}
+     */
+    public StackInstanceMatrix minus(final StackInstanceMatrix other) {
+        return select(other, false);
+    }
+
+    /**
+     * Stack instances of this matrix that are present in the other one with different parameters
+     *
+     * @param other {@link StackInstanceMatrix} sharing the same dictionaries
+     * @return {@link StackInstanceMatrix}
+     */
+    public StackInstanceMatrix parametersChangedFrom(final StackInstanceMatrix other) {
+        return select(other, true);
+    }
+
+    private StackInstanceMatrix select(final StackInstanceMatrix other, final boolean retained) {
+        if (other.targets != targets || other.regions != regions || other.parameterSets != parameterSets) {
+            throw new IllegalArgumentException("Matrices must share dictionaries to be compared");
+        }
+        final StackInstanceMatrix result = newSibling();
+        for (int parameterSet = 0; parameterSet < layers.size(); parameterSet++) {
+            final List<BitSet> layer = layers.get(parameterSet);
+            for (int target = 0; target < layer.size(); target++) {
+                final BitSet bits = (BitSet) layer.get(target).clone();
+                final BitSet otherRow = bitsOrEmpty(other.rows, target);
+                if (retained) {
+                    bits.and(otherRow);
+                    bits.andNot(bitsOrEmpty(layerOrEmpty(other.layers, parameterSet), target));
+                } else {
+                    bits.andNot(otherRow);
+                }
+                if (!bits.isEmpty()) {
+                    bits(result.rows, target).or(bits);
+                    bits(result.layer(parameterSet), target).or(bits);
+                    result.size += bits.cardinality();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Targets holding at least one stack instance
+     */
+    Set<String> targets() {
+        final Set<String> presentTargets = new HashSet<>();
+        for (int target = 0; target < rows.size(); target++) {
+            if (!rows.get(target).isEmpty()) presentTargets.add(targets.get(target));
+        }
+        return presentTargets;
+    }
+
+    /**
+     * @return Regions holding at least one stack instance
+     */
+    Set<String> regions() {
+        final BitSet regionBits = new BitSet();
+        rows.forEach(regionBits::or);
+        final Set<String> presentRegions = new HashSet<>();
+        regionBits.stream().forEach(region -> presentRegions.add(regions.get(region)));
+        return presentRegions;
+    }
+
+    /**
+     * @return Number of interned parameter sets, some of which may have no stack instance in this matrix
+     */
+    int parameterSetCount() {
+        return layers.size();
+    }
+
+    Set<Parameter> parameterSet(final int parameterSet) {
+        return parameterSets.get(parameterSet);
+    }
+
+    /**
+     * @return Region bits per target index of the given parameter set, empty rows included
+     */
+    List<BitSet> layerRows(final int parameterSet) {
+        return layerOrEmpty(layers, parameterSet);
+    }
+
+    String target(final int target) {
+        return targets.get(target);
+    }
+
+    String region(final int region) {
+        return regions.get(region);
+    }
+
+    /**
+     * @return Number of interned regions, some of which may have no stack instance in this matrix
+     */
+    int regionCount() {
+        return regions.size();
+    }
+
+    private List<BitSet> layer(final int parameterSet) {
+        while (layers.size() <= parameterSet) {
+            layers.add(new ArrayList<>());
+        }
+        return layers.get(parameterSet);
+    }
+
+    private static BitSet bits(final List<BitSet> rows, final int index) {
+        while (rows.size() <= index) {
+            rows.add(new BitSet());
+        }
+        return rows.get(index);
+    }
+
+    private static BitSet bitsOrEmpty(final List<BitSet> rows, final int index) {
+        return index < rows.size() ? rows.get(index) : new BitSet();
+    }
+
+    private static List<BitSet> layerOrEmpty(final List<List<BitSet>> layers, final int index) {
+        return index < layers.size() ? layers.get(index) : new ArrayList<>();
+    }
+
+    /**
+     * Interns values to dense int indexes
+     */
+    private static class Dictionary<T> {
+
+        private final Map<T, Integer> indexes = new HashMap<>();
+
+        private final List<T> values = new ArrayList<>();
+
+        private int intern(final T value) {
+            final Integer index = indexes.get(value);
+            if (index != null) return index;
+            indexes.put(value, values.size());
+            values.add(value);
+            return values.size() - 1;
+        }
+
+        private int indexOf(final T value) {
+            final Integer index = indexes.get(value);
+            return index == null ? -1 : index;
+        }
+
+        private T get(final int index) {
+            return values.get(index);
+        }
+
+        private int size() {
+            return values.size();
+        }
+    }
+}
@@ -14,4 +14,9 @@ public class StackInstancesPlaceHolder {
     private List<StackInstances> deleteStackInstances = new ArrayList<>();
 
     private List<StackInstances> updateStackInstances = new ArrayList<>();
+
+    /**
+     * Stack instances UpdateStackSet deploys to, or null for all the stack instances of the StackSet
+     */
+    private StackInstances updateStackSetScope;
 }
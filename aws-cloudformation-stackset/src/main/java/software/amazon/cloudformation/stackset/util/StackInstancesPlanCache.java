@@ -0,0 +1,90 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+import software.amazon.cloudformation.Action;
+import software.amazon.cloudformation.stackset.ResourceModel;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static software.amazon.cloudformation.stackset.util.Comparator.isSelfManaged;
+
+/**
+ * Bounded cache of the stack instances operations planned by {@link InstancesAnalyzer}, keyed by the fingerprint of
+ * the stack instances of a handler request, so that callbacks served by a warm handler process do not plan again
+ *
+ * <p>Only the fingerprint is kept in {@link software.amazon.cloudformation.stackset.CallbackContext}, so callback
+ * payloads do not grow with the stack instances. The plan only depends on the fingerprinted inputs, so a callback
+ * served by another handler process plans the same operations again.
+ */
+public class StackInstancesPlanCache {
+
+    /**
+     * Default number of plans kept
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final Map<String, StackInstancesPlaceHolder> plans;
+
+    @Builder
+    public StackInstancesPlanCache(final Integer capacity) {
+        this.plans = new TemplateCanonicalizer.LruMap<>(capacity == null ? DEFAULT_CAPACITY : capacity);
+    }
+
+    /**
+     * Computes the fingerprint of the inputs of a plan: the action, the permission model and the stack instances
+     * groups of the desired and previous models, by {@link OperationKey}
+     *
+     * @param action        {@link Action}
+     * @param desiredModel  desired {@link ResourceModel}
+     * @param previousModel previous {@link ResourceModel}, or null
+     * @return Hex encoded fingerprint
+     */
+    public static String fingerprint(final Action action, final ResourceModel desiredModel, final ResourceModel previousModel) {
+        final List<String> parts = new ArrayList<>();
+        parts.add(action.name());
+        parts.add(Boolean.toString(isSelfManaged(desiredModel)));
+        addKeys(parts, desiredModel.getStackInstancesGroup());
+        addKeys(parts, action == Action.UPDATE && previousModel != null ? previousModel.getStackInstancesGroup() : null);
+        return Digest.sha256(parts.toArray(new String[0]));
+    }
+
+    /**
+     * Gets the plan of a fingerprint, planning it on a miss. The plan is computed outside of the lock, so concurrent
+     * misses may plan the same operations twice.
+     *
+     * @param fingerprint Fingerprint of the inputs of the plan, see {@link #fingerprint}
+     * @param plan        Plans the operations
+     * @return {@link StackInstancesPlaceHolder}
+     */
+    public StackInstancesPlaceHolder get(final String fingerprint, final Supplier<StackInstancesPlaceHolder> plan) {
+        synchronized (this) {
+            final StackInstancesPlaceHolder placeHolder = plans.get(fingerprint);
+            if (placeHolder != null) {
+                return placeHolder;
+            }
+        }
+        final StackInstancesPlaceHolder placeHolder = plan.get();
+        synchronized (this) {
+            plans.put(fingerprint, placeHolder);
+        }
+        return placeHolder;
+    }
+
+    private static void addKeys(final List<String> parts, final Collection<StackInstances> stackInstancesGroup) {
+        if (stackInstancesGroup == null) {
+            parts.add(null);
+            return;
+        }
+        final List<String> keys = new ArrayList<>();
+        stackInstancesGroup.forEach(stackInstances -> keys.add(OperationKey.of(stackInstances)));
+        Collections.sort(keys);
+        parts.add(Integer.toString(keys.size()));
+        parts.addAll(keys);
+    }
+}
@@ -0,0 +1,322 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+import lombok.Data;
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class to plan the fewest {@link StackInstances} operations covering a set of flat {@link StackInstance}
+ *
+ * <p>Each parameter set forms a (target x region) matrix. Every planned operation is a rectangle of that matrix
+ * (a set of targets times a set of regions), and the rectangles partition the matrix exactly, so no stack instance is
+ * added or dropped. The planner starts from grouping targets with equal regions and regions with equal targets,
+ * then runs a bounded branch-and-bound biclique search that only replaces the grouping if it needs fewer operations.
+ * The search is charged for every row it intersects or compares while generating candidates, so the effort bounds
+ * its actual cost whatever the number of targets.
+ */
+@Builder
+@Data
+public class StackInstancesPlanner {
+
+    /**
+     * Default number of row operations the search may spend per parameter set. A row operation intersects or compares
+     * the regions of two targets, which takes a single word for the regions available today.
+     */
+    public static final int DEFAULT_EFFORT = 1_000_000;
+
+    /**
+     * Number of region sets a search node derives candidates from, so that a node costs O(targets) row operations
+     * rather than O(targets^2)
+     */
+    static final int MAX_CANDIDATES = 16;
+
+    private static final java.util.Comparator<String> BY_NAME =
+            java.util.Comparator.nullsFirst(java.util.Comparator.naturalOrder());
+
+    /**
+     * Upper bound of row operations to spend per parameter set, 0 disables the biclique search
+     */
+    @Builder.Default
+    private int effort = DEFAULT_EFFORT;
+
+    /**
+     * Plans {@link StackInstances} operations for flat {@link StackInstance}
+     *
+     * @param flatStackInstances {@link StackInstance} set
+     * @param isSelfManaged      if PermissionModel is SELF_MANAGED
+     * @return {@link StackInstances} set
+     */
+    public Set<StackInstances> plan(final Set<StackInstance> flatStackInstances, final boolean isSelfManaged) {
+        return plan(StackInstanceMatrix.of(flatStackInstances), isSelfManaged);
+    }
+
+    /**
+     * Plans {@link StackInstances} operations for a {@link StackInstanceMatrix}
+     *
+     * @param matrix        {@link StackInstanceMatrix}
+     * @param isSelfManaged if PermissionModel is SELF_MANAGED
+     * @return {@link StackInstances} set
+     */
+    public Set<StackInstances> plan(final StackInstanceMatrix matrix, final boolean isSelfManaged) {
+        // Targets and regions are laid out by name rather than by interning order,
+        // so that the plan only depends on the stack instances and not on how the matrix was built
+        final List<Integer> regions = new ArrayList<>();
+        for (int region = 0; region < matrix.regionCount(); region++) {
+            regions.add(region);
+        }
+        regions.sort(java.util.Comparator.comparing(matrix::region, BY_NAME));
+        final int[] regionPositions = new int[regions.size()];
+        for (int position = 0; position < regions.size(); position++) {
+            regionPositions[regions.get(position)] = position;
+        }
+
+        final Set<StackInstances> plannedStacks = new HashSet<>();
+        for (int parameterSet = 0; parameterSet < matrix.parameterSetCount(); parameterSet++) {
+            // Only targets holding stack instances with this parameter set take part in the cover
+            final List<BitSet> layerRows = matrix.layerRows(parameterSet);
+            final List<Integer> targets = new ArrayList<>();
+            for (int target = 0; target < layerRows.size(); target++) {
+                if (!layerRows.get(target).isEmpty()) targets.add(target);
+            }
+            targets.sort(java.util.Comparator.comparing(matrix::target, BY_NAME));
+
+            final List<BitSet> rows = new ArrayList<>();
+            for (final int target : targets) {
+                final BitSet layerRow = layerRows.get(target);
+                final BitSet row = new BitSet();
+                layerRow.stream().forEach(region -> row.set(regionPositions[region]));
+                rows.add(row);
+            }
+            for (final Rectangle rectangle : cover(rows)) {
+                plannedStacks.add(toStackInstances(matrix, targets, regions, rectangle, parameterSet, isSelfManaged));
+            }
+        }
+        return plannedStacks;
+    }
+
+    private static StackInstances toStackInstances(
+            final StackInstanceMatrix matrix,
+            final List<Integer> targets,
+            final List<Integer> regions,
+            final Rectangle rectangle,
+            final int parameterSet,
+            final boolean isSelfManaged) {
+
+        final Set<String> rectangleTargets = new HashSet<>();
+        rectangle.getTargets().stream().forEach(index -> rectangleTargets.add(matrix.target(targets.get(index))));
+        final Set<String> rectangleRegions = new HashSet<>();
+        rectangle.getRegions().stream().forEach(index -> rectangleRegions.add(matrix.region(regions.get(index))));
+
+        final DeploymentTargets deploymentTargets = DeploymentTargets.builder().build();
+        if (isSelfManaged) {
+            deploymentTargets.setAccounts(rectangleTargets);
+        } else {
+            deploymentTargets.setOrganizationalUnitIds(rectangleTargets);
+        }
+        return StackInstances.builder()
+                .regions(rectangleRegions)
+                .deploymentTargets(deploymentTargets)
+                .parameterOverrides(matrix.parameterSet(parameterSet))
+                .build();
+    }
+
+    /**
+     * Partitions the matrix into the fewest rectangles found within the effort bound
+     *
+     * @param rows region bits of each target
+     * @return Rectangles that exactly cover the matrix
+     */
+    List<Rectangle> cover(final List<BitSet> rows) {
+        final List<Rectangle> byRows = groupByRows(rows);
+        final List<Rectangle> byColumns = groupByColumns(rows);
+        // Prefers grouping by rows on ties, which is how operations were grouped before planning
+        List<Rectangle> best = byColumns.size() < byRows.size() ? byColumns : byRows;
+
+        if (effort > 0 && best.size() > 1) {
+            final List<Rectangle> searched = new Search(rows, effort, best.size()).run();
+            if (searched != null) {
+                best = searched;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Groups targets sharing exactly the same regions
+     *
+     * @param rows region bits of each target
+     * @return Rectangles that exactly cover the matrix
+     */
+    static List<Rectangle> groupByRows(final List<BitSet> rows) {
+        final Map<BitSet, BitSet> targetsByRegions = new LinkedHashMap<>();
+        for (int target = 0; target < rows.size(); target++) {
+            targetsByRegions.computeIfAbsent(rows.get(target), key -> new BitSet()).set(target);
+        }
+        final List<Rectangle> rectangles = new ArrayList<>();
+        targetsByRegions.forEach((regions, targets) -> rectangles.add(new Rectangle(targets, regions)));
+        return rectangles;
+    }
+
+    /**
+     * Groups regions sharing exactly the same targets
+     *
+     * @param rows region bits of each target
+     * @return Rectangles that exactly cover the matrix
+     */
+    static List<Rectangle> groupByColumns(final List<BitSet> rows) {
+        final BitSet allRegions = new BitSet();
+        rows.forEach(allRegions::or);
+
+        final Map<BitSet, BitSet> regionsByTargets = new LinkedHashMap<>();
+        for (int region = allRegions.nextSetBit(0); region >= 0; region = allRegions.nextSetBit(region + 1)) {
+            final BitSet targets = new BitSet();
+            for (int target = 0; target < rows.size(); target++) {
+                if (rows.get(target).get(region)) targets.set(target);
+            }
+            regionsByTargets.computeIfAbsent(targets, key -> new BitSet()).set(region);
+        }
+        final List<Rectangle> rectangles = new ArrayList<>();
+        regionsByTargets.forEach((targets, regions) -> rectangles.add(new Rectangle(targets, regions)));
+        return rectangles;
+    }
+
+    /**
+     * A set of targets times a set of regions, which maps to a single stack instances operation
+     */
+    @Data
+    static class Rectangle {
+
+        private final BitSet targets;
+
+        private final BitSet regions;
+
+        int area() {
+            return targets.cardinality() * regions.cardinality();
+        }
+    }
+
+    /**
+     * Depth-first branch-and-bound search for an exact rectangle partition with fewer rectangles than a known bound.
+     * The first descent always takes the largest candidate, so it doubles as a greedy cover.
+     */
+    private static class Search {
+
+        private final List<BitSet> remaining = new ArrayList<>();
+
+        private final List<Rectangle> chosen = new ArrayList<>();
+
+        private int budget;
+
+        private int bestSize;
+
+        private List<Rectangle> best;
+
+        private Search(final List<BitSet> rows, final int effort, final int bound) {
+            rows.forEach(row -> remaining.add((BitSet) row.clone()));
+            this.budget = effort;
+            this.bestSize = bound;
+        }
+
+        private List<Rectangle> run() {
+            search();
+            return best;
+        }
+
+        private void search() {
+            final int row = firstNonEmptyRow();
+            if (row < 0) {
+                if (chosen.size() < bestSize) {
+                    bestSize = chosen.size();
+                    best = new ArrayList<>(chosen);
+                }
+                return;
+            }
+            // At least one more rectangle is needed, which cannot beat the best partition found so far
+            if (chosen.size() + 1 >= bestSize) return;
+
+            for (final Rectangle candidate : candidates(row)) {
+                if (budget <= 0) return;
+                apply(candidate, false);
+                chosen.add(candidate);
+                search();
+                chosen.remove(chosen.size() - 1);
+                apply(candidate, true);
+            }
+        }
+
+        private int firstNonEmptyRow() {
+            for (int target = 0; target < remaining.size(); target++) {
+                if (!remaining.get(target).isEmpty()) return target;
+            }
+            return -1;
+        }
+
+        /**
+         * Any partition covers the first uncovered cell of the given row with some rectangle. The candidates are
+         * rectangles through that cell whose regions are the row itself, the single column, or its overlap with one
+         * of the next rows holding that cell, up to {@link #MAX_CANDIDATES} region sets, each taken across every row
+         * still holding all of those regions. Every row intersected or compared is charged to the budget, and no
+         * candidate is returned once it runs out.
+         */
+        private List<Rectangle> candidates(final int row) {
+            final BitSet rowRegions = remaining.get(row);
+            final int column = rowRegions.nextSetBit(0);
+
+            final Set<BitSet> regionSets = new LinkedHashSet<>();
+            regionSets.add((BitSet) rowRegions.clone());
+            final BitSet singleColumn = new BitSet();
+            singleColumn.set(column);
+            regionSets.add(singleColumn);
+            for (int target = row + 1; target < remaining.size() && regionSets.size() < MAX_CANDIDATES; target++) {
+                if (--budget < 0) return Collections.emptyList();
+                if (remaining.get(target).get(column)) {
+                    final BitSet overlap = (BitSet) rowRegions.clone();
+                    overlap.and(remaining.get(target));
+                    regionSets.add(overlap);
+                }
+            }
+
+            final List<Rectangle> candidates = new ArrayList<>();
+            for (final BitSet regions : regionSets) {
+                final BitSet targets = new BitSet();
+                for (int target = row; target < remaining.size(); target++) {
+                    if (--budget < 0) return Collections.emptyList();
+                    if (remaining.get(target).intersects(regions) && containsAll(remaining.get(target), regions)) {
+                        targets.set(target);
+                    }
+                }
+                candidates.add(new Rectangle(targets, regions));
+            }
+            candidates.sort(Collections.reverseOrder(java.util.Comparator.comparingInt(Rectangle::area)));
+            return candidates;
+        }
+
+        private void apply(final Rectangle rectangle, final boolean undo) {
+            final BitSet targets = rectangle.getTargets();
+            for (int target = targets.nextSetBit(0); target >= 0; target = targets.nextSetBit(target + 1)) {
+                if (undo) {
+                    remaining.get(target).or(rectangle.getRegions());
+                } else {
+                    remaining.get(target).andNot(rectangle.getRegions());
+                }
+            }
+        }
+
+        private static boolean containsAll(final BitSet superset, final BitSet subset) {
+            final BitSet missing = (BitSet) subset.clone();
+            missing.andNot(superset);
+            return missing.isEmpty();
+        }
+    }
+}
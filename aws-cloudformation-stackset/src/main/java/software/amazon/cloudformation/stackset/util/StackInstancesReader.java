@@ -0,0 +1,123 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.ListStackInstancesResponse;
+import software.amazon.awssdk.services.cloudformation.model.StackSet;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static software.amazon.cloudformation.stackset.translator.PropertyTranslator.translateToStackInstance;
+import static software.amazon.cloudformation.stackset.translator.RequestTranslator.listStackInstancesRequest;
+
+/**
+ * Utility class to read all stack instances of a StackSet
+ *
+ * <p>Each page is folded into a {@link StackInstanceMatrix} as it arrives, so stack instances of a SERVICE_MANAGED
+ * StackSet collapse to their OU targets right away, and memory grows with the distinct targets rather than with the
+ * stack instances. Pages are read without filter, following their tokens to the last one, which is the only listing
+ * known to cover every stack instance: ListStackInstances cannot exclude regions, so reading regions in parallel
+ * would not make the listing any shorter, and regions only found on later pages would be missed. A read that does
+ * not reach the last page within the read timeout fails rather than returning part of the stack instances. Every
+ * call takes a permit of the {@link CallBudget#shared} budget.
+ */
+public class StackInstancesReader {
+
+    /**
+     * Default time the pages are read for, within the timeout of a Read handler
+     */
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(45L);
+
+    private final ProxyClient<CloudFormationClient> proxyClient;
+    private final Duration readTimeout;
+
+    @Builder
+    public StackInstancesReader(
+            final ProxyClient<CloudFormationClient> proxyClient,
+            final Duration readTimeout) {
+        this.proxyClient = proxyClient;
+        this.readTimeout = readTimeout == null ? DEFAULT_READ_TIMEOUT : readTimeout;
+    }
+
+    /**
+     * Reads all stack instances of a StackSet
+     *
+     * @param stackSet      {@link StackSet}
+     * @param isSelfManaged if permission model is SELF_MANAGED
+     * @param callAs        CallAs of the requests
+     * @return {@link StackInstanceMatrix} of the StackSet, without parameters
+     * @throws CfnGeneralServiceException if the last page is not read within the read timeout
+     */
+    public StackInstanceMatrix read(final StackSet stackSet, final boolean isSelfManaged, final String callAs) {
+        return read(stackSet, isSelfManaged, callAs, null);
+    }
+
+    /**
+     * Reads all stack instances of a StackSet, and the account of one stack instance per OU and region
+     *
+     * @param stackSet      {@link StackSet}
+     * @param isSelfManaged if permission model is SELF_MANAGED
+     * @param callAs        CallAs of the requests
+     * @param accounts      Map to put the first account read of each {@link StackInstance} in, if not null
+     * @return {@link StackInstanceMatrix} of the StackSet, without parameters
+     * @throws CfnGeneralServiceException if the last page is not read within the read timeout
+     */
+    public StackInstanceMatrix read(
+            final StackSet stackSet,
+            final boolean isSelfManaged,
+            final String callAs,
+            final Map<StackInstance, String> accounts) {
+
+        final long deadline = System.nanoTime() + readTimeout.toNanos();
+        final StackInstanceMatrix matrix = new StackInstanceMatrix();
+        String token = null;
+        do {
+            if (System.nanoTime() - deadline >= 0) {
+                throw new CfnGeneralServiceException(String.format("ListStackInstances of StackSet [%s] did not "
+                        + "complete within %s", stackSet.stackSetId(), readTimeout));
+            }
+            token = readPage(stackSet.stackSetId(), isSelfManaged, callAs, token, matrix, accounts);
+        } while (token != null);
+        return matrix;
+    }
+
+    /**
+     * @param threads Number of threads
+     * @param name    Name of the threads
+     * @return Executor of daemon threads, so that requests abandoned past a deadline do not hold the handler process
+     */
+    public static ExecutorService newExecutor(final int threads, final String name) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private String readPage(
+            final String stackSetId,
+            final boolean isSelfManaged,
+            final String callAs,
+            final String token,
+            final StackInstanceMatrix matrix,
+            final Map<StackInstance, String> accounts) {
+
+        final ListStackInstancesResponse listStackInstancesResponse = CallBudget.shared().call(() -> proxyClient.injectCredentialsAndInvokeV2(
+                listStackInstancesRequest(token, stackSetId, callAs), proxyClient.client()::listStackInstances));
+        if (!listStackInstancesResponse.hasSummaries()) return null;
+        listStackInstancesResponse.summaries().forEach(member -> {
+            // Parameters are set null as we can't retrieve parameter override from List API.
+            // Retrieving from Describe API requires to brutal force every single stack instance
+            // which will likely cause timeout issue
+            final StackInstance stackInstance = translateToStackInstance(isSelfManaged, member, null);
+            matrix.add(stackInstance.getDeploymentTarget(), stackInstance.getRegion(), stackInstance.getParameters());
+            if (accounts != null) accounts.putIfAbsent(stackInstance, member.account());
+        });
+        return listStackInstancesResponse.nextToken();
+    }
+}
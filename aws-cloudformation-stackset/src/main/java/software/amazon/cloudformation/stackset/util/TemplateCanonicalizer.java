@@ -0,0 +1,368 @@
+package software.amazon.cloudformation.stackset.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class to fingerprint CloudFormation templates by their content rather than by their text
+ *
+ * <p>JSON and YAML templates, YAML short form intrinsic functions included, are read with Jackson into the same tree,
+ * which is written as JSON with sorted keys, and the fingerprint is the SHA-256 digest of that canonical JSON.
+ * Templates that only differ by whitespace, comments, key order, quoting or format therefore get the same fingerprint.
+ * Reading fails closed: templates using YAML features that CloudFormation templates do not need, such as anchors,
+ * duplicated keys, tags other than intrinsic functions, or numbers and booleans JSON would write differently, have no
+ * fingerprint and are compared by their text.
+ */
+public class TemplateCanonicalizer {
+
+    /**
+     * Number of template fingerprints kept, which covers the previous and desired templates of the handler requests
+     * a warm handler process serves in a row
+     */
+    private static final int CACHE_SIZE = 16;
+
+    /**
+     * Deepest nesting of collections read, far beyond any template CloudFormation accepts
+     */
+    static final int MAX_DEPTH = 256;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final YAMLFactory YAML_FACTORY = new YAMLFactory();
+
+    private static final Pattern JSON_NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][-+]?[0-9]+)?");
+
+    private static final Set<String> INTRINSIC_FUNCTIONS = new HashSet<>(Arrays.asList(
+            "And", "Base64", "Cidr", "Equals", "FindInMap", "GetAZs", "If", "ImportValue", "Join", "Length", "Not",
+            "Or", "Select", "Split", "Sub", "ToJsonString", "Transform"));
+
+    /**
+     * Fingerprints keyed by the digest of the template text, empty if the template has none
+     */
+    private static final Map<String, String> FINGERPRINTS = Collections.synchronizedMap(new LruMap<>(CACHE_SIZE));
+
+    /**
+     * Scalars other than strings, kept as their JSON text
+     */
+    static final class Literal {
+
+        static final Literal NULL = new Literal("null");
+
+        static final Literal TRUE = new Literal("true");
+
+        static final Literal FALSE = new Literal("false");
+
+        private final String json;
+
+        Literal(final String json) {
+            this.json = json;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Literal && json.equals(((Literal) other).json);
+        }
+
+        @Override
+        public int hashCode() {
+            return json.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return json;
+        }
+    }
+
+    /**
+     * Compares two template bodies by content
+     *
+     * @param templateBody1 Template body, JSON or YAML
+     * @param templateBody2 Template body, JSON or YAML
+     * @return true if the templates are identical, or if both have the same canonical fingerprint
+     */
+    public static boolean isEquivalent(final String templateBody1, final String templateBody2) {
+        if (Objects.equals(templateBody1, templateBody2)) return true;
+        if (templateBody1 == null || templateBody2 == null) return false;
+
+        final String fingerprint1 = fingerprint(templateBody1);
+        return fingerprint1 != null && fingerprint1.equals(fingerprint(templateBody2));
+    }
+
+    /**
+     * Computes the canonical fingerprint of a template, cached by the digest of its text
+     *
+     * @param templateBody Template body, JSON or YAML
+     * @return Hex encoded SHA-256 digest of the canonical JSON of the template, or null if it cannot be read
+     */
+    public static String fingerprint(final String templateBody) {
+        if (templateBody == null) return null;
+
+        final String key = Digest.sha256(templateBody);
+        String fingerprint = FINGERPRINTS.get(key);
+        if (fingerprint == null) {
+            final String canonicalJson = canonicalJson(templateBody);
+            fingerprint = canonicalJson == null ? "" : Digest.sha256(canonicalJson);
+            FINGERPRINTS.put(key, fingerprint);
+        }
+        return fingerprint.isEmpty() ? null : fingerprint;
+    }
+
+    /**
+     * Reads a template into canonical JSON, without caching
+     *
+     * @param templateBody Template body, JSON or YAML
+     * @return JSON with sorted keys and no whitespace, or null if the template cannot be read
+     */
+    static String canonicalJson(final String templateBody) {
+        try {
+            final StringBuilder out = new StringBuilder(templateBody.length());
+            writeCanonical(read(templateBody), out, 0);
+            return out.toString();
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads a template into a tree of {@link Map}, {@link List}, {@link String} and {@link Literal}
+     *
+     * @param templateBody Template body, JSON or YAML
+     * @return Root mapping of the template
+     * @throws IllegalArgumentException if the template cannot be read
+     */
+    static Object read(final String templateBody) {
+        final String trimmed = templateBody.trim();
+        if (trimmed.startsWith("{")) {
+            try {
+                return readTree(JSON_FACTORY, trimmed);
+            } catch (final IOException | IllegalArgumentException e) {
+                // CloudFormation reads templates that are not valid JSON as YAML, which JSON-like text may still be
+            }
+        }
+        final Object root = readYaml(templateBody);
+        if (!(root instanceof Map)) {
+            throw new IllegalArgumentException("Template is not a mapping");
+        }
+        return root;
+    }
+
+    /**
+     * Reads a YAML document into a tree of {@link Map}, {@link List}, {@link String} and {@link Literal}, expanding
+     * short form intrinsic functions
+     *
+     * @param templateBody YAML document
+     * @return Root node of the document
+     * @throws IllegalArgumentException if the document cannot be read
+     */
+    static Object readYaml(final String templateBody) {
+        try {
+            return readTree(YAML_FACTORY, templateBody);
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Template is not valid YAML", e);
+        }
+    }
+
+    /**
+     * Expands a YAML short form intrinsic function to its full form
+     *
+     * @param name Tag without its leading !, such as Ref or GetAtt
+     * @param node Tagged node
+     * @return Single key mapping of the function
+     * @throws IllegalArgumentException if the tag is not an intrinsic function
+     */
+    static Object applyTag(final String name, final Object node) {
+        final Map<String, Object> function = new LinkedHashMap<>();
+        if (name.equals("Ref") || name.equals("Condition")) {
+            function.put(name, node);
+        } else if (name.equals("GetAtt")) {
+            // !GetAtt Resource.Attribute is short for [Resource, Attribute], attribute names may hold dots
+            if (node instanceof String) {
+                final String attribute = (String) node;
+                final int dot = attribute.indexOf('.');
+                if (dot < 0) {
+                    throw new IllegalArgumentException(String.format("!GetAtt [%s] has no attribute", attribute));
+                }
+                function.put("Fn::GetAtt", Arrays.asList(attribute.substring(0, dot), attribute.substring(dot + 1)));
+            } else {
+                function.put("Fn::GetAtt", node);
+            }
+        } else if (INTRINSIC_FUNCTIONS.contains(name)) {
+            function.put("Fn::" + name, node);
+        } else {
+            throw new IllegalArgumentException(String.format("Tag [%s] is not supported", name));
+        }
+        return function;
+    }
+
+    private static Object readTree(final JsonFactory factory, final String template) throws IOException {
+        try (JsonParser parser = factory.createParser(template)) {
+            final Object root = readValue(parser, parser.nextToken(), 0);
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Unexpected content after the template");
+            }
+            return root;
+        }
+    }
+
+    private static Object readValue(final JsonParser parser, final JsonToken token, final int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Template is nested too deep");
+        }
+        if (token == null) {
+            throw new IllegalArgumentException("Unexpected end of the template");
+        }
+        // The tag belongs to the token the parser is on, so it is read before any nested token
+        final String tag = tagOf(parser);
+        final Object node;
+        switch (token) {
+            case START_OBJECT:
+                final Map<String, Object> mapping = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String key = parser.getCurrentName();
+                    if (mapping.put(key, readValue(parser, parser.nextToken(), depth + 1)) != null) {
+                        throw new IllegalArgumentException(String.format("Key [%s] is duplicated", key));
+                    }
+                }
+                node = mapping;
+                break;
+            case START_ARRAY:
+                final List<Object> sequence = new ArrayList<>();
+                JsonToken item;
+                while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    sequence.add(readValue(parser, item, depth + 1));
+                }
+                node = sequence;
+                break;
+            case VALUE_STRING:
+                node = parser.getText();
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                // YAML numbers such as 0x1F, 1_000 or .inf have no JSON literal of the same text
+                if (!JSON_NUMBER.matcher(parser.getText()).matches()) {
+                    throw new IllegalArgumentException(String.format("Number [%s] is ambiguous", parser.getText()));
+                }
+                node = new Literal(parser.getText());
+                break;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                // YAML 1.1 also reads booleans from words such as yes or off, which YAML 1.2 reads as strings
+                final Literal literal = token == JsonToken.VALUE_TRUE ? Literal.TRUE : Literal.FALSE;
+                if (!literal.json.equalsIgnoreCase(parser.getText())) {
+                    throw new IllegalArgumentException(String.format("Boolean [%s] is ambiguous", parser.getText()));
+                }
+                node = literal;
+                break;
+            case VALUE_NULL:
+                node = Literal.NULL;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected token [%s]", token));
+        }
+        return tag == null ? node : applyTag(tag, node);
+    }
+
+    /**
+     * @param parser Parser on the first token of a value
+     * @return Tag of the YAML node without its leading !, or null for JSON and untagged nodes
+     * @throws IllegalArgumentException if the node has an anchor or is an alias
+     */
+    private static String tagOf(final JsonParser parser) throws IOException {
+        if (!(parser instanceof YAMLParser)) return null;
+
+        final YAMLParser yamlParser = (YAMLParser) parser;
+        if (yamlParser.getObjectId() != null || yamlParser.isCurrentAlias()) {
+            throw new IllegalArgumentException("Anchors and aliases are not supported");
+        }
+        return yamlParser.getTypeId();
+    }
+
+    private static void writeCanonical(final Object node, final StringBuilder out, final int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Template is nested too deep");
+        }
+        if (node instanceof Map) {
+            final Map<?, ?> mapping = (Map<?, ?>) node;
+            final List<String> keys = new ArrayList<>();
+            mapping.keySet().forEach(key -> keys.add((String) key));
+            Collections.sort(keys);
+            out.append('{');
+            for (int index = 0; index < keys.size(); index++) {
+                if (index > 0) out.append(',');
+                writeString(keys.get(index), out);
+                out.append(':');
+                writeCanonical(mapping.get(keys.get(index)), out, depth + 1);
+            }
+            out.append('}');
+        } else if (node instanceof List) {
+            final List<?> sequence = (List<?>) node;
+            out.append('[');
+            for (int index = 0; index < sequence.size(); index++) {
+                if (index > 0) out.append(',');
+                writeCanonical(sequence.get(index), out, depth + 1);
+            }
+            out.append(']');
+        } else if (node instanceof String) {
+            writeString((String) node, out);
+        } else if (node == null) {
+            out.append(Literal.NULL.json);
+        } else {
+            out.append(((Literal) node).json);
+        }
+    }
+
+    private static void writeString(final String value, final StringBuilder out) {
+        out.append('"');
+        for (int index = 0; index < value.length(); index++) {
+            final char c = value.charAt(index);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else if (c == '\t') {
+                out.append("\\t");
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * {@link LinkedHashMap} in access order that evicts its least recently used entry beyond a capacity
+     */
+    static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        LruMap(final int capacity) {
+            super(capacity + 1, 1.0f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
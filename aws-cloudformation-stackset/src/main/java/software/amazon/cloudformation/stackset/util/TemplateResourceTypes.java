@@ -0,0 +1,151 @@
+package software.amazon.cloudformation.stackset.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class to read the resource types of an inline template without calling GetTemplateSummary
+ *
+ * <p>JSON templates are streamed, reading the Type of each resource and skipping everything else. Other templates
+ * are read as YAML into the tree of {@link TemplateCanonicalizer}. Templates with a top-level Transform section or an
+ * Fn::Transform anywhere are left to GetTemplateSummary, since macros may add resources of their own, as are templates
+ * whose resources cannot be told for sure.
+ */
+public class TemplateResourceTypes {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String RESOURCES = "Resources";
+
+    private static final String TYPE = "Type";
+
+    private static final String TRANSFORM = "Transform";
+
+    private static final String FN_TRANSFORM = "Fn::Transform";
+
+    /**
+     * Reads the resource types of a template
+     *
+     * @param templateBody Template body, JSON or YAML
+     * @return Resource types of the template, or null if they cannot be told without GetTemplateSummary
+     */
+    public static Set<String> of(final String templateBody) {
+        if (templateBody == null) return null;
+
+        if (templateBody.trim().startsWith("{")) {
+            try {
+                return ofJson(templateBody);
+            } catch (final IOException | IllegalArgumentException e) {
+                // CloudFormation reads templates that are not valid JSON as YAML, which JSON-like text may still be
+            }
+        }
+        try {
+            return ofYaml(TemplateCanonicalizer.readYaml(templateBody));
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Set<String> ofJson(final String templateBody) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(templateBody)) {
+            parser.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+            Set<String> resourceTypes = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String key = parser.getCurrentName();
+                final JsonToken value = parser.nextToken();
+                if (TRANSFORM.equals(key)) return null;
+                if (RESOURCES.equals(key)) {
+                    if (value != JsonToken.START_OBJECT) return null;
+                    resourceTypes = ofJsonResources(parser);
+                    if (resourceTypes == null) return null;
+                } else if (!skipJson(parser)) {
+                    return null;
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Unexpected content after the template");
+            }
+            return resourceTypes;
+        }
+    }
+
+    private static Set<String> ofJsonResources(final JsonParser parser) throws IOException {
+        final Set<String> resourceTypes = new LinkedHashSet<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+            String resourceType = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String key = parser.getCurrentName();
+                final JsonToken value = parser.nextToken();
+                if (TYPE.equals(key)) {
+                    if (value != JsonToken.VALUE_STRING) return null;
+                    resourceType = parser.getText();
+                } else if (!skipJson(parser)) {
+                    return null;
+                }
+            }
+            if (resourceType == null) return null;
+            resourceTypes.add(resourceType);
+        }
+        return resourceTypes.isEmpty() ? null : resourceTypes;
+    }
+
+    /**
+     * Skips the value the parser is on, like {@link JsonParser#skipChildren}, looking for Fn::Transform keys
+     *
+     * @param parser {@link JsonParser} on the first token of a value
+     * @return false if the value holds an Fn::Transform key
+     */
+    private static boolean skipJson(final JsonParser parser) throws IOException {
+        if (!parser.currentToken().isStructStart()) return true;
+
+        int depth = 1;
+        while (depth > 0) {
+            final JsonToken token = parser.nextToken();
+            if (token == null) throw new IllegalArgumentException("Unexpected end of the template");
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            } else if (token == JsonToken.FIELD_NAME && FN_TRANSFORM.equals(parser.getCurrentName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> ofYaml(final Object template) {
+        if (!(template instanceof Map) || !(((Map<?, ?>) template).get(RESOURCES) instanceof Map)) return null;
+        if (((Map<?, ?>) template).containsKey(TRANSFORM) || hasFnTransform(template)) return null;
+
+        final Set<String> resourceTypes = new LinkedHashSet<>();
+        for (final Object resource : ((Map<?, ?>) ((Map<?, ?>) template).get(RESOURCES)).values()) {
+            if (!(resource instanceof Map) || !(((Map<?, ?>) resource).get(TYPE) instanceof String)) return null;
+            resourceTypes.add((String) ((Map<?, ?>) resource).get(TYPE));
+        }
+        return resourceTypes.isEmpty() ? null : resourceTypes;
+    }
+
+    private static boolean hasFnTransform(final Object node) {
+        if (node instanceof Map) {
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) node).entrySet()) {
+                if (FN_TRANSFORM.equals(entry.getKey()) || hasFnTransform(entry.getValue())) return true;
+            }
+        } else if (node instanceof List) {
+            for (final Object item : (List<?>) node) {
+                if (hasFnTransform(item)) return true;
+            }
+        }
+        return false;
+    }
+}
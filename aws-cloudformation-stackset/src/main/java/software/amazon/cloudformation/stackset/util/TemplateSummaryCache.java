@@ -0,0 +1,107 @@
+package software.amazon.cloudformation.stackset.util;
+
+import lombok.Builder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the resource types GetTemplateSummary returns, keyed by the digest of the template body or URL,
+ * so that a warm handler process validates a template shared by callbacks and stack sets once
+ *
+ * <p>Entries expire after a TTL, since the object behind a template URL may change without the URL changing, unless
+ * the URL pins a versionId. Entries beyond the capacity are evicted least recently used first.
+ */
+public class TemplateSummaryCache {
+
+    /**
+     * Default number of templates kept
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Default time an entry is kept after GetTemplateSummary returned it
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10L);
+
+    private static final class Entry {
+
+        private final List<String> resourceTypes;
+        private final long expiresAt;
+
+        private Entry(final List<String> resourceTypes, final long expiresAt) {
+            this.resourceTypes = resourceTypes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Entry> entries;
+
+    private long hitCount;
+    private long missCount;
+
+    @Builder
+    public TemplateSummaryCache(
+            final Integer capacity,
+            final Duration ttl,
+            final LongSupplier nanoClock) {
+        this.ttlNanos = (ttl == null ? DEFAULT_TTL : ttl).toNanos();
+        this.nanoClock = nanoClock == null ? System::nanoTime : nanoClock;
+        this.entries = new TemplateCanonicalizer.LruMap<>(capacity == null ? DEFAULT_CAPACITY : capacity);
+    }
+
+    /**
+     * Gets the resource types of a template, calling GetTemplateSummary on a miss. Failed calls are not cached.
+     *
+     * @param templateBody     Template body
+     * @param templateLocation Template URL
+     * @param templateSummary  Calls GetTemplateSummary and returns the resource types
+     * @return Resource types of the template
+     */
+    public List<String> getResourceTypes(
+            final String templateBody,
+            final String templateLocation,
+            final Supplier<List<String>> templateSummary) {
+
+        final String key = Digest.sha256(templateBody, templateLocation);
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - nanoClock.getAsLong() > 0) {
+                hitCount++;
+                return entry.resourceTypes;
+            }
+            entries.remove(key);
+            missCount++;
+        }
+
+        // GetTemplateSummary is called outside the lock, concurrent misses of the same template both call it
+        final List<String> resourceTypes = Collections.unmodifiableList(new ArrayList<>(templateSummary.get()));
+        synchronized (this) {
+            entries.put(key, new Entry(resourceTypes, nanoClock.getAsLong() + ttlNanos));
+        }
+        return resourceTypes;
+    }
+
+    /**
+     * Reports the lookups since the previous report, see {@link OperationMetrics#templateSummaryCache}
+     *
+     * @return Log event with the metrics of the cache, or none if it was not looked up since the previous report
+     */
+    public synchronized List<String> reportMetrics() {
+        if (hitCount == 0 && missCount == 0) {
+            return Collections.emptyList();
+        }
+        final String metrics = OperationMetrics.templateSummaryCache(hitCount, missCount, entries.size(), Instant.now());
+        hitCount = 0;
+        missCount = 0;
+        return Collections.singletonList(metrics);
+    }
+}
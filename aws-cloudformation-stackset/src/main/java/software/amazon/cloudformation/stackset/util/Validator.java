@@ -5,6 +5,9 @@ import software.amazon.awssdk.services.cloudformation.model.GetTemplateSummaryRe
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.proxy.ProxyClient;
 
+import java.util.Collections;
+import java.util.Set;
+
 import static software.amazon.cloudformation.stackset.translator.RequestTranslator.getTemplateSummaryRequest;
 
 /**
@@ -12,6 +15,25 @@ import static software.amazon.cloudformation.stackset.translator.RequestTranslat
  */
 public class Validator {
 
+    /**
+     * Resource types of the templates validated remotely, shared by the requests a warm handler process serves
+     */
+    private static final TemplateSummaryCache TEMPLATE_SUMMARY_CACHE = TemplateSummaryCache.builder().build();
+
+    private final TemplateSummaryCache templateSummaryCache;
+
+    public Validator() {
+        this(TEMPLATE_SUMMARY_CACHE);
+    }
+
+    Validator(final TemplateSummaryCache templateSummaryCache) {
+        this.templateSummaryCache = templateSummaryCache;
+    }
+
+    public static TemplateSummaryCache getTemplateSummaryCache() {
+        return TEMPLATE_SUMMARY_CACHE;
+    }
+
     /**
      * Embedded Stack or StackSet is not allowed
      *
@@ -33,6 +55,9 @@ public class Validator {
      *     <li> If using S3 URI, it must be valid
      *     <li> Template contents must be valid
      * </ul>
+     * Resource types of an inline template body are read locally, GetTemplateSummary is only called for a template
+     * URL or a template body {@link TemplateResourceTypes} cannot read, and its result is cached in
+     * {@link TemplateSummaryCache}. Contents of a template read locally are validated by the StackSet operation.
      *
      * @param proxyClient      {@link ProxyClient <CloudFormationClient>}
      * @param templateBody     {@link software.amazon.cloudformation.stackset.ResourceModel#getTemplateBody}
@@ -44,12 +69,19 @@ public class Validator {
             final String templateBody,
             final String templateLocation) {
 
-        final GetTemplateSummaryResponse response = proxyClient.injectCredentialsAndInvokeV2(
-                getTemplateSummaryRequest(templateBody, templateLocation),
-                proxyClient.client()::getTemplateSummary);
-
-        if (response.hasResourceTypes()) {
-            response.resourceTypes().forEach(Validator::validateResource);
+        if (templateLocation == null) {
+            final Set<String> resourceTypes = TemplateResourceTypes.of(templateBody);
+            if (resourceTypes != null) {
+                resourceTypes.forEach(Validator::validateResource);
+                return;
+            }
         }
+
+        templateSummaryCache.getResourceTypes(templateBody, templateLocation, () -> {
+            final GetTemplateSummaryResponse response = proxyClient.injectCredentialsAndInvokeV2(
+                    getTemplateSummaryRequest(templateBody, templateLocation),
+                    proxyClient.client()::getTemplateSummary);
+            return response.hasResourceTypes() ? response.resourceTypes() : Collections.emptyList();
+        }).forEach(Validator::validateResource);
     }
 }
@@ -15,42 +15,64 @@ import software.amazon.awssdk.services.cloudformation.model.CreateStackInstances
 import software.amazon.awssdk.services.cloudformation.model.CreateStackSetRequest;
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetOperationRequest;
 import software.amazon.awssdk.services.cloudformation.model.GetTemplateSummaryRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationResultsRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationsRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationsResponse;
+import software.amazon.awssdk.services.cloudformation.model.OperationIdAlreadyExistsException;
+import software.amazon.awssdk.services.cloudformation.model.OperationInProgressException;
+import software.amazon.awssdk.services.cloudformation.model.StopStackSetOperationRequest;
+import software.amazon.awssdk.services.cloudformation.model.StopStackSetOperationResponse;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.stackset.util.OperationChunker;
+import software.amazon.cloudformation.stackset.util.StabilizationDelay;
 
 import java.time.Duration;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static software.amazon.cloudformation.proxy.HandlerErrorCode.InternalFailure;
 import static software.amazon.cloudformation.proxy.HandlerErrorCode.InvalidRequest;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_2;
 import static software.amazon.cloudformation.stackset.util.TestUtils.CREATE_STACK_INSTANCES_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.CREATE_STACK_SET_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DELEGATED_ADMIN_SELF_MANAGED_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DELEGATED_ADMIN_SERVICE_MANAGED_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DESIRED_RESOURCE_TAGS;
+import static software.amazon.cloudformation.stackset.util.TestUtils.EU_EAST_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_OPERATION_RESULTS_RESPONSE_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_OPERATION_RESULTS_RESPONSE_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_STACK_SET_OPERATIONS_RESPONSE;
+import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_STACK_SET_OPERATIONS_RUNNING_RESPONSE;
+import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_TOKEN;
 import static software.amazon.cloudformation.stackset.util.TestUtils.LOGICAL_ID;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_FAILED_RESPONSE;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_ID_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_RUNNING_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_STOPPED_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_SUCCEED_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.REQUEST_TOKEN;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_DUPLICATE_INSTANCES_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_INVALID_INSTANCES_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_MODEL;
+import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_NESTED_STACK_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_NO_INSTANCES_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_ONE_INSTANCES_MODEL;
+import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_ONE_INSTANCES_TOLERANT_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SERVICE_MANAGED_MODEL_AS_SELF;
-import static software.amazon.cloudformation.stackset.util.TestUtils.TEMPLATE_SUMMARY_RESPONSE_WITH_NESTED_STACK;
-import static software.amazon.cloudformation.stackset.util.TestUtils.VALID_TEMPLATE_SUMMARY_RESPONSE;
 
 @ExtendWith(MockitoExtension.class)
 public class CreateHandlerTest extends AbstractTestBase {
@@ -82,8 +104,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
                 .thenReturn(CREATE_STACK_SET_RESPONSE);
         when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
@@ -102,9 +122,6 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
-
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).createStackSet(argThat(
                 (CreateStackSetRequest req) -> req.callAs() == CallAs.SELF));
         verify(proxyClient.client()).createStackInstances(argThat(
@@ -123,8 +140,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
                 .thenReturn(CREATE_STACK_SET_RESPONSE);
         when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
@@ -143,7 +158,6 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).createStackSet(argThat(
                 (CreateStackSetRequest req) -> req.callAs() == CallAs.DELEGATED_ADMIN));
         verify(proxyClient.client()).createStackInstances(argThat(
@@ -162,8 +176,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
                 .thenReturn(CREATE_STACK_SET_RESPONSE);
         when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
@@ -182,7 +194,6 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).createStackSet(argThat(
                 (CreateStackSetRequest req) -> req.callAs() == CallAs.DELEGATED_ADMIN));
         verify(proxyClient.client()).createStackInstances(argThat(
@@ -191,7 +202,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 (DescribeStackSetOperationRequest req) -> req.callAs() == CallAs.DELEGATED_ADMIN));
     }
 
-
     @Test
     public void handleRequest_SelfManagedSS_SimpleSuccess() {
 
@@ -202,8 +212,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
                 .thenReturn(CREATE_STACK_SET_RESPONSE);
         when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
@@ -222,7 +230,6 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).createStackSet(any(CreateStackSetRequest.class));
         verify(proxyClient.client(), times(2)).createStackInstances(any(CreateStackInstancesRequest.class));
         verify(proxyClient.client(), times(2)).describeStackSetOperation(any(DescribeStackSetOperationRequest.class));
@@ -238,8 +245,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
                 .thenReturn(CREATE_STACK_SET_RESPONSE);
 
@@ -254,9 +259,7 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).createStackSet(any(CreateStackSetRequest.class));
-
     }
 
     @Test
@@ -268,8 +271,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .desiredResourceTags(DESIRED_RESOURCE_TAGS)
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
                 .thenReturn(CREATE_STACK_SET_RESPONSE);
         when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
@@ -288,12 +289,43 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).createStackSet(any(CreateStackSetRequest.class));
         verify(proxyClient.client()).createStackInstances(any(CreateStackInstancesRequest.class));
         verify(proxyClient.client()).describeStackSetOperation(any(DescribeStackSetOperationRequest.class));
     }
 
+    @Test
+    public void handleRequest_SelfManagedSS_OperationIdAlreadyExists_AttachesToOperation() {
+
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(SELF_MANAGED_ONE_INSTANCES_MODEL)
+                .logicalResourceIdentifier(LOGICAL_ID)
+                .desiredResourceTags(DESIRED_RESOURCE_TAGS)
+                .clientRequestToken(REQUEST_TOKEN)
+                .build();
+        when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
+                .thenReturn(CREATE_STACK_SET_RESPONSE);
+        when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
+                .thenThrow(OperationIdAlreadyExistsException.builder().build());
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_SUCCEED_RESPONSE);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(SELF_MANAGED_ONE_INSTANCES_MODEL);
+
+        final StackInstances stackInstances = SELF_MANAGED_ONE_INSTANCES_MODEL.getStackInstancesGroup().iterator().next();
+        final String operationId = BaseHandlerStd.operationId(REQUEST_TOKEN, BaseHandlerStd.operationKey("CreateStackInstances", stackInstances, 0));
+        assertThat(operationId).isNotEqualTo(BaseHandlerStd.operationId(REQUEST_TOKEN, BaseHandlerStd.operationKey("DeleteStackInstances", stackInstances, 0)));
+        assertThat(BaseHandlerStd.operationId(null, BaseHandlerStd.operationKey("CreateStackInstances", stackInstances, 0))).isNull();
+
+        verify(proxyClient.client()).createStackInstances(argThat((CreateStackInstancesRequest r) -> operationId.equals(r.operationId())));
+        verify(proxyClient.client()).describeStackSetOperation(argThat((DescribeStackSetOperationRequest r) -> operationId.equals(r.operationId())));
+    }
+
     @Test
     public void handleRequest_SelfManagedSS_WithCallAsDelegatedAdmin_Failure() {
         AwsServiceException e = AwsServiceException.builder()
@@ -311,8 +343,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
                 .thenThrow(e);
 
@@ -324,11 +354,275 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
         assertThat(response.getErrorCode()).isEqualTo(InvalidRequest);
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).createStackSet(argThat(
                 (CreateStackSetRequest req) -> req.callAs() == CallAs.DELEGATED_ADMIN));
     }
 
+    @Test
+    public void handleRequest_SelfManagedSS_OperationFailed_RetriesFailedStackInstances() {
+
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(SELF_MANAGED_ONE_INSTANCES_MODEL)
+                .logicalResourceIdentifier(LOGICAL_ID)
+                .desiredResourceTags(DESIRED_RESOURCE_TAGS)
+                .clientRequestToken(REQUEST_TOKEN)
+                .build();
+        when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
+                .thenReturn(CREATE_STACK_SET_RESPONSE);
+        when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
+                .thenReturn(CREATE_STACK_INSTANCES_RESPONSE);
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_FAILED_RESPONSE, OPERATION_SUCCEED_RESPONSE);
+        when(proxyClient.client().listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class)))
+                .thenReturn(LIST_OPERATION_RESULTS_RESPONSE_1, LIST_OPERATION_RESULTS_RESPONSE_2);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(SELF_MANAGED_ONE_INSTANCES_MODEL);
+
+        // Only the stack instance that failed is submitted again
+        verify(proxyClient.client(), times(2)).createStackInstances(any(CreateStackInstancesRequest.class));
+        verify(proxyClient.client()).createStackInstances(argThat((CreateStackInstancesRequest r) ->
+                r.regions().equals(Collections.singletonList(EU_EAST_2))
+                        && r.deploymentTargets().accounts().equals(Collections.singletonList(ACCOUNT_ID_2))));
+        verify(proxyClient.client(), times(2)).listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class));
+        verify(proxyClient.client()).listStackSetOperationResults(argThat((ListStackSetOperationResultsRequest r) ->
+                LIST_TOKEN.equals(r.nextToken())));
+        verify(proxyClient.client(), times(2)).describeStackSetOperation(any(DescribeStackSetOperationRequest.class));
+    }
+
+    @Test
+    public void handleRequest_SelfManagedSS_OperationKeepsFailing_Failure() {
+
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(SELF_MANAGED_ONE_INSTANCES_MODEL)
+                .logicalResourceIdentifier(LOGICAL_ID)
+                .desiredResourceTags(DESIRED_RESOURCE_TAGS)
+                .clientRequestToken(REQUEST_TOKEN)
+                .build();
+        when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
+                .thenReturn(CREATE_STACK_SET_RESPONSE);
+        when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
+                .thenReturn(CREATE_STACK_INSTANCES_RESPONSE);
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_FAILED_RESPONSE);
+        when(proxyClient.client().listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class)))
+                .thenReturn(LIST_OPERATION_RESULTS_RESPONSE_2);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(InternalFailure);
+
+        // Without FailureTolerance, the stack instance that failed is retried once
+        verify(proxyClient.client(), times(2)).createStackInstances(any(CreateStackInstancesRequest.class));
+        verify(proxyClient.client(), times(2)).listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class));
+    }
+
+    @Test
+    public void handleRequest_SelfManagedSS_OperationKeepsFailing_RetriesWithinFailureTolerance() {
+
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(SELF_MANAGED_ONE_INSTANCES_TOLERANT_MODEL)
+                .logicalResourceIdentifier(LOGICAL_ID)
+                .desiredResourceTags(DESIRED_RESOURCE_TAGS)
+                .clientRequestToken(REQUEST_TOKEN)
+                .build();
+        when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
+                .thenReturn(CREATE_STACK_SET_RESPONSE);
+        when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
+                .thenReturn(CREATE_STACK_INSTANCES_RESPONSE);
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_FAILED_RESPONSE);
+        when(proxyClient.client().listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class)))
+                .thenReturn(LIST_OPERATION_RESULTS_RESPONSE_2);
+
+        final CallbackContext callbackContext = new CallbackContext();
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(InternalFailure);
+
+        // A FailureToleranceCount of 2 lets the stack instance that failed fail twice before the third failure is final
+        verify(proxyClient.client(), times(3)).createStackInstances(any(CreateStackInstancesRequest.class));
+        verify(proxyClient.client(), times(3)).listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class));
+        assertThat(callbackContext.getFailureBudgets().values()).containsExactly(Collections.singletonMap(EU_EAST_2, -1));
+    }
+
+    @Test
+    public void handleRequest_SelfManagedSS_OperationRunning_CallsBackAtPredictedCompletion() {
+
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(SELF_MANAGED_ONE_INSTANCES_MODEL)
+                .logicalResourceIdentifier(LOGICAL_ID)
+                .desiredResourceTags(DESIRED_RESOURCE_TAGS)
+                .clientRequestToken(REQUEST_TOKEN)
+                .build();
+        when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
+                .thenReturn(CREATE_STACK_SET_RESPONSE);
+        when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
+                .thenReturn(CREATE_STACK_INSTANCES_RESPONSE);
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_RUNNING_RESPONSE, OPERATION_SUCCEED_RESPONSE);
+        when(proxyClient.client().listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class)))
+                .thenReturn(LIST_OPERATION_RESULTS_RESPONSE_2);
+        // Without recent operations to predict from, the results of the operation are read
+        when(proxyClient.client().listStackSetOperations(any(ListStackSetOperationsRequest.class)))
+                .thenReturn(ListStackSetOperationsResponse.builder().build());
+
+        final CallbackContext callbackContext = new CallbackContext();
+        final ProgressEvent<ResourceModel, CallbackContext> inProgress
+                = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        // The last stack instance already completed, so the operation is due after the shortest delay
+        assertThat(inProgress).isNotNull();
+        assertThat(inProgress.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(inProgress.getCallbackDelaySeconds()).isEqualTo((int) StabilizationDelay.DEFAULT_MIN_DELAY.getSeconds());
+        assertThat(callbackContext.getOperationPollCounts()).containsEntry(OPERATION_ID_1, 1);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(callbackContext.getStabilizedOperations()).hasSize(1);
+        assertThat(callbackContext.getRecentOperationSeconds()).isEmpty();
+        assertThat(callbackContext.getOperationPollCounts()).isEmpty();
+
+        verify(proxyClient.client()).createStackInstances(any(CreateStackInstancesRequest.class));
+        verify(proxyClient.client(), times(2)).describeStackSetOperation(any(DescribeStackSetOperationRequest.class));
+        verify(proxyClient.client()).listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class));
+        verify(proxyClient.client()).listStackSetOperations(any(ListStackSetOperationsRequest.class));
+    }
+
+    @Test
+    public void handleRequest_SelfManagedSS_OperationExceedsFailureTolerance_StopsOperation() {
+
+        handler = new CreateHandler(OperationChunker.builder().build(), true);
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(SELF_MANAGED_ONE_INSTANCES_MODEL)
+                .logicalResourceIdentifier(LOGICAL_ID)
+                .desiredResourceTags(DESIRED_RESOURCE_TAGS)
+                .clientRequestToken(REQUEST_TOKEN)
+                .build();
+        when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
+                .thenReturn(CREATE_STACK_SET_RESPONSE);
+        when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
+                .thenReturn(CREATE_STACK_INSTANCES_RESPONSE);
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_RUNNING_RESPONSE, OPERATION_STOPPED_RESPONSE, OPERATION_RUNNING_RESPONSE, OPERATION_STOPPED_RESPONSE);
+        when(proxyClient.client().listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class)))
+                .thenReturn(LIST_OPERATION_RESULTS_RESPONSE_2);
+        when(proxyClient.client().stopStackSetOperation(any(StopStackSetOperationRequest.class)))
+                .thenReturn(StopStackSetOperationResponse.builder().build());
+
+        // The operation is stopped while running, as its only stack instance already failed
+        final CallbackContext callbackContext = new CallbackContext();
+        final ProgressEvent<ResourceModel, CallbackContext> stopping
+                = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        assertThat(stopping.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(callbackContext.getStoppedOperations()).containsEntry(OPERATION_ID_1, EU_EAST_2);
+
+        // Once stopped, the stack instance that failed is retried, and the retry is stopped in turn
+        final ProgressEvent<ResourceModel, CallbackContext> retryStopping
+                = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        assertThat(retryStopping.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+
+        // The retry used up the failure budget of its region, so the handler fails once the retry stopped
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(InternalFailure);
+        assertThat(response.getMessage()).contains("exceeded its failure tolerance in [" + EU_EAST_2 + "]");
+
+        verify(proxyClient.client(), times(2)).createStackInstances(any(CreateStackInstancesRequest.class));
+        verify(proxyClient.client(), times(4)).describeStackSetOperation(any(DescribeStackSetOperationRequest.class));
+        verify(proxyClient.client(), times(4)).listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class));
+        verify(proxyClient.client(), times(2)).stopStackSetOperation(argThat((StopStackSetOperationRequest r) ->
+                OPERATION_ID_1.equals(r.operationId())));
+    }
+
+    @Test
+    public void handleRequest_SelfManagedSS_OperationExceedsFailureTolerance_NotStoppedByDefault() {
+
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(SELF_MANAGED_ONE_INSTANCES_MODEL)
+                .logicalResourceIdentifier(LOGICAL_ID)
+                .desiredResourceTags(DESIRED_RESOURCE_TAGS)
+                .clientRequestToken(REQUEST_TOKEN)
+                .build();
+        when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
+                .thenReturn(CREATE_STACK_SET_RESPONSE);
+        when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
+                .thenReturn(CREATE_STACK_INSTANCES_RESPONSE);
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_RUNNING_RESPONSE);
+        when(proxyClient.client().listStackSetOperations(any(ListStackSetOperationsRequest.class)))
+                .thenReturn(LIST_STACK_SET_OPERATIONS_RESPONSE);
+
+        final CallbackContext callbackContext = new CallbackContext();
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        // Results are not read, the completion is predicted from the recent operations of the StackSet
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(callbackContext.getRecentOperationSeconds()).containsEntry("CREATE", 300L);
+        verify(proxyClient.client(), never()).listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class));
+        verify(proxyClient.client(), never()).stopStackSetOperation(any(StopStackSetOperationRequest.class));
+    }
+
+    @Test
+    public void handleRequest_SelfManagedSS_OperationInProgress_WaitsForBlockingOperation() {
+
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(SELF_MANAGED_ONE_INSTANCES_MODEL)
+                .logicalResourceIdentifier(LOGICAL_ID)
+                .desiredResourceTags(DESIRED_RESOURCE_TAGS)
+                .clientRequestToken(REQUEST_TOKEN)
+                .build();
+        when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
+                .thenReturn(CREATE_STACK_SET_RESPONSE);
+        when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
+                .thenThrow(OperationInProgressException.builder().build())
+                .thenReturn(CREATE_STACK_INSTANCES_RESPONSE);
+        when(proxyClient.client().listStackSetOperations(any(ListStackSetOperationsRequest.class)))
+                .thenReturn(LIST_STACK_SET_OPERATIONS_RUNNING_RESPONSE);
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_RUNNING_RESPONSE, OPERATION_SUCCEED_RESPONSE);
+        when(proxyClient.client().listStackSetOperationResults(any(ListStackSetOperationResultsRequest.class)))
+                .thenReturn(LIST_OPERATION_RESULTS_RESPONSE_2);
+
+        final CallbackContext callbackContext = new CallbackContext();
+        final ProgressEvent<ResourceModel, CallbackContext> inProgress
+                = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        // Waits for the running operation that blocks the stack instances, rather than for a fixed delay
+        assertThat(inProgress.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(inProgress.getCallbackDelaySeconds()).isEqualTo((int) StabilizationDelay.DEFAULT_MIN_DELAY.getSeconds());
+        assertThat(callbackContext.getBlockingOperationIds()).containsValue(OPERATION_ID_2);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(callbackContext.getBlockingOperationIds()).isEmpty();
+
+        verify(proxyClient.client(), times(2)).createStackInstances(any(CreateStackInstancesRequest.class));
+        verify(proxyClient.client(), times(2)).describeStackSetOperation(argThat((DescribeStackSetOperationRequest r) ->
+                OPERATION_ID_2.equals(r.operationId())));
+    }
+
     @Test
     public void handlerRequest_OperationStoppedError() {
 
@@ -339,8 +633,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().createStackSet(any(CreateStackSetRequest.class)))
                 .thenReturn(CREATE_STACK_SET_RESPONSE);
         when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
@@ -356,7 +648,6 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
         assertThat(response.getErrorCode()).isEqualTo(InternalFailure);
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).createStackSet(any(CreateStackSetRequest.class));
         verify(proxyClient.client()).createStackInstances(any(CreateStackInstancesRequest.class));
         verify(proxyClient.client()).describeStackSetOperation(any(DescribeStackSetOperationRequest.class));
@@ -366,19 +657,16 @@ public class CreateHandlerTest extends AbstractTestBase {
     public void handlerRequest_CfnInvalidRequestException_NestedStack() {
 
         request = ResourceHandlerRequest.<ResourceModel>builder()
-                .desiredResourceState(SELF_MANAGED_DUPLICATE_INSTANCES_MODEL)
+                .desiredResourceState(SELF_MANAGED_NESTED_STACK_MODEL)
                 .desiredResourceTags(DESIRED_RESOURCE_TAGS)
                 .logicalResourceIdentifier(LOGICAL_ID)
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(TEMPLATE_SUMMARY_RESPONSE_WITH_NESTED_STACK);
-
         assertThrows(CfnInvalidRequestException.class,
                 () -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
+        verify(proxyClient.client(), never()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
     }
 
     @Test
@@ -391,13 +679,8 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
-
         assertThrows(CfnInvalidRequestException.class,
                 () -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
-
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
     }
 
     @Test
@@ -409,12 +692,7 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .clientRequestToken(REQUEST_TOKEN)
                 .build();
 
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
-
         assertThrows(CfnInvalidRequestException.class,
                 () -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
-
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
     }
 }
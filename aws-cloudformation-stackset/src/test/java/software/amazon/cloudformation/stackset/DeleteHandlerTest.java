@@ -15,18 +15,24 @@ import software.amazon.awssdk.services.cloudformation.model.DeleteStackInstances
 import software.amazon.awssdk.services.cloudformation.model.DeleteStackSetRequest;
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetOperationRequest;
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationsRequest;
+import software.amazon.awssdk.services.cloudformation.model.OperationInProgressException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.stackset.util.OperationChunker;
 
 import java.time.Duration;
+import java.util.Arrays;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static software.amazon.cloudformation.proxy.HandlerErrorCode.InvalidRequest;
@@ -38,8 +44,12 @@ import static software.amazon.cloudformation.stackset.util.TestUtils.DESCRIBE_DE
 import static software.amazon.cloudformation.stackset.util.TestUtils.DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DESCRIBE_SERVICE_MANAGED_STACK_SET_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DESIRED_RESOURCE_TAGS;
+import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_STACK_SET_OPERATIONS_RUNNING_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.LOGICAL_ID;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_ID_2;
 import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_SUCCEED_RESPONSE;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ORGANIZATION_UNIT_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ORGANIZATION_UNIT_ID_2;
 import static software.amazon.cloudformation.stackset.util.TestUtils.REQUEST_TOKEN;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_NO_INSTANCES_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_ONE_INSTANCES_MODEL;
@@ -99,6 +109,46 @@ public class DeleteHandlerTest extends AbstractTestBase {
         verify(proxyClient.client()).deleteStackSet(any(DeleteStackSetRequest.class));
     }
 
+    @Test
+    public void handleRequest_ChunkedOperations_RetryOnlyFailingChunk() {
+        handler = new DeleteHandler(OperationChunker.builder().maxTargets(1).build(), false);
+
+        when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
+                .thenReturn(DESCRIBE_SERVICE_MANAGED_STACK_SET_RESPONSE);
+        when(proxyClient.client().deleteStackInstances(any(DeleteStackInstancesRequest.class)))
+                .thenReturn(DELETE_STACK_INSTANCES_RESPONSE)
+                .thenThrow(OperationInProgressException.builder().build())
+                .thenReturn(DELETE_STACK_INSTANCES_RESPONSE);
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_SUCCEED_RESPONSE);
+        when(proxyClient.client().listStackSetOperations(any(ListStackSetOperationsRequest.class)))
+                .thenReturn(LIST_STACK_SET_OPERATIONS_RUNNING_RESPONSE);
+        when(proxyClient.client().deleteStackSet(any(DeleteStackSetRequest.class)))
+                .thenReturn(DELETE_STACK_SET_RESPONSE);
+
+        final ProgressEvent<ResourceModel, CallbackContext> inProgress =
+                handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(inProgress.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(inProgress.getCallbackDelaySeconds()).isGreaterThan(0);
+        verify(proxyClient.client(), never()).deleteStackSet(any(DeleteStackSetRequest.class));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, inProgress.getCallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxyClient.client(), times(3)).deleteStackInstances(any(DeleteStackInstancesRequest.class));
+        verify(proxyClient.client()).deleteStackInstances(argThat((DeleteStackInstancesRequest req) ->
+                req.deploymentTargets().organizationalUnitIds().equals(Arrays.asList(ORGANIZATION_UNIT_ID_1))));
+        verify(proxyClient.client(), times(2)).deleteStackInstances(argThat((DeleteStackInstancesRequest req) ->
+                req.deploymentTargets().organizationalUnitIds().equals(Arrays.asList(ORGANIZATION_UNIT_ID_2))));
+        // The blocking operation completed by the time it was described
+        verify(proxyClient.client(), times(3)).describeStackSetOperation(any(DescribeStackSetOperationRequest.class));
+        verify(proxyClient.client()).describeStackSetOperation(argThat((DescribeStackSetOperationRequest req) ->
+                OPERATION_ID_2.equals(req.operationId())));
+        verify(proxyClient.client()).deleteStackSet(any(DeleteStackSetRequest.class));
+    }
+
     @Test
     public void handleRequest_SelfManagedSS_NoInstances_SimpleSuccess() {
         request = ResourceHandlerRequest.<ResourceModel>builder()
@@ -9,17 +9,21 @@ import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetRequest;
 import software.amazon.awssdk.services.cloudformation.model.ListStackInstancesRequest;
 import software.amazon.awssdk.services.cloudformation.model.ListStackSetsRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetsResponse;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.stackset.util.ListPageToken;
 
 import java.time.Duration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,6 +32,8 @@ import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_SELF_M
 import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_STACK_SETS_SELF_MANAGED_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.READ_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_MODEL_FOR_READ;
+import static software.amazon.cloudformation.stackset.util.TestUtils.STACK_SET_ID;
+import static software.amazon.cloudformation.stackset.util.TestUtils.STACK_SET_SUMMARY_SELF_MANAGED;
 
 @ExtendWith(MockitoExtension.class)
 public class ListHandlerTest extends AbstractTestBase {
@@ -78,4 +84,155 @@ public class ListHandlerTest extends AbstractTestBase {
         verify(proxyClient.client()).describeStackSet(any(DescribeStackSetRequest.class));
         verify(proxyClient.client()).listStackInstances(any(ListStackInstancesRequest.class));
     }
+
+    @Test
+    public void handleRequest_PageDeadline_ReturnsContinuationToken() {
+
+        handler = new ListHandler(ListHandler.Mode.FULL, 2, Duration.ofSeconds(5L), Duration.ofMillis(200L));
+        when(proxyClient.client().listStackSets(any(ListStackSetsRequest.class)))
+                .thenReturn(LIST_TWO_STACK_SETS_RESPONSE);
+        when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
+                .thenAnswer(invocation -> {
+                    if (SLOW_STACK_SET_ID.equals(invocation.<DescribeStackSetRequest>getArgument(0).stackSetName())) {
+                        Thread.sleep(Duration.ofSeconds(5L).toMillis());
+                    }
+                    return DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE;
+                });
+        when(proxyClient.client().listStackInstances(any(ListStackInstancesRequest.class)))
+                .thenReturn(LIST_SELF_MANAGED_STACK_SET_RESPONSE);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).containsExactly(SELF_MANAGED_MODEL_FOR_READ);
+        assertThat(response.getNextToken()).isEqualTo(SECOND_STACK_SET_TOKEN);
+    }
+
+    @Test
+    public void handleRequest_ItemTimeout_ReturnsContinuationToken() {
+
+        handler = new ListHandler(ListHandler.Mode.FULL, 2, Duration.ofMillis(200L), Duration.ofSeconds(5L));
+        when(proxyClient.client().listStackSets(any(ListStackSetsRequest.class)))
+                .thenReturn(LIST_TWO_STACK_SETS_RESPONSE);
+        when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
+                .thenAnswer(invocation -> {
+                    if (SLOW_STACK_SET_ID.equals(invocation.<DescribeStackSetRequest>getArgument(0).stackSetName())) {
+                        Thread.sleep(Duration.ofSeconds(2L).toMillis());
+                    }
+                    return DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE;
+                });
+        when(proxyClient.client().listStackInstances(any(ListStackInstancesRequest.class)))
+                .thenReturn(LIST_SELF_MANAGED_STACK_SET_RESPONSE);
+
+        final long start = System.nanoTime();
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2L));
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).containsExactly(SELF_MANAGED_MODEL_FOR_READ);
+        assertThat(response.getNextToken()).isEqualTo(SECOND_STACK_SET_TOKEN);
+    }
+
+    @Test
+    public void handleRequest_FirstItemTimeout_ListsStackSetIdAndMovesOn() {
+
+        request.setNextToken(SECOND_STACK_SET_TOKEN);
+        handler = new ListHandler(ListHandler.Mode.FULL, 2, Duration.ofMillis(200L), Duration.ofSeconds(5L));
+        when(proxyClient.client().listStackSets(any(ListStackSetsRequest.class)))
+                .thenReturn(LIST_TWO_STACK_SETS_RESPONSE.toBuilder().nextToken(NEXT_TOKEN).build());
+        when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(Duration.ofSeconds(2L).toMillis());
+                    return DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE;
+                });
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).containsExactly(
+                ResourceModel.builder().stackSetId(SLOW_STACK_SET_ID).build());
+        assertThat(response.getNextToken()).isEqualTo(NEXT_TOKEN);
+    }
+
+    @Test
+    public void handleRequest_ContinuationToken_ResumesWithinPage() {
+
+        request.setNextToken(SECOND_STACK_SET_TOKEN);
+        when(proxyClient.client().listStackSets(any(ListStackSetsRequest.class)))
+                .thenReturn(LIST_TWO_STACK_SETS_RESPONSE);
+        when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
+                .thenReturn(DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE);
+        when(proxyClient.client().listStackInstances(any(ListStackInstancesRequest.class)))
+                .thenReturn(LIST_SELF_MANAGED_STACK_SET_RESPONSE);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).containsExactly(SELF_MANAGED_MODEL_FOR_READ);
+        assertThat(response.getNextToken()).isNull();
+
+        verify(proxyClient.client()).listStackSets(argThat((ListStackSetsRequest listRequest) -> listRequest.nextToken() == null));
+        verify(proxyClient.client()).describeStackSet(
+                argThat((DescribeStackSetRequest describeRequest) -> SLOW_STACK_SET_ID.equals(describeRequest.stackSetName())));
+    }
+
+    @Test
+    public void handleRequest_IdentifierMode_ReadsSummariesOnly() {
+
+        handler = new ListHandler(ListHandler.Mode.IDENTIFIER, ListHandler.DEFAULT_MAX_CONCURRENCY,
+                ListHandler.DEFAULT_ITEM_TIMEOUT, ListHandler.DEFAULT_PAGE_TIMEOUT);
+        when(proxyClient.client().listStackSets(any(ListStackSetsRequest.class)))
+                .thenReturn(LIST_TWO_STACK_SETS_RESPONSE.toBuilder().nextToken(NEXT_TOKEN).build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).containsExactly(
+                ResourceModel.builder().stackSetId(STACK_SET_ID).build(),
+                ResourceModel.builder().stackSetId(SLOW_STACK_SET_ID).build());
+        assertThat(response.getNextToken()).isEqualTo(NEXT_TOKEN);
+
+        verify(proxyClient.client()).listStackSets(any(ListStackSetsRequest.class));
+        verify(proxyClient.client(), never()).describeStackSet(any(DescribeStackSetRequest.class));
+        verify(proxyClient.client(), never()).listStackInstances(any(ListStackInstancesRequest.class));
+    }
+
+    @Test
+    public void handleRequest_NoSummaries() {
+
+        when(proxyClient.client().listStackSets(any(ListStackSetsRequest.class)))
+                .thenReturn(ListStackSetsResponse.builder().nextToken(NEXT_TOKEN).build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).isEmpty();
+        assertThat(response.getNextToken()).isEqualTo(NEXT_TOKEN);
+
+        verify(proxyClient.client(), never()).describeStackSet(any(DescribeStackSetRequest.class));
+    }
+
+    @Test
+    public void mode_OfSetting() {
+        assertThat(ListHandler.Mode.of("identifier")).isEqualTo(ListHandler.Mode.IDENTIFIER);
+        assertThat(ListHandler.Mode.of("FULL")).isEqualTo(ListHandler.Mode.FULL);
+        assertThat(ListHandler.Mode.of(null)).isEqualTo(ListHandler.Mode.FULL);
+    }
+
+    private static final String NEXT_TOKEN = "next-token";
+
+    private static final String SECOND_STACK_SET_TOKEN = new ListPageToken(null, 1).encode();
+
+    private static final String SLOW_STACK_SET_ID = "StackSet:slow-stack-set-id";
+
+    private static final ListStackSetsResponse LIST_TWO_STACK_SETS_RESPONSE = ListStackSetsResponse.builder()
+            .summaries(STACK_SET_SUMMARY_SELF_MANAGED,
+                    STACK_SET_SUMMARY_SELF_MANAGED.toBuilder().stackSetId(SLOW_STACK_SET_ID).build())
+            .build();
 }
@@ -9,8 +9,11 @@ import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
 import software.amazon.awssdk.services.cloudformation.model.CallAs;
+import software.amazon.awssdk.services.cloudformation.model.DescribeStackInstanceRequest;
+import software.amazon.awssdk.services.cloudformation.model.DescribeStackInstanceResponse;
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetRequest;
 import software.amazon.awssdk.services.cloudformation.model.ListStackInstancesRequest;
+import software.amazon.awssdk.services.cloudformation.model.StackInstance;
 import software.amazon.awssdk.services.cloudformation.model.StackSetNotFoundException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
@@ -21,12 +24,15 @@ import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.time.Duration;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DELEGATED_ADMIN_SERVICE_MANAGED_MODEL_FOR_READ;
@@ -37,8 +43,11 @@ import static software.amazon.cloudformation.stackset.util.TestUtils.DESCRIBE_SE
 import static software.amazon.cloudformation.stackset.util.TestUtils.EMPTY_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_SELF_MANAGED_STACK_SET_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.LIST_SERVICE_MANAGED_STACK_SET_RESPONSE;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1;
 import static software.amazon.cloudformation.stackset.util.TestUtils.READ_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.READ_MODEL_DELEGATED_ADMIN;
+import static software.amazon.cloudformation.stackset.util.TestUtils.SDK_PARAMETER_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_DUPLICATE_INSTANCES_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_MODEL_FOR_READ;
 
 @ExtendWith(MockitoExtension.class)
@@ -88,6 +97,54 @@ public class ReadHandlerTest extends AbstractTestBase {
         verify(proxyClient.client()).listStackInstances(any(ListStackInstancesRequest.class));
     }
 
+    @Test
+    public void handleRequest_SelfManagedSS_ReadingParameterOverrides_ReadsParameterOverrides() {
+        handler = new ReadHandler(true);
+        final ResourceHandlerRequest<ResourceModel> parameterOverridesRequest = request.toBuilder()
+                .desiredResourceState(SELF_MANAGED_DUPLICATE_INSTANCES_MODEL)
+                .build();
+
+        when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
+                .thenReturn(DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE);
+        when(proxyClient.client().listStackInstances(any(ListStackInstancesRequest.class)))
+                .thenReturn(LIST_SELF_MANAGED_STACK_SET_RESPONSE);
+        when(proxyClient.client().describeStackInstance(any(DescribeStackInstanceRequest.class)))
+                .thenReturn(DescribeStackInstanceResponse.builder()
+                        .stackInstance(StackInstance.builder().parameterOverrides(SDK_PARAMETER_1).build())
+                        .build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, parameterOverridesRequest, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getStackInstancesGroup())
+                .hasSameSizeAs(SELF_MANAGED_MODEL_FOR_READ.getStackInstancesGroup())
+                .allMatch(stackInstances -> stackInstances.getParameterOverrides().equals(Collections.singleton(PARAMETER_1)));
+
+        verify(proxyClient.client(), atLeastOnce()).describeStackInstance(any(DescribeStackInstanceRequest.class));
+    }
+
+    @Test
+    public void handleRequest_SelfManagedSS_ModelWithParameterOverrides_NotReadByDefault() {
+        final ResourceHandlerRequest<ResourceModel> parameterOverridesRequest = request.toBuilder()
+                .desiredResourceState(SELF_MANAGED_DUPLICATE_INSTANCES_MODEL)
+                .build();
+
+        when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
+                .thenReturn(DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE);
+        when(proxyClient.client().listStackInstances(any(ListStackInstancesRequest.class)))
+                .thenReturn(LIST_SELF_MANAGED_STACK_SET_RESPONSE);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = new ReadHandler(false).handleRequest(proxy, parameterOverridesRequest, new CallbackContext(),
+                proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(SELF_MANAGED_MODEL_FOR_READ);
+
+        verify(proxyClient.client(), never()).describeStackInstance(any(DescribeStackInstanceRequest.class));
+    }
+
     @Test
     public void handleRequest_PermissionModelIsNull() {
 
@@ -1,8 +1,10 @@
 package software.amazon.cloudformation.stackset;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
@@ -12,44 +14,59 @@ import software.amazon.awssdk.http.SdkHttpResponse;
 import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
 import software.amazon.awssdk.services.cloudformation.model.CallAs;
 import software.amazon.awssdk.services.cloudformation.model.CreateStackInstancesRequest;
+import software.amazon.awssdk.services.cloudformation.model.CreateStackInstancesResponse;
 import software.amazon.awssdk.services.cloudformation.model.CreateStackSetRequest;
 import software.amazon.awssdk.services.cloudformation.model.DeleteStackInstancesRequest;
+import software.amazon.awssdk.services.cloudformation.model.DeleteStackInstancesResponse;
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetOperationRequest;
 import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetRequest;
-import software.amazon.awssdk.services.cloudformation.model.GetTemplateSummaryRequest;
 import software.amazon.awssdk.services.cloudformation.model.UpdateStackInstancesRequest;
+import software.amazon.awssdk.services.cloudformation.model.UpdateStackInstancesResponse;
 import software.amazon.awssdk.services.cloudformation.model.UpdateStackSetRequest;
+import software.amazon.awssdk.services.cloudformation.model.UpdateStackSetResponse;
+import software.amazon.cloudformation.Action;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.resource.Serializer;
+import software.amazon.cloudformation.stackset.util.StackInstancesPlaceHolder;
 
+import java.io.IOException;
 import java.time.Duration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static software.amazon.cloudformation.proxy.HandlerErrorCode.InvalidRequest;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_1;
 import static software.amazon.cloudformation.stackset.util.TestUtils.CREATE_STACK_INSTANCES_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DELEGATED_ADMIN_SELF_MANAGED_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DELEGATED_ADMIN_SERVICE_MANAGED_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DELETE_STACK_INSTANCES_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DESIRED_RESOURCE_TAGS;
+import static software.amazon.cloudformation.stackset.util.TestUtils.MANAGED_EXECUTION_SELF_MANAGED_MODEL;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_ID_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_ID_3;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_ID_4;
 import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_SUCCEED_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.PREVIOUS_RESOURCE_TAGS;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SERVICE_MANAGED_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.SIMPLE_MODEL;
+import static software.amazon.cloudformation.stackset.util.TestUtils.UPDATED_MANAGED_EXECUTION_SELF_MANAGED_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.UPDATED_SELF_MANAGED_MODEL;
 import static software.amazon.cloudformation.stackset.util.TestUtils.UPDATE_STACK_INSTANCES_RESPONSE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.UPDATE_STACK_SET_RESPONSE;
-import static software.amazon.cloudformation.stackset.util.TestUtils.VALID_TEMPLATE_SUMMARY_RESPONSE;
 
 @ExtendWith(MockitoExtension.class)
 public class UpdateHandlerTest extends AbstractTestBase {
@@ -83,8 +100,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
                 .thenReturn(DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE);
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().updateStackSet(any(UpdateStackSetRequest.class)))
                 .thenReturn(UPDATE_STACK_SET_RESPONSE);
         when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
@@ -107,7 +122,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).updateStackSet(any(UpdateStackSetRequest.class));
         verify(proxyClient.client()).createStackInstances(any(CreateStackInstancesRequest.class));
         verify(proxyClient.client()).updateStackInstances(any(UpdateStackInstancesRequest.class));
@@ -115,6 +129,76 @@ public class UpdateHandlerTest extends AbstractTestBase {
         verify(proxyClient.client(), times(4)).describeStackSetOperation(any(DescribeStackSetOperationRequest.class));
     }
 
+    @Test
+    public void analyzeTemplate_Callback_ReusesAnalysisFromCallbackContext() throws IOException {
+
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .previousResourceState(SELF_MANAGED_MODEL)
+                .desiredResourceState(UPDATED_SELF_MANAGED_MODEL)
+                .build();
+
+        final CallbackContext callbackContext = new CallbackContext();
+        final StackInstancesPlaceHolder placeHolder = handler.analyzeTemplate(proxyClient, request, callbackContext, Action.UPDATE);
+
+        // Callbacks receive the context the way the wrapper persists it between invocations
+        final Serializer serializer = new Serializer();
+        final String serializedCallbackContext = serializer.serialize(callbackContext);
+        final CallbackContext callbackContextForCallback = serializer.deserialize(
+                serializedCallbackContext, new TypeReference<CallbackContext>() {});
+        final StackInstancesPlaceHolder placeHolderForCallback =
+                handler.analyzeTemplate(proxyClient, request, callbackContextForCallback, Action.UPDATE);
+
+        assertThat(placeHolderForCallback).isEqualTo(placeHolder);
+        assertThat(placeHolder.getCreateStackInstances()).isNotEmpty();
+        assertThat(placeHolder.getDeleteStackInstances()).isNotEmpty();
+        // Only the fingerprints of the template and of the plan are carried across callbacks
+        assertThat(callbackContextForCallback.getStackInstancesFingerprint()).isNotNull();
+        assertThat(serializedCallbackContext).doesNotContain(ACCOUNT_ID_1);
+    }
+
+    @Test
+    public void handleRequest_ManagedExecution_SubmitsAllOperationsBeforeStabilizing() {
+
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+                .previousResourceState(MANAGED_EXECUTION_SELF_MANAGED_MODEL)
+                .desiredResourceState(UPDATED_MANAGED_EXECUTION_SELF_MANAGED_MODEL)
+                .previousResourceTags(PREVIOUS_RESOURCE_TAGS)
+                .desiredResourceTags(DESIRED_RESOURCE_TAGS)
+                .build();
+
+        when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
+                .thenReturn(DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE);
+        when(proxyClient.client().deleteStackInstances(any(DeleteStackInstancesRequest.class)))
+                .thenReturn(DeleteStackInstancesResponse.builder().operationId(OPERATION_ID_1).build());
+        when(proxyClient.client().updateStackSet(any(UpdateStackSetRequest.class)))
+                .thenReturn(UpdateStackSetResponse.builder().operationId(OPERATION_ID_2).build());
+        when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
+                .thenReturn(CreateStackInstancesResponse.builder().operationId(OPERATION_ID_3).build());
+        when(proxyClient.client().updateStackInstances(any(UpdateStackInstancesRequest.class)))
+                .thenReturn(UpdateStackInstancesResponse.builder().operationId(OPERATION_ID_4).build());
+        when(proxyClient.client().describeStackSetOperation(any(DescribeStackSetOperationRequest.class)))
+                .thenReturn(OPERATION_SUCCEED_RESPONSE);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(UPDATED_MANAGED_EXECUTION_SELF_MANAGED_MODEL);
+
+        // Every operation is submitted in order before any of them is stabilized
+        final InOrder inOrder = inOrder(proxyClient.client());
+        inOrder.verify(proxyClient.client()).deleteStackInstances(any(DeleteStackInstancesRequest.class));
+        inOrder.verify(proxyClient.client()).updateStackSet(any(UpdateStackSetRequest.class));
+        inOrder.verify(proxyClient.client()).createStackInstances(any(CreateStackInstancesRequest.class));
+        inOrder.verify(proxyClient.client()).updateStackInstances(any(UpdateStackInstancesRequest.class));
+        inOrder.verify(proxyClient.client(), times(4)).describeStackSetOperation(any(DescribeStackSetOperationRequest.class));
+        for (final String operationId : new String[]{OPERATION_ID_1, OPERATION_ID_2, OPERATION_ID_3, OPERATION_ID_4}) {
+            verify(proxyClient.client(), atLeastOnce()).describeStackSetOperation(
+                    argThat((DescribeStackSetOperationRequest describeRequest) -> operationId.equals(describeRequest.operationId())));
+        }
+    }
+
     @Test
     public void handleRequest_ServiceManagedSS_WithCallAs_SimpleSuccess() {
 
@@ -127,8 +211,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
                 .thenReturn(DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE);
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().updateStackSet(any(UpdateStackSetRequest.class)))
                 .thenReturn(UPDATE_STACK_SET_RESPONSE);
         when(proxyClient.client().createStackInstances(any(CreateStackInstancesRequest.class)))
@@ -151,7 +233,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).deleteStackInstances(argThat(
                 (DeleteStackInstancesRequest req) -> req.callAs() == CallAs.DELEGATED_ADMIN));
         verify(proxyClient.client()).updateStackSet(argThat(
@@ -183,11 +264,8 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .desiredResourceTags(DESIRED_RESOURCE_TAGS)
                 .build();
 
-
         when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
                 .thenReturn(DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE);
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
         when(proxyClient.client().updateStackSet(any(UpdateStackSetRequest.class)))
                 .thenThrow(e);
 
@@ -199,7 +277,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
         assertThat(response.getErrorCode()).isEqualTo(InvalidRequest);
 
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
         verify(proxyClient.client()).updateStackSet(argThat(
                 (UpdateStackSetRequest req) -> req.callAs() == CallAs.DELEGATED_ADMIN));
     }
@@ -216,8 +293,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         when(proxyClient.client().describeStackSet(any(DescribeStackSetRequest.class)))
                 .thenReturn(DESCRIBE_SELF_MANAGED_STACK_SET_RESPONSE);
-        when(proxyClient.client().getTemplateSummary(any(GetTemplateSummaryRequest.class)))
-                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
 
         final ProgressEvent<ResourceModel, CallbackContext> response
                 = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
@@ -230,7 +305,5 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
-
-        verify(proxyClient.client()).getTemplateSummary(any(GetTemplateSummaryRequest.class));
     }
 }
@@ -0,0 +1,49 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder()
+            .initialRate(2.0)
+            .minRate(1.0)
+            .maxRate(2.5)
+            .increment(1.0)
+            .nanoClock(nanos::get)
+            .build();
+
+    @Test
+    public void testReserve_WaitsOnceBurstIsSpent() {
+        assertThat(limiter.reserve()).isEqualTo(0L);
+        assertThat(limiter.reserve()).isEqualTo(0L);
+        assertThat(limiter.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500L));
+        assertThat(limiter.drainWaitedMillis()).isEqualTo(500L);
+
+        // Tokens refill at the rate of the limiter
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1L));
+        assertThat(limiter.reserve()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testRate_IncreasesAdditivelyAndDecreasesMultiplicatively() {
+        limiter.onSuccess();
+        assertThat(limiter.getRate()).isEqualTo(2.5);
+
+        limiter.onThrottle();
+        assertThat(limiter.getRate()).isEqualTo(1.25);
+        limiter.onThrottle();
+        assertThat(limiter.getRate()).isEqualTo(1.0);
+        assertThat(limiter.drainThrottleCount()).isEqualTo(2L);
+        assertThat(limiter.drainThrottleCount()).isEqualTo(0L);
+
+        // Throttling drops the saved up burst
+        assertThat(limiter.reserve()).isEqualTo(TimeUnit.SECONDS.toNanos(1L));
+    }
+}
@@ -0,0 +1,46 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CallBudgetTest {
+
+    @Test
+    public void testCall_BoundsCallsInFlight() throws Exception {
+        final CallBudget budget = new CallBudget(2);
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        final ExecutorService executor = StackInstancesReader.newExecutor(8, "CallBudgetTest");
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int call = 0; call < 16; call++) {
+                final int value = call;
+                futures.add(executor.submit(() -> budget.call(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(5L);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    inFlight.decrementAndGet();
+                    return value;
+                })));
+            }
+            for (int call = 0; call < futures.size(); call++) {
+                assertThat(futures.get(call).get()).isEqualTo(call);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+}
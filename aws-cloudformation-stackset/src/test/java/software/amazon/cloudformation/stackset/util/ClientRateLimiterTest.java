@@ -0,0 +1,96 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.services.cloudformation.model.CloudFormationException;
+import software.amazon.awssdk.services.cloudformation.model.CreateStackInstancesRequest;
+import software.amazon.awssdk.services.cloudformation.model.DescribeStackSetOperationRequest;
+import software.amazon.awssdk.services.cloudformation.model.GetTemplateSummaryRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackInstancesRequest;
+import software.amazon.cloudformation.stackset.util.ClientRateLimiter.ApiFamily;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClientRateLimiterTest {
+
+    @Test
+    public void testApiFamily() {
+        assertThat(ApiFamily.of(DescribeStackSetOperationRequest.builder().build())).isEqualTo(ApiFamily.DESCRIBE);
+        assertThat(ApiFamily.of(GetTemplateSummaryRequest.builder().build())).isEqualTo(ApiFamily.DESCRIBE);
+        assertThat(ApiFamily.of(ListStackInstancesRequest.builder().build())).isEqualTo(ApiFamily.LIST);
+        assertThat(ApiFamily.of(CreateStackInstancesRequest.builder().build())).isEqualTo(ApiFamily.MUTATING);
+    }
+
+    @Test
+    public void testShouldRetry_ThrottlingLowersRateOfItsFamilyOnly() {
+        final ClientRateLimiter rateLimiter = new ClientRateLimiter();
+        final RetryPolicyContext context = RetryPolicyContext.builder()
+                .originalRequest(ListStackInstancesRequest.builder().build())
+                .exception(CloudFormationException.builder()
+                        .message("Rate exceeded")
+                        .statusCode(400)
+                        .build())
+                .build();
+
+        // Retries are left to the other retry conditions
+        assertThat(rateLimiter.shouldRetry(context)).isFalse();
+        assertThat(rateLimiter.getLimiter(ApiFamily.LIST).getRate()).isLessThan(AdaptiveRateLimiter.DEFAULT_INITIAL_RATE);
+        assertThat(rateLimiter.getLimiter(ApiFamily.MUTATING).getRate()).isEqualTo(AdaptiveRateLimiter.DEFAULT_INITIAL_RATE);
+        assertThat(rateLimiter.reportMetrics()).hasSize(ApiFamily.values().length)
+                .anyMatch(metrics -> metrics.contains("\"ApiFamily\":\"LIST\"") && metrics.contains("\"ThrottleCount\":1"));
+    }
+
+    @Test
+    public void testOnExecutionFailure_CountsLastThrottledAttemptOnce() {
+        final ClientRateLimiter rateLimiter = new ClientRateLimiter();
+        final ExecutionAttributes executionAttributes = new ExecutionAttributes();
+        final CloudFormationException retriedThrottle = throttle();
+        final CloudFormationException lastThrottle = throttle();
+
+        // Attempts left to retry go through the retry condition, the last one only fails the request
+        rateLimiter.shouldRetry(RetryPolicyContext.builder()
+                .originalRequest(ListStackInstancesRequest.builder().build())
+                .exception(retriedThrottle)
+                .executionAttributes(executionAttributes)
+                .build());
+        rateLimiter.onExecutionFailure(failedExecution(lastThrottle), executionAttributes);
+
+        assertThat(rateLimiter.reportMetrics())
+                .anyMatch(metrics -> metrics.contains("\"ApiFamily\":\"LIST\"") && metrics.contains("\"ThrottleCount\":2"));
+    }
+
+    @Test
+    public void testOnExecutionFailure_ThrottleCountedByRetryCondition_NotCountedAgain() {
+        final ClientRateLimiter rateLimiter = new ClientRateLimiter();
+        final ExecutionAttributes executionAttributes = new ExecutionAttributes();
+        final CloudFormationException throttle = throttle();
+
+        rateLimiter.shouldRetry(RetryPolicyContext.builder()
+                .originalRequest(ListStackInstancesRequest.builder().build())
+                .exception(throttle)
+                .executionAttributes(executionAttributes)
+                .build());
+        rateLimiter.onExecutionFailure(failedExecution(throttle), executionAttributes);
+
+        assertThat(rateLimiter.reportMetrics())
+                .anyMatch(metrics -> metrics.contains("\"ApiFamily\":\"LIST\"") && metrics.contains("\"ThrottleCount\":1"));
+    }
+
+    private static CloudFormationException throttle() {
+        return (CloudFormationException) CloudFormationException.builder()
+                .message("Rate exceeded")
+                .statusCode(400)
+                .build();
+    }
+
+    private static Context.FailedExecution failedExecution(final Throwable exception) {
+        final Context.FailedExecution context = mock(Context.FailedExecution.class);
+        when(context.exception()).thenReturn(exception);
+        when(context.request()).thenReturn(ListStackInstancesRequest.builder().build());
+        return context;
+    }
+}
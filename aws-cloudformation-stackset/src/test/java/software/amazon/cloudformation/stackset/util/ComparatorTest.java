@@ -2,11 +2,13 @@ package software.amazon.cloudformation.stackset.util;
 
 import org.assertj.core.util.Sets;
 import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.stackset.ManagedExecution;
 import software.amazon.cloudformation.stackset.ResourceModel;
 
 import java.util.Arrays;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static software.amazon.cloudformation.stackset.util.Comparator.isManagedExecutionActive;
 import static software.amazon.cloudformation.stackset.util.Comparator.isStackSetConfigEquals;
 import static software.amazon.cloudformation.stackset.util.TestUtils.ADMINISTRATION_ROLE_ARN;
 import static software.amazon.cloudformation.stackset.util.TestUtils.AUTO_DEPLOYMENT_DISABLED;
@@ -15,6 +17,7 @@ import static software.amazon.cloudformation.stackset.util.TestUtils.AUTO_DEPLOY
 import static software.amazon.cloudformation.stackset.util.TestUtils.DESCRIPTION;
 import static software.amazon.cloudformation.stackset.util.TestUtils.DESIRED_RESOURCE_TAGS;
 import static software.amazon.cloudformation.stackset.util.TestUtils.EXECUTION_ROLE_NAME;
+import static software.amazon.cloudformation.stackset.util.TestUtils.MANAGED_EXECUTION_ACTIVE;
 import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1;
 import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1_COPY;
 import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1_UPDATED;
@@ -80,6 +83,13 @@ public class ComparatorTest {
         testPreviousModel.setAutoDeployment(AUTO_DEPLOYMENT_ENABLED_COPY);
         assertThat(isStackSetConfigEquals(testPreviousModel, testDesiredModel, DESIRED_RESOURCE_TAGS, DESIRED_RESOURCE_TAGS)).isTrue();
 
+        // Activating ManagedExecution requires a StackSet update
+        testDesiredModel.setManagedExecution(MANAGED_EXECUTION_ACTIVE);
+        assertThat(isStackSetConfigEquals(testPreviousModel, testDesiredModel, DESIRED_RESOURCE_TAGS, DESIRED_RESOURCE_TAGS)).isFalse();
+
+        testPreviousModel.setManagedExecution(MANAGED_EXECUTION_ACTIVE);
+        assertThat(isStackSetConfigEquals(testPreviousModel, testDesiredModel, DESIRED_RESOURCE_TAGS, DESIRED_RESOURCE_TAGS)).isTrue();
+
         testDesiredModel.setTemplateURL(UPDATED_TEMPLATE_URL);
         testPreviousModel.setTemplateURL(TEMPLATE_URL);
 
@@ -116,6 +126,14 @@ public class ComparatorTest {
         testDesiredModel.setTemplateBody(TEMPLATE_BODY);
         assertThat(isStackSetConfigEquals(testPreviousModel, testDesiredModel, DESIRED_RESOURCE_TAGS, DESIRED_RESOURCE_TAGS)).isTrue();
 
+        // Same template in another format
+        testDesiredModel.setTemplateBody("AWSTemplateFormatVersion: '2010-09-09'\n"
+                + "Resources:\n"
+                + "  IntegrationTestWaitHandle:\n"
+                + "    Type: AWS::CloudFormation::WaitConditionHandle\n"
+                + "    Properties: {}\n");
+        assertThat(isStackSetConfigEquals(testPreviousModel, testDesiredModel, DESIRED_RESOURCE_TAGS, DESIRED_RESOURCE_TAGS)).isTrue();
+
     }
 
     @Test
@@ -132,4 +150,17 @@ public class ComparatorTest {
         assertThat(Comparator.equals(Arrays.asList(PARAMETER_1, PARAMETER_2), Arrays.asList(PARAMETER_1))).isFalse();
     }
 
+    @Test
+    public void testIsManagedExecutionActive() {
+        final ResourceModel model = ResourceModel.builder().build();
+        assertThat(isManagedExecutionActive(null)).isFalse();
+        assertThat(isManagedExecutionActive(model)).isFalse();
+
+        model.setManagedExecution(ManagedExecution.builder().active(false).build());
+        assertThat(isManagedExecutionActive(model)).isFalse();
+
+        model.setManagedExecution(MANAGED_EXECUTION_ACTIVE);
+        assertThat(isManagedExecutionActive(model)).isTrue();
+    }
+
 }
@@ -0,0 +1,23 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DigestTest {
+
+    @Test
+    public void testSha256() {
+        assertThat(Digest.sha256("")).hasSize(64).matches("[0-9a-f]+");
+        assertThat(Digest.sha256("template", "url")).isEqualTo(Digest.sha256("template", "url"));
+        assertThat(Digest.sha256("template", "url")).isNotEqualTo(Digest.sha256("url", "template"));
+    }
+
+    @Test
+    public void testSha256_DistinguishesSplitsAndNulls() {
+        assertThat(Digest.sha256("ab", "c")).isNotEqualTo(Digest.sha256("a", "bc"));
+        assertThat(Digest.sha256("abc")).isNotEqualTo(Digest.sha256("ab", "c"));
+        assertThat(Digest.sha256((String) null)).isNotEqualTo(Digest.sha256(""));
+        assertThat(Digest.sha256(null, "")).isNotEqualTo(Digest.sha256("", null));
+    }
+}
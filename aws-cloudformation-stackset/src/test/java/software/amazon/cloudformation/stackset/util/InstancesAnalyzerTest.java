@@ -0,0 +1,270 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.Parameter;
+import software.amazon.cloudformation.stackset.ResourceModel;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1_UPDATED;
+
+public class InstancesAnalyzerTest {
+
+    private static final List<Set<Parameter>> PARAMETER_SETS = Arrays.asList(
+            null,
+            new HashSet<>(Arrays.asList(PARAMETER_1)),
+            new HashSet<>(Arrays.asList(PARAMETER_1_UPDATED)));
+
+    @Test
+    public void testAnalyzeForUpdate_MatchesFullDiff_RandomizedModels() {
+        for (int seed = 0; seed < 100; seed++) {
+            final Random random = new Random(seed);
+            final boolean isSelfManaged = random.nextBoolean();
+            final List<StackInstances> previousGroup = randomStackInstancesGroup(random, isSelfManaged);
+            final List<StackInstances> desiredGroup = drift(random, previousGroup, isSelfManaged);
+
+            final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
+            InstancesAnalyzer.builder()
+                    .previousModel(model(previousGroup, isSelfManaged))
+                    .desiredModel(model(desiredGroup, isSelfManaged))
+                    .build()
+                    .analyzeForUpdate(placeHolder);
+
+            final StackInstanceMatrix previous = flatten(previousGroup, isSelfManaged, new StackInstanceMatrix());
+            final StackInstanceMatrix desired = flatten(desiredGroup, isSelfManaged, previous.newSibling());
+            final StackInstancesPlanner planner = StackInstancesPlanner.builder().build();
+
+            assertThat(new HashSet<>(placeHolder.getCreateStackInstances())).as("seed %d", seed)
+                    .isEqualTo(planner.plan(desired.minus(previous), isSelfManaged));
+            assertThat(new HashSet<>(placeHolder.getDeleteStackInstances())).as("seed %d", seed)
+                    .isEqualTo(planner.plan(previous.minus(desired), isSelfManaged));
+            assertThat(new HashSet<>(placeHolder.getUpdateStackInstances())).as("seed %d", seed)
+                    .isEqualTo(planner.plan(desired.parametersChangedFrom(previous), isSelfManaged));
+
+            final StackInstances scope = placeHolder.getUpdateStackSetScope();
+            if (scope != null) {
+                // Only existing stack instances are in scope, and the ones left out are all updated
+                final Set<String> scopeTargets = targets(scope, isSelfManaged);
+                assertThat(previous.containsAll(scopeTargets, scope.getRegions())).as("seed %d", seed).isTrue();
+                assertThat(desired.containsAll(scopeTargets, scope.getRegions())).as("seed %d", seed).isTrue();
+                final StackInstanceMatrix unchanged = desired.minus(desired.minus(previous))
+                        .minus(desired.parametersChangedFrom(previous));
+                assertThat(scopeTargets).as("seed %d", seed).containsAll(unchanged.targets());
+                assertThat(scope.getRegions()).as("seed %d", seed).containsAll(unchanged.regions());
+            }
+        }
+    }
+
+    @Test
+    public void testAnalyzeForUpdate_ParametersChanged_ScopesUpdateStackSetToUnchangedStackInstances() {
+        final List<String> regions = Arrays.asList("us-east-1", "us-west-1");
+        final StackInstances unchanged = stackInstances(Arrays.asList("000000000001", "000000000002"),
+                regions, null, true);
+        final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
+
+        InstancesAnalyzer.builder()
+                .previousModel(model(Arrays.asList(unchanged, stackInstances(Arrays.asList("000000000003"),
+                        regions, new HashSet<>(Arrays.asList(PARAMETER_1)), true)), true))
+                .desiredModel(model(Arrays.asList(unchanged, stackInstances(Arrays.asList("000000000003"),
+                        regions, new HashSet<>(Arrays.asList(PARAMETER_1_UPDATED)), true)), true))
+                .build()
+                .analyzeForUpdate(placeHolder);
+
+        assertThat(placeHolder.getUpdateStackInstances()).hasSize(1);
+        assertThat(placeHolder.getUpdateStackSetScope().getDeploymentTargets().getAccounts())
+                .containsExactlyInAnyOrder("000000000001", "000000000002");
+        assertThat(placeHolder.getUpdateStackSetScope().getRegions()).containsExactlyInAnyOrderElementsOf(regions);
+    }
+
+    @Test
+    public void testAnalyzeForUpdate_UnchangedStackInstancesNotRectangle_DoesNotScopeUpdateStackSet() {
+        final StackInstances previous = stackInstances(Arrays.asList("000000000001", "000000000002"),
+                Arrays.asList("us-east-1", "us-west-1"), null, true);
+        // [000000000001,us-west-1] and [000000000002,us-east-1] are updated, so the rest spans all stack instances
+        final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
+
+        InstancesAnalyzer.builder()
+                .previousModel(model(Arrays.asList(previous), true))
+                .desiredModel(model(Arrays.asList(
+                        stackInstances(Arrays.asList("000000000001"), Arrays.asList("us-east-1"), null, true),
+                        stackInstances(Arrays.asList("000000000001"), Arrays.asList("us-west-1"),
+                                new HashSet<>(Arrays.asList(PARAMETER_1)), true),
+                        stackInstances(Arrays.asList("000000000002"), Arrays.asList("us-east-1"),
+                                new HashSet<>(Arrays.asList(PARAMETER_1)), true),
+                        stackInstances(Arrays.asList("000000000002"), Arrays.asList("us-west-1"), null, true)), true))
+                .build()
+                .analyzeForUpdate(placeHolder);
+
+        assertThat(placeHolder.getUpdateStackInstances()).isNotEmpty();
+        assertThat(placeHolder.getUpdateStackSetScope()).isNull();
+    }
+
+    @Test
+    public void testAnalyzeForUpdate_UnchangedModel_NoOperations() {
+        final Random random = new Random(0);
+        final List<StackInstances> group = randomStackInstancesGroup(random, true);
+        final StackInstancesPlaceHolder placeHolder = new StackInstancesPlaceHolder();
+
+        InstancesAnalyzer.builder()
+                .previousModel(model(group, true))
+                .desiredModel(model(copy(group, true), true))
+                .build()
+                .analyzeForUpdate(placeHolder);
+
+        assertThat(placeHolder.getCreateStackInstances()).isEmpty();
+        assertThat(placeHolder.getDeleteStackInstances()).isEmpty();
+        assertThat(placeHolder.getUpdateStackInstances()).isEmpty();
+    }
+
+    @Test
+    public void testAnalyzeForUpdate_ResidualDuplicatesUnchangedGroup_Throws() {
+        final StackInstances unchanged = stackInstances(Arrays.asList("000000000001", "000000000002"),
+                Arrays.asList("us-east-1", "us-west-1"), null, true);
+        final StackInstances previous = stackInstances(Arrays.asList("000000000003"),
+                Arrays.asList("us-east-1"), null, true);
+        final StackInstances duplicated = stackInstances(Arrays.asList("000000000003", "000000000002"),
+                Arrays.asList("us-west-1"), null, true);
+
+        assertThatThrownBy(() -> InstancesAnalyzer.builder()
+                .previousModel(model(Arrays.asList(unchanged, previous), true))
+                .desiredModel(model(Arrays.asList(unchanged, duplicated), true))
+                .build()
+                .analyzeForUpdate(new StackInstancesPlaceHolder()))
+                .isInstanceOf(CfnInvalidRequestException.class)
+                .hasMessageContaining("[000000000002,us-west-1] is duplicated");
+    }
+
+    /**
+     * Groups own disjoint slices of targets, so that no stack instance is duplicated
+     */
+    private static List<StackInstances> randomStackInstancesGroup(final Random random, final boolean isSelfManaged) {
+        final List<StackInstances> group = new ArrayList<>();
+        int target = 0;
+        final int groups = 1 + random.nextInt(12);
+        for (int index = 0; index < groups; index++) {
+            final List<String> targets = new ArrayList<>();
+            for (int count = 1 + random.nextInt(5); count > 0; count--) {
+                targets.add(String.format("%012d", target++));
+            }
+            group.add(stackInstances(targets, randomRegions(random),
+                    PARAMETER_SETS.get(random.nextInt(PARAMETER_SETS.size())), isSelfManaged));
+        }
+        return group;
+    }
+
+    /**
+     * Copies the previous groups and changes some of them the way updates do, keeping target slices disjoint
+     */
+    private static List<StackInstances> drift(
+            final Random random, final List<StackInstances> previousGroup, final boolean isSelfManaged) {
+        final List<StackInstances> desiredGroup = new ArrayList<>();
+        int newTarget = 1000;
+        for (final StackInstances stackInstances : copy(previousGroup, isSelfManaged)) {
+            final List<String> targets = new ArrayList<>(targets(stackInstances, isSelfManaged));
+            switch (random.nextInt(8)) {
+                case 0:
+                    // Removes the group
+                    break;
+                case 1:
+                    stackInstances.setRegions(new HashSet<>(randomRegions(random)));
+                    desiredGroup.add(stackInstances);
+                    break;
+                case 2:
+                    stackInstances.setParameterOverrides(PARAMETER_SETS.get(random.nextInt(PARAMETER_SETS.size())));
+                    desiredGroup.add(stackInstances);
+                    break;
+                case 3:
+                    // Splits the targets into two groups with different regions
+                    final int split = random.nextInt(targets.size());
+                    desiredGroup.add(stackInstances(targets.subList(0, split + 1), randomRegions(random),
+                            stackInstances.getParameterOverrides(), isSelfManaged));
+                    if (split + 1 < targets.size()) {
+                        desiredGroup.add(stackInstances(targets.subList(split + 1, targets.size()),
+                                new ArrayList<>(stackInstances.getRegions()),
+                                stackInstances.getParameterOverrides(), isSelfManaged));
+                    }
+                    break;
+                case 4:
+                    targets.add(String.format("%012d", newTarget++));
+                    desiredGroup.add(stackInstances(targets, new ArrayList<>(stackInstances.getRegions()),
+                            stackInstances.getParameterOverrides(), isSelfManaged));
+                    break;
+                default:
+                    desiredGroup.add(stackInstances);
+            }
+        }
+        if (random.nextBoolean()) {
+            desiredGroup.add(stackInstances(Arrays.asList(String.format("%012d", newTarget)),
+                    randomRegions(random), PARAMETER_SETS.get(random.nextInt(PARAMETER_SETS.size())), isSelfManaged));
+        }
+        return desiredGroup;
+    }
+
+    private static List<String> randomRegions(final Random random) {
+        final List<String> regions = new ArrayList<>();
+        for (int region = 0; region < 6; region++) {
+            if (random.nextInt(3) != 0) regions.add("region-" + region);
+        }
+        if (regions.isEmpty()) regions.add("region-0");
+        return regions;
+    }
+
+    private static List<StackInstances> copy(final List<StackInstances> group, final boolean isSelfManaged) {
+        final List<StackInstances> copied = new ArrayList<>();
+        group.forEach(stackInstances -> copied.add(stackInstances(
+                new ArrayList<>(targets(stackInstances, isSelfManaged)), new ArrayList<>(stackInstances.getRegions()),
+                stackInstances.getParameterOverrides() == null ? null
+                        : new HashSet<>(stackInstances.getParameterOverrides()), isSelfManaged)));
+        return copied;
+    }
+
+    private static StackInstances stackInstances(
+            final Collection<String> targets,
+            final Collection<String> regions,
+            final Set<Parameter> parameterOverrides,
+            final boolean isSelfManaged) {
+        final DeploymentTargets deploymentTargets = DeploymentTargets.builder().build();
+        if (isSelfManaged) {
+            deploymentTargets.setAccounts(new HashSet<>(targets));
+        } else {
+            deploymentTargets.setOrganizationalUnitIds(new HashSet<>(targets));
+        }
+        return StackInstances.builder()
+                .deploymentTargets(deploymentTargets)
+                .regions(new HashSet<>(regions))
+                .parameterOverrides(parameterOverrides)
+                .build();
+    }
+
+    private static Set<String> targets(final StackInstances stackInstances, final boolean isSelfManaged) {
+        return isSelfManaged ? stackInstances.getDeploymentTargets().getAccounts()
+                : stackInstances.getDeploymentTargets().getOrganizationalUnitIds();
+    }
+
+    private static ResourceModel model(final List<StackInstances> group, final boolean isSelfManaged) {
+        return ResourceModel.builder()
+                .permissionModel(isSelfManaged ? "SELF_MANAGED" : "SERVICE_MANAGED")
+                .stackInstancesGroup(new HashSet<>(group))
+                .build();
+    }
+
+    private static StackInstanceMatrix flatten(
+            final List<StackInstances> group, final boolean isSelfManaged, final StackInstanceMatrix matrix) {
+        group.forEach(stackInstances -> targets(stackInstances, isSelfManaged).forEach(target -> stackInstances
+                .getRegions().forEach(region -> assertThat(matrix.add(target, region,
+                        stackInstances.getParameterOverrides())).isTrue())));
+        return matrix;
+    }
+}
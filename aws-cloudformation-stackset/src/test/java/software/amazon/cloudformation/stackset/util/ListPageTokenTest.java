@@ -0,0 +1,24 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ListPageTokenTest {
+
+    @Test
+    public void testEncode_RoundTrips() {
+        final ListPageToken pageToken = new ListPageToken("12#page#token==", 3);
+
+        assertThat(ListPageToken.decode(pageToken.encode())).isEqualTo(pageToken);
+        assertThat(ListPageToken.decode(new ListPageToken(null, 1).encode())).isEqualTo(new ListPageToken(null, 1));
+    }
+
+    @Test
+    public void testDecode_ServiceTokens() {
+        assertThat(ListPageToken.decode("12#page-token")).isEqualTo(new ListPageToken("12#page-token", 0));
+        assertThat(ListPageToken.decode(ListPageToken.PREFIX + "not base64!"))
+                .isEqualTo(new ListPageToken(ListPageToken.PREFIX + "not base64!", 0));
+        assertThat(ListPageToken.decode(null)).isEqualTo(new ListPageToken(null, 0));
+    }
+}
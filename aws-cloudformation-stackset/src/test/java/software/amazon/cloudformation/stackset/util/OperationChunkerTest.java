@@ -0,0 +1,73 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.Parameter;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.SELF_MANAGED_STACK_INSTANCES_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.SERVICE_MANAGED_STACK_INSTANCES;
+
+public class OperationChunkerTest {
+
+    @Test
+    public void testChunk_WithinBounds_Unchanged() {
+        final List<StackInstances> chunks = OperationChunker.builder().build()
+                .chunk(Arrays.asList(SELF_MANAGED_STACK_INSTANCES_1, SERVICE_MANAGED_STACK_INSTANCES), true);
+
+        assertThat(chunks).containsExactly(SELF_MANAGED_STACK_INSTANCES_1, SERVICE_MANAGED_STACK_INSTANCES);
+    }
+
+    @Test
+    public void testChunk_SplitsTargetsAndRegions() {
+        final Set<String> accounts = new HashSet<>();
+        for (int account = 0; account < 5; account++) {
+            accounts.add(String.format("%012d", account));
+        }
+        final Set<Parameter> parameterOverrides = new HashSet<>(Arrays.asList(PARAMETER_1));
+        final StackInstances stackInstances = StackInstances.builder()
+                .deploymentTargets(DeploymentTargets.builder().accounts(accounts).build())
+                .regions(new HashSet<>(Arrays.asList("us-east-1", "us-east-2", "us-west-1")))
+                .parameterOverrides(parameterOverrides)
+                .build();
+
+        final List<StackInstances> chunks = OperationChunker.builder().maxTargets(2).maxRegions(2).build()
+                .chunk(Collections.singletonList(stackInstances), true);
+
+        assertThat(chunks).hasSize(6);
+        assertThat(chunks.get(0).getDeploymentTargets().getAccounts())
+                .containsExactlyInAnyOrder("000000000000", "000000000001");
+        assertThat(chunks.get(0).getRegions()).containsExactlyInAnyOrder("us-east-1", "us-east-2");
+        assertThat(chunks.get(1).getRegions()).containsExactly("us-west-1");
+        assertThat(chunks.get(5).getDeploymentTargets().getAccounts()).containsExactly("000000000004");
+
+        final List<List<String>> stackInstancesCovered = new ArrayList<>();
+        for (final StackInstances chunk : chunks) {
+            assertThat(chunk.getParameterOverrides()).isEqualTo(parameterOverrides);
+            chunk.getDeploymentTargets().getAccounts().forEach(account -> chunk.getRegions().forEach(
+                    region -> stackInstancesCovered.add(Arrays.asList(account, region))));
+        }
+        assertThat(stackInstancesCovered).hasSize(15).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void testChunk_ServiceManaged_SplitsOrganizationalUnits() {
+        final List<StackInstances> chunks = OperationChunker.builder().maxTargets(1).build()
+                .chunk(Collections.singletonList(SERVICE_MANAGED_STACK_INSTANCES), false);
+
+        assertThat(chunks).hasSize(2);
+        chunks.forEach(chunk -> {
+            assertThat(chunk.getDeploymentTargets().getOrganizationalUnitIds()).hasSize(1);
+            assertThat(chunk.getRegions()).isEqualTo(SERVICE_MANAGED_STACK_INSTANCES.getRegions());
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cloudformation.model.RegionConcurrencyType;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationPreferences;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OperationEstimatorTest {
+
+    private final OperationEstimator estimator = OperationEstimator.builder().build();
+
+    @Test
+    public void testEstimateRemaining_FromProgress() {
+        // A quarter of the stack instances took 10 minutes, so the rest take 30 more
+        assertThat(estimator.estimateRemaining(Duration.ofMinutes(10L), 400, 100, 10, null))
+                .isEqualTo(Duration.ofMinutes(30L));
+        assertThat(estimator.estimateRemaining(Duration.ofMinutes(10L), 400, 400, 10, null))
+                .isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void testEstimateRemaining_FromRecentOperations() {
+        assertThat(estimator.estimateRemaining(Duration.ofMinutes(10L), 400, 0, 10, Duration.ofMinutes(40L)))
+                .isEqualTo(Duration.ofMinutes(30L));
+        // Operations running longer than usual are due
+        assertThat(estimator.estimateRemaining(Duration.ofMinutes(50L), 400, 0, 10, Duration.ofMinutes(40L)))
+                .isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void testEstimateRemaining_BlendsProgressAndRecentOperations() {
+        // Half way through, progress and recent operations are trusted equally
+        assertThat(estimator.estimateRemaining(Duration.ofMinutes(10L), 400, 200, 10, Duration.ofMinutes(30L)))
+                .isEqualTo(Duration.ofMinutes(15L));
+    }
+
+    @Test
+    public void testEstimateRemaining_FromConcurrency() {
+        // 25 stack instances, 10 at a time, take 3 waves of a minute
+        assertThat(estimator.estimateRemaining(Duration.ZERO, 25, 0, 10, null))
+                .isEqualTo(Duration.ofMinutes(3L));
+        assertThat(estimator.estimateRemaining(Duration.ofMinutes(1L), 0, 0, 0, null))
+                .isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void testConcurrency() {
+        assertThat(OperationEstimator.concurrency(null, 100, 3)).isEqualTo(1);
+        assertThat(OperationEstimator.concurrency(StackSetOperationPreferences.builder()
+                .maxConcurrentCount(10)
+                .build(), 100, 3)).isEqualTo(10);
+        assertThat(OperationEstimator.concurrency(StackSetOperationPreferences.builder()
+                .maxConcurrentCount(10)
+                .build(), 4, 3)).isEqualTo(4);
+        assertThat(OperationEstimator.concurrency(StackSetOperationPreferences.builder()
+                .maxConcurrentPercentage(25)
+                .build(), 10, 3)).isEqualTo(2);
+        assertThat(OperationEstimator.concurrency(StackSetOperationPreferences.builder()
+                .maxConcurrentPercentage(1)
+                .build(), 10, 3)).isEqualTo(1);
+        assertThat(OperationEstimator.concurrency(StackSetOperationPreferences.builder()
+                .maxConcurrentCount(10)
+                .regionConcurrencyType(RegionConcurrencyType.PARALLEL)
+                .build(), 100, 3)).isEqualTo(30);
+    }
+}
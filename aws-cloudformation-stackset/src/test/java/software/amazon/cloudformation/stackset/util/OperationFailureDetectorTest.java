@@ -0,0 +1,118 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationResultsRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationResultsResponse;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationResultStatus;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationResultSummary;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.stackset.OperationPreferences;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.STACK_SET_ID;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_EAST_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_WEST_1;
+
+@ExtendWith(MockitoExtension.class)
+public class OperationFailureDetectorTest {
+
+    @Mock
+    private ProxyClient<CloudFormationClient> proxyClient;
+
+    @Mock
+    private CloudFormationClient client;
+
+    @Test
+    public void testRead_MovesCursorPastCompletedPages() {
+        when(proxyClient.client()).thenReturn(client);
+        when(proxyClient.injectCredentialsAndInvokeV2(any(ListStackSetOperationResultsRequest.class), any())).thenAnswer(invocation -> {
+            final ListStackSetOperationResultsRequest request = invocation.getArgument(0);
+            if (request.nextToken() == null) {
+                return ListStackSetOperationResultsResponse.builder()
+                        .summaries(result(ACCOUNT_ID_1, US_EAST_1, StackSetOperationResultStatus.FAILED),
+                                result(ACCOUNT_ID_2, US_EAST_1, StackSetOperationResultStatus.SUCCEEDED))
+                        .nextToken("page-2")
+                        .build();
+            }
+            return ListStackSetOperationResultsResponse.builder()
+                    .summaries(result(ACCOUNT_ID_1, US_WEST_1, StackSetOperationResultStatus.SUCCEEDED),
+                            result(ACCOUNT_ID_2, US_WEST_1, StackSetOperationResultStatus.RUNNING))
+                    .build();
+        });
+        final OperationFailureDetector detector = OperationFailureDetector.builder()
+                .proxyClient(proxyClient)
+                .operationPreferences(OperationPreferences.builder().failureToleranceCount(1).build())
+                .build();
+        final OperationResultsCursor cursor = new OperationResultsCursor();
+
+        final OperationProgress progress = detector.read(STACK_SET_ID, OPERATION_ID_1, null, cursor);
+
+        assertThat(progress.getTotalInstances()).isEqualTo(4);
+        assertThat(progress.getCompletedInstances()).isEqualTo(3);
+        assertThat(progress.getAccounts()).isEqualTo(2);
+        assertThat(progress.getRegions()).isEqualTo(2);
+        assertThat(progress.getFailedRegion()).isNull();
+        // Only the first page completed, and the last page is read again by the next poll
+        assertThat(cursor.getNextToken()).isEqualTo("page-2");
+        assertThat(cursor.getRegionFailures()).containsOnlyKeys(US_EAST_1);
+
+        // The next poll only reads from the cursor on, and still counts the failures before it
+        cursor.getRegionFailures().put(US_EAST_1, 2);
+        assertThat(detector.read(STACK_SET_ID, OPERATION_ID_1, null, cursor).getFailedRegion()).isEqualTo(US_EAST_1);
+    }
+
+    private static StackSetOperationResultSummary result(
+            final String account, final String region, final StackSetOperationResultStatus status) {
+        return StackSetOperationResultSummary.builder().account(account).region(region).status(status).build();
+    }
+
+    @Test
+    public void testToleratedFailures_DefaultsToNone() {
+        assertThat(OperationFailureDetector.builder().build().toleratedFailures()).isEqualTo(0);
+        assertThat(OperationFailureDetector.builder()
+                .operationPreferences(OperationPreferences.builder().maxConcurrentCount(5).build())
+                .build().toleratedFailures()).isEqualTo(0);
+    }
+
+    @Test
+    public void testToleratedFailures_FromCount() {
+        assertThat(OperationFailureDetector.builder()
+                .operationPreferences(OperationPreferences.builder().failureToleranceCount(3).build())
+                .accountsPerRegion(100)
+                .build().toleratedFailures()).isEqualTo(3);
+    }
+
+    @Test
+    public void testToleratedFailures_FromPercentage() {
+        // Rounded down, as StackSets does
+        assertThat(OperationFailureDetector.builder()
+                .operationPreferences(OperationPreferences.builder().failureTolerancePercentage(25).build())
+                .accountsPerRegion(10)
+                .build().toleratedFailures()).isEqualTo(2);
+        // Unknown without the number of accounts of a region
+        assertThat(OperationFailureDetector.builder()
+                .operationPreferences(OperationPreferences.builder().failureTolerancePercentage(25).build())
+                .build().toleratedFailures()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testToleratedFailures_FromRiskBudget() {
+        assertThat(OperationFailureDetector.builder()
+                .operationPreferences(OperationPreferences.builder().autoTuning(true).build())
+                .accountsPerRegion(30)
+                .build().toleratedFailures()).isEqualTo(3);
+        assertThat(OperationFailureDetector.builder()
+                .operationPreferences(OperationPreferences.builder().autoTuning(true).riskBudgetPercentage(0).build())
+                .accountsPerRegion(30)
+                .build().toleratedFailures()).isEqualTo(0);
+    }
+}
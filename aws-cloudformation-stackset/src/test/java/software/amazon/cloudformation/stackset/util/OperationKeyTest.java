@@ -0,0 +1,100 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cloudformation.model.CreateStackInstancesRequest;
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.Parameter;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static software.amazon.cloudformation.stackset.translator.RequestTranslator.createStackInstancesRequest;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.OPERATION_PREFERENCES;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1_UPDATED;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.STACK_SET_ID;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_EAST_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_EAST_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_WEST_1;
+
+public class OperationKeyTest {
+
+    @Test
+    public void testOf_IgnoresIterationOrder() {
+        final StackInstances stackInstances = stackInstances(
+                Arrays.asList(ACCOUNT_ID_1, ACCOUNT_ID_2), Arrays.asList(US_EAST_1, US_WEST_1, US_EAST_2),
+                new HashSet<>(Arrays.asList(PARAMETER_1, PARAMETER_2)));
+        final StackInstances reordered = stackInstances(
+                Arrays.asList(ACCOUNT_ID_2, ACCOUNT_ID_1), Arrays.asList(US_EAST_2, US_WEST_1, US_EAST_1),
+                new LinkedHashSet<>(Arrays.asList(PARAMETER_2, PARAMETER_1)));
+
+        assertThat(OperationKey.of(reordered)).isEqualTo(OperationKey.of(stackInstances));
+
+        // Requests built from the same content hash the same, so the proxy finds the memoized call graph
+        final CreateStackInstancesRequest request =
+                createStackInstancesRequest(STACK_SET_ID, OPERATION_PREFERENCES, stackInstances, null, null);
+        final CreateStackInstancesRequest reorderedRequest =
+                createStackInstancesRequest(STACK_SET_ID, OPERATION_PREFERENCES, reordered, null, null);
+        assertThat(reorderedRequest).isEqualTo(request);
+        assertThat(reorderedRequest.hashCode()).isEqualTo(request.hashCode());
+    }
+
+    @Test
+    public void testOf_DistinguishesContent() {
+        final StackInstances stackInstances = stackInstances(
+                Arrays.asList(ACCOUNT_ID_1), Arrays.asList(US_EAST_1), Collections.singleton(PARAMETER_1));
+        final String key = OperationKey.of(stackInstances);
+
+        assertThat(OperationKey.of(stackInstances(Arrays.asList(ACCOUNT_ID_2), Arrays.asList(US_EAST_1),
+                Collections.singleton(PARAMETER_1)))).isNotEqualTo(key);
+        assertThat(OperationKey.of(stackInstances(Arrays.asList(ACCOUNT_ID_1), Arrays.asList(US_WEST_1),
+                Collections.singleton(PARAMETER_1)))).isNotEqualTo(key);
+        assertThat(OperationKey.of(stackInstances(Arrays.asList(ACCOUNT_ID_1), Arrays.asList(US_EAST_1),
+                Collections.singleton(PARAMETER_1_UPDATED)))).isNotEqualTo(key);
+
+        final StackInstances serviceManaged = StackInstances.builder()
+                .deploymentTargets(DeploymentTargets.builder()
+                        .organizationalUnitIds(Collections.singleton(ACCOUNT_ID_1))
+                        .build())
+                .regions(Collections.singleton(US_EAST_1))
+                .parameterOverrides(Collections.singleton(PARAMETER_1))
+                .build();
+        assertThat(OperationKey.of(serviceManaged)).isNotEqualTo(key);
+
+        // No parameter overrides and an empty set of them make the same request
+        assertThat(OperationKey.of(stackInstances(Arrays.asList(ACCOUNT_ID_1), Arrays.asList(US_EAST_1), null)))
+                .isEqualTo(OperationKey.of(stackInstances(Arrays.asList(ACCOUNT_ID_1), Arrays.asList(US_EAST_1),
+                        Collections.emptySet())));
+    }
+
+    @Test
+    public void testSorted_IsDeterministic() {
+        final StackInstances first = stackInstances(Arrays.asList(ACCOUNT_ID_1), Arrays.asList(US_EAST_1), null);
+        final StackInstances second = stackInstances(Arrays.asList(ACCOUNT_ID_2), Arrays.asList(US_EAST_1), null);
+        final StackInstances third = stackInstances(Arrays.asList(ACCOUNT_ID_1), Arrays.asList(US_WEST_1), null);
+
+        final List<StackInstances> sorted = OperationKey.sorted(Arrays.asList(first, second, third));
+
+        assertThat(sorted).containsExactlyInAnyOrder(first, second, third);
+        assertThat(OperationKey.sorted(Arrays.asList(third, first, second))).isEqualTo(sorted);
+        assertThat(OperationKey.sorted(Arrays.asList(second, third, first, second))).isEqualTo(sorted);
+    }
+
+    private static StackInstances stackInstances(
+            final List<String> accounts, final List<String> regions, final Set<Parameter> parameterOverrides) {
+        return StackInstances.builder()
+                .deploymentTargets(DeploymentTargets.builder().accounts(new LinkedHashSet<>(accounts)).build())
+                .regions(new LinkedHashSet<>(regions))
+                .parameterOverrides(parameterOverrides)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cloudformation.model.RegionConcurrencyType;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationPreferences;
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.OperationPreferences;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OperationPreferencesTunerTest {
+
+    private static StackInstances accounts(final int accounts, final String... regions) {
+        final HashSet<String> accountIds = new HashSet<>();
+        for (int i = 0; i < accounts; i++) {
+            accountIds.add(String.format("%012d", i));
+        }
+        return StackInstances.builder()
+                .regions(new HashSet<>(Arrays.asList(regions)))
+                .deploymentTargets(DeploymentTargets.builder().accounts(accountIds).build())
+                .build();
+    }
+
+    @Test
+    public void testIsAutoTuning() {
+        assertThat(OperationPreferencesTuner.isAutoTuning(null)).isFalse();
+        assertThat(OperationPreferencesTuner.isAutoTuning(OperationPreferences.builder().build())).isFalse();
+        assertThat(OperationPreferencesTuner.isAutoTuning(OperationPreferences.builder().autoTuning(true).build())).isTrue();
+    }
+
+    @Test
+    public void testTune_KnownAccounts() {
+        final StackSetOperationPreferences preferences = OperationPreferencesTuner.tune(
+                OperationPreferences.builder().autoTuning(true).riskBudgetPercentage(10).build(),
+                Collections.singletonList(accounts(25, "us-east-1", "us-west-1")));
+
+        assertThat(preferences.regionConcurrencyType()).isEqualTo(RegionConcurrencyType.PARALLEL);
+        assertThat(preferences.failureToleranceCount()).isEqualTo(2);
+        assertThat(preferences.maxConcurrentCount()).isEqualTo(3);
+        assertThat(preferences.failureTolerancePercentage()).isNull();
+        assertThat(preferences.maxConcurrentPercentage()).isNull();
+    }
+
+    @Test
+    public void testTune_SmallestRegionBoundsTolerance() {
+        final StackSetOperationPreferences preferences = OperationPreferencesTuner.tune(
+                OperationPreferences.builder().autoTuning(true).riskBudgetPercentage(20).build(),
+                Arrays.asList(accounts(20, "us-east-1"), accounts(5, "us-west-1")));
+
+        assertThat(preferences.failureToleranceCount()).isEqualTo(1);
+        assertThat(preferences.maxConcurrentCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testTune_NoRiskBudget_DeploysRegionsSequentially() {
+        final StackSetOperationPreferences preferences = OperationPreferencesTuner.tune(
+                OperationPreferences.builder().autoTuning(true).riskBudgetPercentage(0).build(),
+                Collections.singletonList(accounts(10, "us-east-1", "us-west-1")));
+
+        assertThat(preferences.regionConcurrencyType()).isEqualTo(RegionConcurrencyType.SEQUENTIAL);
+        assertThat(preferences.failureToleranceCount()).isEqualTo(0);
+        assertThat(preferences.maxConcurrentCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTune_OrganizationalUnits_UsesPercentages() {
+        final StackInstances stackInstances = StackInstances.builder()
+                .regions(new HashSet<>(Arrays.asList("us-east-1", "us-west-1")))
+                .deploymentTargets(DeploymentTargets.builder()
+                        .organizationalUnitIds(Collections.singleton("ou-abcd-12345678")).build())
+                .build();
+        final StackSetOperationPreferences preferences = OperationPreferencesTuner.tune(
+                OperationPreferences.builder().autoTuning(true).build(),
+                Collections.singletonList(stackInstances));
+
+        assertThat(preferences.regionConcurrencyType()).isEqualTo(RegionConcurrencyType.PARALLEL);
+        assertThat(preferences.failureTolerancePercentage()).isEqualTo(OperationPreferencesTuner.DEFAULT_RISK_BUDGET_PERCENTAGE);
+        assertThat(preferences.maxConcurrentPercentage()).isEqualTo(OperationPreferencesTuner.DEFAULT_RISK_BUDGET_PERCENTAGE);
+        assertThat(preferences.failureToleranceCount()).isNull();
+        assertThat(preferences.maxConcurrentCount()).isNull();
+    }
+
+    @Test
+    public void testTune_KeepsSpecifiedPreferences() {
+        final StackSetOperationPreferences preferences = OperationPreferencesTuner.tune(
+                OperationPreferences.builder()
+                        .autoTuning(true)
+                        .regionConcurrencyType("SEQUENTIAL")
+                        .failureToleranceCount(4)
+                        .maxConcurrentPercentage(50)
+                        .regionOrder(Arrays.asList("us-west-1", "us-east-1"))
+                        .build(),
+                Collections.singletonList(accounts(25, "us-east-1", "us-west-1")));
+
+        assertThat(preferences.regionConcurrencyType()).isEqualTo(RegionConcurrencyType.SEQUENTIAL);
+        assertThat(preferences.failureToleranceCount()).isEqualTo(4);
+        assertThat(preferences.maxConcurrentPercentage()).isEqualTo(50);
+        assertThat(preferences.maxConcurrentCount()).isNull();
+        assertThat(preferences.regionOrder()).containsExactly("us-west-1", "us-east-1");
+    }
+}
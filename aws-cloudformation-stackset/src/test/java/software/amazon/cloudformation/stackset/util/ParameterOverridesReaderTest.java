@@ -0,0 +1,183 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.DescribeStackInstanceRequest;
+import software.amazon.awssdk.services.cloudformation.model.DescribeStackInstanceResponse;
+import software.amazon.awssdk.services.cloudformation.model.Parameter;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.EU_EAST_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ORGANIZATION_UNIT_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.SDK_PARAMETER_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.SDK_PARAMETER_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.STACK_SET_ID;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_EAST_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_WEST_1;
+
+@ExtendWith(MockitoExtension.class)
+public class ParameterOverridesReaderTest {
+
+    private static final String ACCOUNT_ID_3 = "333333333333";
+
+    private static final StackInstances SELF_MANAGED_STACK_INSTANCES = StackInstances.builder()
+            .deploymentTargets(DeploymentTargets.builder()
+                    .accounts(new HashSet<>(Arrays.asList(ACCOUNT_ID_1, ACCOUNT_ID_2, ACCOUNT_ID_3)))
+                    .build())
+            .regions(new HashSet<>(Arrays.asList(US_EAST_1, US_WEST_1, EU_EAST_1)))
+            .build();
+
+    @Mock
+    private ProxyClient<CloudFormationClient> proxyClient;
+
+    @Mock
+    private CloudFormationClient client;
+
+    @Mock
+    private Logger logger;
+
+    private final List<DescribeStackInstanceRequest> requests = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testRead_ProbesAgree() {
+        stubDescribeStackInstance((account, region) -> Collections.singletonList(SDK_PARAMETER_1), 0L);
+
+        final StackInstanceMatrix matrix = ParameterOverridesReader.builder().proxyClient(proxyClient).build()
+                .read(STACK_SET_ID, null, true, Collections.singleton(SELF_MANAGED_STACK_INSTANCES), null);
+
+        assertThat(InstancesAnalyzer.aggregateStackInstances(matrix, true)).containsExactly(
+                withParameterOverrides(SELF_MANAGED_STACK_INSTANCES));
+        // Every account in the first region, and the first account in the other regions
+        assertThat(requests).hasSize(5);
+    }
+
+    @Test
+    public void testRead_ProbesDiverge_DescribesDivergedTargetsOnly() {
+        stubDescribeStackInstance((account, region) -> ACCOUNT_ID_2.equals(account)
+                ? Collections.singletonList(SDK_PARAMETER_2) : Collections.emptyList(), 0L);
+        final StackInstanceMatrix matrix = ParameterOverridesReader.builder().proxyClient(proxyClient).build()
+                .read(STACK_SET_ID, null, true, Collections.singleton(SELF_MANAGED_STACK_INSTANCES), null);
+
+        assertThat(matrix.size()).isEqualTo(9);
+        assertThat(matrix.parameterSetCount()).isEqualTo(2);
+        assertThat(matrix.containsAll(Collections.singleton(ACCOUNT_ID_2), Arrays.asList(US_EAST_1, US_WEST_1, EU_EAST_1)))
+                .isTrue();
+        // The probes, then the two stack instances of ACCOUNT_ID_2 outside the first region
+        assertThat(requests).hasSize(7);
+        assertThat(requests.subList(5, 7)).allMatch(request -> ACCOUNT_ID_2.equals(request.stackInstanceAccount()));
+    }
+
+    @Test
+    public void testRead_ProbesDiverge_BeyondBudget_GivesUp() {
+        stubDescribeStackInstance((account, region) -> ACCOUNT_ID_2.equals(account)
+                ? Collections.singletonList(SDK_PARAMETER_2) : Collections.emptyList(), 0L);
+
+        assertThat(ParameterOverridesReader.builder()
+                .proxyClient(proxyClient)
+                .maxDescribed(6)
+                .logger(logger)
+                .build()
+                .read(STACK_SET_ID, null, true, Collections.singleton(SELF_MANAGED_STACK_INSTANCES), null)).isNull();
+        assertThat(requests).hasSize(5);
+        verify(logger).log(contains("differ across 3 stack instances"));
+    }
+
+    @Test
+    public void testRead_ProbesBeyondBudget_GivesUpWithoutDescribing() {
+        assertThat(ParameterOverridesReader.builder()
+                .proxyClient(proxyClient)
+                .maxDescribed(4)
+                .logger(logger)
+                .build()
+                .read(STACK_SET_ID, null, true, Collections.singleton(SELF_MANAGED_STACK_INSTANCES), null)).isNull();
+        verify(logger).log(contains("take 5 DescribeStackInstance calls to probe"));
+    }
+
+    @Test
+    public void testRead_ServiceManaged_DescribesAccountOfOrganizationalUnit() {
+        stubDescribeStackInstance((account, region) -> Collections.singletonList(SDK_PARAMETER_1), 0L);
+        final StackInstances stackInstances = StackInstances.builder()
+                .deploymentTargets(DeploymentTargets.builder()
+                        .organizationalUnitIds(Collections.singleton(ORGANIZATION_UNIT_ID_1))
+                        .build())
+                .regions(Collections.singleton(US_EAST_1))
+                .build();
+        final Map<StackInstance, String> accounts = new HashMap<>();
+        accounts.put(StackInstance.builder().deploymentTarget(ORGANIZATION_UNIT_ID_1).region(US_EAST_1).build(),
+                ACCOUNT_ID_2);
+
+        final StackInstanceMatrix matrix = ParameterOverridesReader.builder().proxyClient(proxyClient).build()
+                .read(STACK_SET_ID, null, false, Collections.singleton(stackInstances), accounts);
+
+        assertThat(InstancesAnalyzer.aggregateStackInstances(matrix, false)).containsExactly(
+                withParameterOverrides(stackInstances));
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).stackInstanceAccount()).isEqualTo(ACCOUNT_ID_2);
+    }
+
+    @Test
+    public void testRead_TimeBudgetExceeded() {
+        stubDescribeStackInstance((account, region) -> Collections.singletonList(SDK_PARAMETER_1), 1000L);
+
+        assertThat(ParameterOverridesReader.builder()
+                .proxyClient(proxyClient)
+                .timeBudget(Duration.ofMillis(200L))
+                .logger(logger)
+                .build()
+                .read(STACK_SET_ID, null, true, Collections.singleton(SELF_MANAGED_STACK_INSTANCES), null)).isNull();
+        verify(logger).log(contains("could not be read within"));
+    }
+
+    private static StackInstances withParameterOverrides(final StackInstances stackInstances) {
+        return StackInstances.builder()
+                .deploymentTargets(stackInstances.getDeploymentTargets())
+                .regions(stackInstances.getRegions())
+                .parameterOverrides(Collections.singleton(PARAMETER_1))
+                .build();
+    }
+
+    private void stubDescribeStackInstance(
+            final BiFunction<String, String, List<Parameter>> parameterOverrides,
+            final long delayMillis) {
+
+        when(proxyClient.client()).thenReturn(client);
+        when(proxyClient.injectCredentialsAndInvokeV2(any(DescribeStackInstanceRequest.class), any())).thenAnswer(invocation -> {
+            final DescribeStackInstanceRequest request = invocation.getArgument(0);
+            requests.add(request);
+            TimeUnit.MILLISECONDS.sleep(delayMillis);
+            return DescribeStackInstanceResponse.builder()
+                    .stackInstance(software.amazon.awssdk.services.cloudformation.model.StackInstance.builder()
+                            .account(request.stackInstanceAccount())
+                            .region(request.stackInstanceRegion())
+                            .parameterOverrides(parameterOverrides.apply(
+                                    request.stackInstanceAccount(), request.stackInstanceRegion()))
+                            .build())
+                    .build();
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.delay.Constant;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StabilizationDelayTest {
+
+    private static final Duration FALLBACK = Duration.ofSeconds(2L);
+
+    private final StabilizationDelay delay = StabilizationDelay.builder()
+            .fallback(Constant.of().delay(FALLBACK).timeout(Duration.ofHours(1L)).build())
+            .build();
+
+    @Test
+    public void testNextDelay_FollowsPrediction() {
+        final OperationPrediction prediction = new OperationPrediction();
+        assertThat(delay.nextDelay(prediction, 1)).isEqualTo(FALLBACK);
+
+        prediction.predict(Instant.now(), Duration.ofMinutes(3L));
+        assertThat(delay.nextDelay(prediction, 1)).isEqualTo(Duration.ofMinutes(3L));
+
+        // Operations polled together wait for the last one
+        prediction.predict(Instant.now(), Duration.ofMinutes(1L));
+        assertThat(delay.nextDelay(prediction, 2)).isEqualTo(Duration.ofMinutes(3L));
+
+        assertThat(delay.nextDelay(null, 3)).isEqualTo(FALLBACK);
+    }
+
+    @Test
+    public void testNextDelay_WithinBounds() {
+        final OperationPrediction due = new OperationPrediction();
+        due.predict(Instant.now(), Duration.ZERO);
+        assertThat(delay.nextDelay(due, 1)).isEqualTo(StabilizationDelay.DEFAULT_MIN_DELAY);
+
+        final OperationPrediction distant = new OperationPrediction();
+        distant.predict(Instant.now(), Duration.ofHours(2L));
+        assertThat(delay.nextDelay(distant, 1)).isEqualTo(StabilizationDelay.DEFAULT_MAX_DELAY);
+    }
+
+    @Test
+    public void testNextDelay_TimesOut() {
+        final OperationPrediction prediction = new OperationPrediction();
+        prediction.predict(Instant.now().minus(Duration.ofHours(25L)), Duration.ofMinutes(3L));
+        assertThat(delay.nextDelay(prediction, 1)).isEqualTo(Duration.ZERO);
+    }
+}
@@ -0,0 +1,136 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.stackset.Parameter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1_COPY;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1_UPDATED;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_EAST_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_WEST_1;
+
+public class StackInstanceMatrixTest {
+
+    private static final List<Set<Parameter>> PARAMETER_SETS = Arrays.asList(
+            null,
+            new HashSet<>(),
+            new HashSet<>(Arrays.asList(PARAMETER_1)),
+            new HashSet<>(Arrays.asList(PARAMETER_1_UPDATED)));
+
+    @Test
+    public void testAdd_RejectsDuplicatedStackInstance() {
+        final StackInstanceMatrix matrix = new StackInstanceMatrix();
+
+        assertThat(matrix.isEmpty()).isTrue();
+        assertThat(matrix.add(ACCOUNT_ID_1, US_EAST_1, null)).isTrue();
+        assertThat(matrix.add(ACCOUNT_ID_1, US_WEST_1, null)).isTrue();
+        assertThat(matrix.add(ACCOUNT_ID_1, US_EAST_1, new HashSet<>(Arrays.asList(PARAMETER_1)))).isFalse();
+        assertThat(matrix.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testParametersChangedFrom_ComparesParameterValues() {
+        final StackInstanceMatrix previous = new StackInstanceMatrix();
+        previous.add(ACCOUNT_ID_1, US_EAST_1, new HashSet<>(Arrays.asList(PARAMETER_1)));
+        previous.add(ACCOUNT_ID_1, US_WEST_1, new HashSet<>(Arrays.asList(PARAMETER_1)));
+
+        final StackInstanceMatrix desired = previous.newSibling();
+        desired.add(ACCOUNT_ID_1, US_EAST_1, new HashSet<>(Arrays.asList(PARAMETER_1_COPY)));
+        desired.add(ACCOUNT_ID_1, US_WEST_1, new HashSet<>(Arrays.asList(PARAMETER_1_UPDATED)));
+
+        assertThat(desired.minus(previous).isEmpty()).isTrue();
+        assertThat(previous.minus(desired).isEmpty()).isTrue();
+        assertThat(toTriples(desired.parametersChangedFrom(previous))).containsExactly(
+                Arrays.asList(ACCOUNT_ID_1, US_WEST_1, new HashSet<>(Arrays.asList(PARAMETER_1_UPDATED))));
+    }
+
+    @Test
+    public void testMinus_RequiresSharedDictionaries() {
+        assertThatThrownBy(() -> new StackInstanceMatrix().minus(new StackInstanceMatrix()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testDifferences_MatchFlatSetDifferences_RandomizedModels() {
+        for (int seed = 0; seed < 50; seed++) {
+            final Random random = new Random(seed);
+            final Set<StackInstance> previousSet = randomStackInstances(random);
+            final Set<StackInstance> desiredSet = randomStackInstances(random);
+
+            final StackInstanceMatrix previous = new StackInstanceMatrix();
+            previousSet.forEach(s -> previous.add(s.getDeploymentTarget(), s.getRegion(), s.getParameters()));
+            final StackInstanceMatrix desired = previous.newSibling();
+            desiredSet.forEach(s -> desired.add(s.getDeploymentTarget(), s.getRegion(), s.getParameters()));
+
+            final Set<StackInstance> added = new HashSet<>(desiredSet);
+            added.removeAll(previousSet);
+            final Set<StackInstance> deleted = new HashSet<>(previousSet);
+            deleted.removeAll(desiredSet);
+            final Map<StackInstance, StackInstance> previousMap = new HashMap<>();
+            previousSet.forEach(s -> previousMap.put(s, s));
+            final Set<StackInstance> updated = new HashSet<>();
+            desiredSet.stream()
+                    .filter(s -> previousMap.containsKey(s)
+                            && !Comparator.equals(previousMap.get(s).getParameters(), s.getParameters()))
+                    .forEach(updated::add);
+
+            assertThat(desired.size()).isEqualTo(desiredSet.size());
+            assertThat(toTriples(desired.minus(previous))).as("seed %d", seed)
+                    .containsExactlyInAnyOrderElementsOf(toTriples(added));
+            assertThat(toTriples(previous.minus(desired))).as("seed %d", seed)
+                    .containsExactlyInAnyOrderElementsOf(toTriples(deleted));
+            assertThat(toTriples(desired.parametersChangedFrom(previous))).as("seed %d", seed)
+                    .containsExactlyInAnyOrderElementsOf(toTriples(updated));
+        }
+    }
+
+    private static Set<StackInstance> randomStackInstances(final Random random) {
+        final Set<StackInstance> stackInstances = new HashSet<>();
+        for (int target = 0; target < 30; target++) {
+            for (int region = 0; region < 70; region++) {
+                if (random.nextInt(3) == 0) {
+                    stackInstances.add(StackInstance.builder()
+                            .deploymentTarget(String.format("%012d", target))
+                            .region("region-" + region)
+                            .parameters(PARAMETER_SETS.get(random.nextInt(PARAMETER_SETS.size())))
+                            .build());
+                }
+            }
+        }
+        return stackInstances;
+    }
+
+    private static List<List<Object>> toTriples(final Set<StackInstance> stackInstances) {
+        final List<List<Object>> triples = new ArrayList<>();
+        stackInstances.forEach(s -> triples.add(Arrays.asList(s.getDeploymentTarget(), s.getRegion(), s.getParameters())));
+        return triples;
+    }
+
+    private static List<List<Object>> toTriples(final StackInstanceMatrix matrix) {
+        final List<List<Object>> triples = new ArrayList<>();
+        for (int parameterSet = 0; parameterSet < matrix.parameterSetCount(); parameterSet++) {
+            final List<BitSet> rows = matrix.layerRows(parameterSet);
+            for (int target = 0; target < rows.size(); target++) {
+                final int targetIndex = target;
+                final int parameterSetIndex = parameterSet;
+                rows.get(target).stream().forEach(region -> triples.add(Arrays.asList(
+                        matrix.target(targetIndex), matrix.region(region), matrix.parameterSet(parameterSetIndex))));
+            }
+        }
+        assertThat(triples).hasSize(matrix.size());
+        return triples;
+    }
+}
@@ -0,0 +1,210 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.stackset.Parameter;
+import software.amazon.cloudformation.stackset.StackInstances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.PARAMETER_2;
+
+public class StackInstancesPlannerTest {
+
+    private static final Set<Parameter> PARAMETER_SET_1 = new HashSet<>(Arrays.asList(PARAMETER_1));
+    private static final Set<Parameter> PARAMETER_SET_2 = new HashSet<>(Arrays.asList(PARAMETER_1, PARAMETER_2));
+
+    @Test
+    public void testPlan_CoversExactly_RandomizedModels() {
+        final List<Set<Parameter>> parameterSets = Arrays.asList(null, PARAMETER_SET_1, PARAMETER_SET_2);
+
+        for (int seed = 0; seed < 50; seed++) {
+            final Random random = new Random(seed);
+            final Set<StackInstance> flatStackInstances = new HashSet<>();
+            final int targets = 1 + random.nextInt(40);
+            final int regions = 1 + random.nextInt(12);
+            for (int target = 0; target < targets; target++) {
+                final Set<Parameter> parameterSet = parameterSets.get(random.nextInt(parameterSets.size()));
+                for (int region = 0; region < regions; region++) {
+                    if (random.nextInt(4) != 0) {
+                        flatStackInstances.add(StackInstance.builder()
+                                .deploymentTarget(String.format("%012d", target))
+                                .region("region-" + region)
+                                .parameters(parameterSet)
+                                .build());
+                    }
+                }
+            }
+
+            final boolean isSelfManaged = random.nextBoolean();
+            final Set<StackInstances> planned = StackInstancesPlanner.builder().build()
+                    .plan(flatStackInstances, isSelfManaged);
+            final int before = countGroupedByRows(flatStackInstances);
+
+            assertThat(flatten(planned, isSelfManaged)).as("seed %d", seed)
+                    .containsExactlyInAnyOrderElementsOf(triples(flatStackInstances));
+            assertThat(planned.size()).as("seed %d: %d operations before, %d after", seed, before, planned.size())
+                    .isLessThanOrEqualTo(before);
+        }
+    }
+
+    @Test
+    public void testPlan_SharedRegionsWithDistinctTails_FewerOperations() {
+        final Map<String, List<String>> matrix = new HashMap<>();
+        final List<String> sharedRegions = Arrays.asList("r1", "r2", "r3", "r4", "r5");
+        matrix.put("A", sharedRegions);
+        matrix.put("B", concat(sharedRegions, "r6"));
+        matrix.put("C", concat(sharedRegions, "r7"));
+        matrix.put("D", Arrays.asList("r6", "r7"));
+        final Set<StackInstance> flatStackInstances = toStackInstances(matrix, null);
+
+        final Set<StackInstances> planned = StackInstancesPlanner.builder().build().plan(flatStackInstances, false);
+
+        assertThat(countGroupedByRows(flatStackInstances)).isEqualTo(4);
+        assertThat(planned).hasSize(3);
+        assertThat(flatten(planned, false)).containsExactlyInAnyOrderElementsOf(triples(flatStackInstances));
+        planned.forEach(stackInstances -> assertThat(stackInstances.getDeploymentTargets().getAccounts()).isNull());
+    }
+
+    @Test
+    public void testPlan_ZeroEffort_GroupsByColumnsWhenFewer() {
+        final Map<String, List<String>> matrix = new HashMap<>();
+        matrix.put("A", Arrays.asList("r1", "r2"));
+        matrix.put("B", Arrays.asList("r1", "r2", "r3", "r4"));
+        matrix.put("C", Arrays.asList("r3", "r4"));
+        matrix.put("D", Arrays.asList("r1", "r2", "r3", "r4", "r5", "r6"));
+        final Set<StackInstance> flatStackInstances = toStackInstances(matrix, PARAMETER_SET_1);
+
+        final Set<StackInstances> planned = StackInstancesPlanner.builder().effort(0).build()
+                .plan(flatStackInstances, true);
+
+        assertThat(countGroupedByRows(flatStackInstances)).isEqualTo(4);
+        assertThat(planned).hasSize(3);
+        assertThat(flatten(planned, true)).containsExactlyInAnyOrderElementsOf(triples(flatStackInstances));
+        planned.forEach(stackInstances -> {
+            assertThat(stackInstances.getDeploymentTargets().getOrganizationalUnitIds()).isNull();
+            assertThat(stackInstances.getParameterOverrides()).isEqualTo(PARAMETER_SET_1);
+        });
+    }
+
+    @Test
+    public void testPlan_EffortChargesCandidateGeneration() {
+        final Map<String, List<String>> matrix = new HashMap<>();
+        matrix.put("A", Arrays.asList("r1", "r2", "r3"));
+        matrix.put("B", Arrays.asList("r1"));
+        matrix.put("C", Arrays.asList("r1", "r3", "r4"));
+        matrix.put("D", Arrays.asList("r2", "r3"));
+        final Set<StackInstance> flatStackInstances = toStackInstances(matrix, null);
+
+        // Generating the candidates of the first row alone takes more row operations than this
+        final Set<StackInstances> bounded = StackInstancesPlanner.builder().effort(3).build()
+                .plan(flatStackInstances, true);
+        final Set<StackInstances> searched = StackInstancesPlanner.builder().build().plan(flatStackInstances, true);
+
+        assertThat(bounded).hasSize(4);
+        assertThat(searched).hasSize(3);
+        assertThat(flatten(bounded, true)).containsExactlyInAnyOrderElementsOf(triples(flatStackInstances));
+        assertThat(flatten(searched, true)).containsExactlyInAnyOrderElementsOf(triples(flatStackInstances));
+    }
+
+    @Test
+    public void testPlan_ManyTargets_CoversExactlyWithinEffort() {
+        final Random random = new Random(0);
+        final Set<StackInstance> flatStackInstances = new HashSet<>();
+        for (int target = 0; target < 5000; target++) {
+            for (int region = 0; region < 20; region++) {
+                if (random.nextInt(3) != 0) {
+                    flatStackInstances.add(StackInstance.builder()
+                            .deploymentTarget(String.format("%012d", target))
+                            .region("region-" + region)
+                            .build());
+                }
+            }
+        }
+
+        final Set<StackInstances> planned = StackInstancesPlanner.builder().build().plan(flatStackInstances, true);
+        final List<List<Object>> flattened = flatten(planned, true);
+
+        assertThat(flattened).hasSameSizeAs(flatStackInstances);
+        assertThat(new HashSet<>(flattened)).isEqualTo(new HashSet<>(triples(flatStackInstances)));
+        assertThat(planned.size()).isLessThanOrEqualTo(countGroupedByRows(flatStackInstances));
+    }
+
+    @Test
+    public void testPlan_ParameterSetsAreNeverMerged() {
+        final Map<String, List<String>> matrix = new HashMap<>();
+        matrix.put("A", Arrays.asList("r1", "r2"));
+        final Set<StackInstance> flatStackInstances = new HashSet<>(toStackInstances(matrix, null));
+        matrix.clear();
+        matrix.put("B", Arrays.asList("r1", "r2"));
+        flatStackInstances.addAll(toStackInstances(matrix, PARAMETER_SET_2));
+
+        final Set<StackInstances> planned = StackInstancesPlanner.builder().build().plan(flatStackInstances, true);
+
+        assertThat(planned).hasSize(2);
+        assertThat(flatten(planned, true)).containsExactlyInAnyOrderElementsOf(triples(flatStackInstances));
+    }
+
+    @Test
+    public void testPlan_Empty() {
+        assertThat(StackInstancesPlanner.builder().build().plan(Collections.emptySet(), true)).isEmpty();
+    }
+
+    private static List<String> concat(final List<String> regions, final String region) {
+        final List<String> concatenated = new ArrayList<>(regions);
+        concatenated.add(region);
+        return concatenated;
+    }
+
+    private static Set<StackInstance> toStackInstances(
+            final Map<String, List<String>> matrix, final Set<Parameter> parameterSet) {
+        final Set<StackInstance> flatStackInstances = new HashSet<>();
+        matrix.forEach((target, regions) -> regions.forEach(region -> flatStackInstances.add(
+                StackInstance.builder().deploymentTarget(target).region(region).parameters(parameterSet).build())));
+        return flatStackInstances;
+    }
+
+    /**
+     * Number of operations when only targets with identical regions and parameters are merged
+     */
+    private static int countGroupedByRows(final Set<StackInstance> flatStackInstances) {
+        final Map<List<Object>, Set<String>> regionsByTarget = new HashMap<>();
+        flatStackInstances.forEach(stackInstance -> regionsByTarget
+                .computeIfAbsent(Arrays.asList(stackInstance.getDeploymentTarget(), stackInstance.getParameters()),
+                        key -> new HashSet<>())
+                .add(stackInstance.getRegion()));
+        final Set<List<Object>> groups = new HashSet<>();
+        regionsByTarget.forEach((key, regions) -> groups.add(Arrays.asList(regions, key.get(1))));
+        return groups.size();
+    }
+
+    private static List<List<Object>> flatten(final Set<StackInstances> planned, final boolean isSelfManaged) {
+        final List<List<Object>> flattened = new ArrayList<>();
+        for (final StackInstances stackInstances : planned) {
+            final Set<String> targets = isSelfManaged ? stackInstances.getDeploymentTargets().getAccounts()
+                    : stackInstances.getDeploymentTargets().getOrganizationalUnitIds();
+            for (final String target : targets) {
+                for (final String region : stackInstances.getRegions()) {
+                    flattened.add(Arrays.asList(target, region, stackInstances.getParameterOverrides()));
+                }
+            }
+        }
+        return flattened;
+    }
+
+    private static List<List<Object>> triples(final Set<StackInstance> flatStackInstances) {
+        final List<List<Object>> triples = new ArrayList<>();
+        flatStackInstances.forEach(stackInstance -> triples.add(Arrays.asList(
+                stackInstance.getDeploymentTarget(), stackInstance.getRegion(), stackInstance.getParameters())));
+        return triples;
+    }
+}
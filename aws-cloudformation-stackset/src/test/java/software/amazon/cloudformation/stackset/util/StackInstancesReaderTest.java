@@ -0,0 +1,145 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.ListStackInstancesRequest;
+import software.amazon.awssdk.services.cloudformation.model.ListStackInstancesResponse;
+import software.amazon.awssdk.services.cloudformation.model.StackInstanceSummary;
+import software.amazon.awssdk.services.cloudformation.model.StackSet;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ACCOUNT_ID_2;
+import static software.amazon.cloudformation.stackset.util.TestUtils.ORGANIZATION_UNIT_ID_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.STACK_SET_ID;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_EAST_1;
+import static software.amazon.cloudformation.stackset.util.TestUtils.US_WEST_1;
+
+@ExtendWith(MockitoExtension.class)
+public class StackInstancesReaderTest {
+
+    private static final StackSet STACK_SET = StackSet.builder()
+            .stackSetId(STACK_SET_ID)
+            .stackSetARN("arn:aws:cloudformation:us-east-1:123456789012:stackset/" + STACK_SET_ID)
+            .build();
+
+    @Mock
+    private ProxyClient<CloudFormationClient> proxyClient;
+
+    @Mock
+    private CloudFormationClient client;
+
+    private final List<ListStackInstancesRequest> requests = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testRead_SinglePage() {
+        stubListStackInstances(Collections.singletonList(summary(ACCOUNT_ID_1, "xx-unknown-1")), null);
+
+        final StackInstanceMatrix matrix = StackInstancesReader.builder().proxyClient(proxyClient).build()
+                .read(STACK_SET, true, null);
+
+        assertThat(matrix.size()).isEqualTo(1);
+        assertThat(matrix.containsAll(Collections.singleton(ACCOUNT_ID_1), Collections.singleton("xx-unknown-1"))).isTrue();
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    public void testRead_FollowsTokensToTheLastPage() {
+        stubListStackInstances(Collections.singletonList(summary(ACCOUNT_ID_1, US_EAST_1)), "page-2");
+
+        final StackInstanceMatrix matrix = StackInstancesReader.builder().proxyClient(proxyClient).build()
+                .read(STACK_SET, true, null);
+
+        assertThat(matrix.size()).isEqualTo(2);
+        assertThat(matrix.containsAll(Collections.singleton(ACCOUNT_ID_1), Collections.singleton(US_EAST_1))).isTrue();
+        assertThat(matrix.containsAll(Collections.singleton(ACCOUNT_ID_2), Collections.singleton(US_WEST_1))).isTrue();
+        assertThat(requests).hasSize(2).allMatch(request -> request.stackInstanceRegion() == null);
+        assertThat(requests.get(1).nextToken()).isEqualTo("page-2");
+    }
+
+    @Test
+    public void testRead_RegionOnLaterPage_IsRead() {
+        stubListStackInstances(Collections.singletonList(summary(ACCOUNT_ID_1, US_EAST_1)), "page-2",
+                summary(ACCOUNT_ID_2, "xx-unknown-1"));
+
+        final StackInstanceMatrix matrix = StackInstancesReader.builder().proxyClient(proxyClient).build()
+                .read(STACK_SET, true, null);
+
+        assertThat(matrix.size()).isEqualTo(2);
+        assertThat(matrix.containsAll(Collections.singleton(ACCOUNT_ID_2), Collections.singleton("xx-unknown-1"))).isTrue();
+    }
+
+    @Test
+    public void testRead_ServiceManaged_FoldsAccountsIntoOrganizationalUnits() {
+        stubListStackInstances(Arrays.asList(
+                summary(ACCOUNT_ID_1, US_EAST_1).toBuilder().organizationalUnitId(ORGANIZATION_UNIT_ID_1).build(),
+                summary(ACCOUNT_ID_2, US_EAST_1).toBuilder().organizationalUnitId(ORGANIZATION_UNIT_ID_1).build()),
+                null);
+
+        final StackInstanceMatrix matrix = StackInstancesReader.builder().proxyClient(proxyClient).build()
+                .read(STACK_SET, false, null);
+
+        assertThat(matrix.size()).isEqualTo(1);
+        assertThat(matrix.containsAll(Collections.singleton(ORGANIZATION_UNIT_ID_1), Collections.singleton(US_EAST_1)))
+                .isTrue();
+    }
+
+    @Test
+    public void testRead_ReadTimeout_NeverReturnsPartOfTheStackInstances() {
+        when(proxyClient.client()).thenReturn(client);
+        when(proxyClient.injectCredentialsAndInvokeV2(any(ListStackInstancesRequest.class), any())).thenAnswer(invocation -> {
+            TimeUnit.MILLISECONDS.sleep(20L);
+            return ListStackInstancesResponse.builder().summaries(summary(ACCOUNT_ID_1, US_EAST_1)).nextToken("next").build();
+        });
+
+        final StackInstancesReader reader = StackInstancesReader.builder()
+                .proxyClient(proxyClient)
+                .readTimeout(Duration.ofMillis(50L))
+                .build();
+        assertThrows(CfnGeneralServiceException.class, () -> reader.read(STACK_SET, true, null));
+    }
+
+    /**
+     * Stubs ListStackInstances of {@link #STACK_SET}, whose listing starts with the given page and ends with a page
+     * of [ACCOUNT_ID_2, us-west-1]
+     */
+    private void stubListStackInstances(final List<StackInstanceSummary> firstPage, final String nextToken) {
+        stubListStackInstances(firstPage, nextToken, summary(ACCOUNT_ID_2, US_WEST_1));
+    }
+
+    private void stubListStackInstances(
+            final List<StackInstanceSummary> firstPage,
+            final String nextToken,
+            final StackInstanceSummary lastPage) {
+
+        when(proxyClient.client()).thenReturn(client);
+        when(proxyClient.injectCredentialsAndInvokeV2(any(ListStackInstancesRequest.class), any())).thenAnswer(invocation -> {
+            final ListStackInstancesRequest request = invocation.getArgument(0);
+            requests.add(request);
+            if (request.nextToken() == null) {
+                return ListStackInstancesResponse.builder().summaries(firstPage).nextToken(nextToken).build();
+            }
+            return ListStackInstancesResponse.builder().summaries(lastPage).build();
+        });
+    }
+
+    private static StackInstanceSummary summary(final String account, final String region) {
+        return StackInstanceSummary.builder().account(account).region(region).build();
+    }
+}
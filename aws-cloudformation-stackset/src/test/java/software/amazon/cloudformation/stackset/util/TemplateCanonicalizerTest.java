@@ -0,0 +1,114 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TemplateCanonicalizerTest {
+
+    private static final String JSON_TEMPLATE = "{\n" +
+            "  \"AWSTemplateFormatVersion\": \"2010-09-09\",\n" +
+            "  \"Description\": \"Multi-line\\ndescription\",\n" +
+            "  \"Resources\": {\n" +
+            "    \"Bucket\": {\n" +
+            "      \"Type\": \"AWS::S3::Bucket\",\n" +
+            "      \"Properties\": {\n" +
+            "        \"BucketName\": {\"Fn::Sub\": \"${AWS::StackName}-bucket\"},\n" +
+            "        \"VersioningConfiguration\": {\"Status\": \"Enabled\"},\n" +
+            "        \"Tags\": [{\"Key\": \"Count\", \"Value\": 3}, {\"Key\": \"Enabled\", \"Value\": true}]\n" +
+            "      }\n" +
+            "    },\n" +
+            "    \"Topic\": {\n" +
+            "      \"Type\": \"AWS::SNS::Topic\",\n" +
+            "      \"Condition\": \"IsProduction\",\n" +
+            "      \"Properties\": {\n" +
+            "        \"DisplayName\": {\"Fn::If\": [\"IsProduction\", {\"Ref\": \"AWS::Region\"}, {\"Ref\": \"AWS::NoValue\"}]},\n" +
+            "        \"KmsMasterKeyId\": {\"Fn::GetAtt\": [\"Key\", \"Arn\"]}\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "}";
+
+    private static final String YAML_TEMPLATE = "---\n" +
+            "# Same template written in YAML with short form intrinsic functions\n" +
+            "AWSTemplateFormatVersion: 2010-09-09\n" +
+            "Description: |-\n" +
+            "  Multi-line\n" +
+            "  description\n" +
+            "Resources:\n" +
+            "  Topic:\n" +
+            "    Type: AWS::SNS::Topic\n" +
+            "    Condition: IsProduction   # only in production\n" +
+            "    Properties:\n" +
+            "      KmsMasterKeyId: !GetAtt Key.Arn\n" +
+            "      DisplayName: !If\n" +
+            "        - IsProduction\n" +
+            "        - !Ref AWS::Region\n" +
+            "        - !Ref 'AWS::NoValue'\n" +
+            "  Bucket:\n" +
+            "    Type: 'AWS::S3::Bucket'\n" +
+            "    Properties:\n" +
+            "      BucketName: !Sub \"${AWS::StackName}-bucket\"\n" +
+            "      VersioningConfiguration: { Status: Enabled }\n" +
+            "      Tags:\n" +
+            "      - Key: Count\n" +
+            "        Value: 3\n" +
+            "      - {Key: Enabled,\n" +
+            "         Value: true}\n";
+
+    @Test
+    public void testIsEquivalent_JsonAndYaml() {
+        assertThat(TemplateCanonicalizer.fingerprint(JSON_TEMPLATE)).isNotNull();
+        assertThat(TemplateCanonicalizer.isEquivalent(JSON_TEMPLATE, YAML_TEMPLATE)).isTrue();
+    }
+
+    @Test
+    public void testIsEquivalent_WhitespaceAndKeyOrder() {
+        assertThat(TemplateCanonicalizer.isEquivalent(
+                "{\"Resources\": {\"A\": {\"Type\": \"T\"}}, \"Outputs\": {}}",
+                "{\"Outputs\":{},\n\n  \"Resources\":{\"A\":{\"Type\":\"T\"}}}")).isTrue();
+    }
+
+    @Test
+    public void testIsEquivalent_ValueChanged() {
+        assertThat(TemplateCanonicalizer.isEquivalent(JSON_TEMPLATE,
+                YAML_TEMPLATE.replace("Value: 3", "Value: 4"))).isFalse();
+        // A quoted number is a string, which CloudFormation may not read as the number
+        assertThat(TemplateCanonicalizer.isEquivalent(JSON_TEMPLATE,
+                YAML_TEMPLATE.replace("Value: 3", "Value: '3'"))).isFalse();
+        assertThat(TemplateCanonicalizer.isEquivalent(JSON_TEMPLATE,
+                YAML_TEMPLATE.replace("|-", "|"))).isFalse();
+    }
+
+    @Test
+    public void testCanonicalJson_BlockScalars() {
+        assertThat(TemplateCanonicalizer.canonicalJson("A: |\n  line 1\n\n  line 2\nB: >-\n  folded\n  text\n\n  kept\n"))
+                .isEqualTo("{\"A\":\"line 1\\n\\nline 2\\n\",\"B\":\"folded text\\nkept\"}");
+    }
+
+    @Test
+    public void testCanonicalJson_ShortFormIntrinsicFunctions() {
+        assertThat(TemplateCanonicalizer.canonicalJson(
+                "A: !Join ['', [!Ref Prefix, !Select [0, !GetAZs '']]]\nB: !GetAtt Vpc.Outputs.Id\n"))
+                .isEqualTo("{\"A\":{\"Fn::Join\":[\"\",[{\"Ref\":\"Prefix\"},{\"Fn::Select\":[0,{\"Fn::GetAZs\":\"\"}]}]]},"
+                        + "\"B\":{\"Fn::GetAtt\":[\"Vpc\",\"Outputs.Id\"]}}");
+    }
+
+    @Test
+    public void testCanonicalJson_UnsupportedYaml_HasNoFingerprint() {
+        // Anchors and aliases
+        assertThat(TemplateCanonicalizer.canonicalJson("A: &name x\nB: *name\n")).isNull();
+        // Numbers JSON has no literal for
+        assertThat(TemplateCanonicalizer.canonicalJson("A: .inf\n")).isNull();
+        // Tags other than intrinsic functions
+        assertThat(TemplateCanonicalizer.canonicalJson("A: !!str 1\n")).isNull();
+        // Duplicated keys
+        assertThat(TemplateCanonicalizer.canonicalJson("A: 1\nA: 2\n")).isNull();
+        assertThat(TemplateCanonicalizer.canonicalJson("{\"A\": 1, \"A\": 2}")).isNull();
+        // Not a mapping
+        assertThat(TemplateCanonicalizer.canonicalJson("- A\n")).isNull();
+
+        assertThat(TemplateCanonicalizer.isEquivalent("A: .inf\n", "A: .inf\n")).isTrue();
+        assertThat(TemplateCanonicalizer.isEquivalent("A: .inf\n", "A:  .inf\n")).isFalse();
+    }
+}
@@ -0,0 +1,58 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static software.amazon.cloudformation.stackset.util.TestUtils.NESTED_STACK_TEMPLATE_BODY;
+import static software.amazon.cloudformation.stackset.util.TestUtils.TEMPLATE_BODY;
+
+public class TemplateResourceTypesTest {
+
+    @Test
+    public void testOf_Json() {
+        final String templateBody = "{\"Parameters\":{\"Type\":{\"Type\":\"String\"}},\"Resources\":{"
+                + "\"Queue\":{\"Properties\":{\"Tags\":[{\"Key\":\"Type\",\"Value\":\"AWS::CloudFormation::Stack\"}]},"
+                + "\"Type\":\"AWS::SQS::Queue\"},"
+                + "\"Topic\":{\"Type\":\"AWS::SNS::Topic\",\"DependsOn\":[\"Queue\"]}}}";
+
+        assertThat(TemplateResourceTypes.of(templateBody)).containsExactly("AWS::SQS::Queue", "AWS::SNS::Topic");
+        assertThat(TemplateResourceTypes.of(TEMPLATE_BODY)).containsExactly("AWS::CloudFormation::WaitConditionHandle");
+    }
+
+    @Test
+    public void testOf_Yaml() {
+        assertThat(TemplateResourceTypes.of(NESTED_STACK_TEMPLATE_BODY)).containsExactly("AWS::CloudFormation::Stack");
+    }
+
+    @Test
+    public void testOf_TransformInTextOnly_ReadLocally() {
+        assertThat(TemplateResourceTypes.of("Description: Transform the queue\nResources:\n"
+                + "  Queue:\n    Type: AWS::SQS::Queue\n    Properties:\n      QueueName: Transform\n"))
+                .containsExactly("AWS::SQS::Queue");
+        assertThat(TemplateResourceTypes.of("{\"Parameters\":{\"Transform\":{\"Type\":\"String\"}},"
+                + "\"Resources\":{\"Transform\":{\"Type\":\"AWS::SQS::Queue\"}}}"))
+                .containsExactly("AWS::SQS::Queue");
+    }
+
+    @Test
+    public void testOf_LeftToGetTemplateSummary() {
+        // Macros may add resources
+        assertThat(TemplateResourceTypes.of("Transform: AWS::Serverless-2016-10-31\nResources:\n"
+                + "  Queue:\n    Type: AWS::SQS::Queue\n")).isNull();
+        assertThat(TemplateResourceTypes.of("{\"Resources\":{\"Queue\":{\"Type\":\"AWS::SQS::Queue\","
+                + "\"Properties\":{\"Fn::Transform\":{\"Name\":\"Macro\"}}}},\"Transform\":\"Macro\"}")).isNull();
+        assertThat(TemplateResourceTypes.of("{\"Resources\":{\"Queue\":{\"Type\":\"AWS::SQS::Queue\","
+                + "\"Properties\":{\"Fn::Transform\":{\"Name\":\"Macro\"}}}}}")).isNull();
+        assertThat(TemplateResourceTypes.of("Resources:\n  Queue:\n    Type: AWS::SQS::Queue\n"
+                + "    Properties:\n      Fn::Transform:\n        Name: Macro\n")).isNull();
+        // Resource types must be literal
+        assertThat(TemplateResourceTypes.of("{\"Resources\":{\"Queue\":{\"Type\":{\"Ref\":\"Type\"}}}}")).isNull();
+        assertThat(TemplateResourceTypes.of("{\"Resources\":{\"Queue\":{\"Properties\":{}}}}")).isNull();
+        assertThat(TemplateResourceTypes.of("{\"Resources\":{}}")).isNull();
+        // Duplicate keys and YAML features the reader does not support
+        assertThat(TemplateResourceTypes.of("{\"Resources\":{\"Queue\":{\"Type\":\"AWS::SQS::Queue\","
+                + "\"Type\":\"AWS::CloudFormation::Stack\"}}}")).isNull();
+        assertThat(TemplateResourceTypes.of("Resources:\n  Queue: &queue\n    Type: AWS::SQS::Queue\n")).isNull();
+        assertThat(TemplateResourceTypes.of(null)).isNull();
+    }
+}
@@ -0,0 +1,76 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static software.amazon.cloudformation.stackset.util.TestUtils.TEMPLATE_BODY;
+import static software.amazon.cloudformation.stackset.util.TestUtils.TEMPLATE_URL;
+import static software.amazon.cloudformation.stackset.util.TestUtils.UPDATED_TEMPLATE_BODY;
+
+public class TemplateSummaryCacheTest {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final Supplier<List<String>> templateSummary = () -> {
+        calls.incrementAndGet();
+        return Collections.singletonList("AWS::SQS::Queue");
+    };
+
+    @Test
+    public void testGetResourceTypes_CachedUntilExpired() {
+        final TemplateSummaryCache cache = TemplateSummaryCache.builder()
+                .ttl(Duration.ofMinutes(1L))
+                .nanoClock(nanoClock::get)
+                .build();
+
+        assertThat(cache.getResourceTypes(null, TEMPLATE_URL, templateSummary)).containsExactly("AWS::SQS::Queue");
+        assertThat(cache.getResourceTypes(null, TEMPLATE_URL, templateSummary)).containsExactly("AWS::SQS::Queue");
+        // Body and URL are told apart
+        cache.getResourceTypes(TEMPLATE_URL, null, templateSummary);
+        assertThat(calls.get()).isEqualTo(2);
+
+        nanoClock.addAndGet(TimeUnit.MINUTES.toNanos(1L));
+        cache.getResourceTypes(null, TEMPLATE_URL, templateSummary);
+        assertThat(calls.get()).isEqualTo(3);
+
+        assertThat(cache.reportMetrics()).hasSize(1).allMatch(metrics -> metrics.contains("\"TemplateSummaryCacheHit\":1,\"TemplateSummaryCacheMiss\":3,\"TemplateSummaryCacheSize\":2"));
+        assertThat(cache.reportMetrics()).isEmpty();
+    }
+
+    @Test
+    public void testGetResourceTypes_EvictsLeastRecentlyUsed() {
+        final TemplateSummaryCache cache = TemplateSummaryCache.builder().capacity(2).build();
+
+        cache.getResourceTypes(TEMPLATE_BODY, null, templateSummary);
+        cache.getResourceTypes(UPDATED_TEMPLATE_BODY, null, templateSummary);
+        cache.getResourceTypes(TEMPLATE_BODY, null, templateSummary);
+        cache.getResourceTypes(null, TEMPLATE_URL, templateSummary);
+        assertThat(calls.get()).isEqualTo(3);
+
+        cache.getResourceTypes(TEMPLATE_BODY, null, templateSummary);
+        cache.getResourceTypes(UPDATED_TEMPLATE_BODY, null, templateSummary);
+        assertThat(calls.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testGetResourceTypes_FailureNotCached() {
+        final TemplateSummaryCache cache = TemplateSummaryCache.builder().build();
+
+        assertThrows(IllegalStateException.class, () -> cache.getResourceTypes(TEMPLATE_BODY, null, () -> {
+            throw new IllegalStateException();
+        }));
+        cache.getResourceTypes(TEMPLATE_BODY, null, templateSummary);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+}
@@ -17,8 +17,15 @@ import software.amazon.awssdk.services.cloudformation.model.RegionConcurrencyTyp
 import software.amazon.awssdk.services.cloudformation.model.StackInstance;
 import software.amazon.awssdk.services.cloudformation.model.StackInstanceSummary;
 import software.amazon.awssdk.services.cloudformation.model.StackSet;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationResultsResponse;
+import software.amazon.awssdk.services.cloudformation.model.ListStackSetOperationsResponse;
 import software.amazon.awssdk.services.cloudformation.model.StackSetOperation;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationAction;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationPreferences;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationResultStatus;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationResultSummary;
 import software.amazon.awssdk.services.cloudformation.model.StackSetOperationStatus;
+import software.amazon.awssdk.services.cloudformation.model.StackSetOperationSummary;
 import software.amazon.awssdk.services.cloudformation.model.StackSetStatus;
 import software.amazon.awssdk.services.cloudformation.model.StackSetSummary;
 import software.amazon.awssdk.services.cloudformation.model.Tag;
@@ -26,10 +33,13 @@ import software.amazon.awssdk.services.cloudformation.model.UpdateStackInstances
 import software.amazon.awssdk.services.cloudformation.model.UpdateStackSetResponse;
 import software.amazon.cloudformation.stackset.AutoDeployment;
 import software.amazon.cloudformation.stackset.DeploymentTargets;
+import software.amazon.cloudformation.stackset.ManagedExecution;
 import software.amazon.cloudformation.stackset.OperationPreferences;
 import software.amazon.cloudformation.stackset.ResourceModel;
 import software.amazon.cloudformation.stackset.StackInstances;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -74,15 +84,27 @@ public class TestUtils {
             .append("  }\n")
             .append("}").toString();
 
+    public final static String NESTED_STACK_TEMPLATE_BODY = new StringBuilder()
+            .append("AWSTemplateFormatVersion: 2010-09-09\n")
+            .append("Resources:\n")
+            .append("  NestedStack:\n")
+            .append("    Type: AWS::CloudFormation::Stack\n")
+            .append("    Properties:\n")
+            .append("      TemplateURL: http://s3-us-west-2.amazonaws.com/example/example.json\n").toString();
+
     public final static String STACK_SET_NAME = "StackSet";
     public final static String STACK_SET_ID = "StackSet:stack-set-id";
     public final static String CALL_AS_SELF = "SELF";
     public final static String CALL_AS_DA = "DELEGATED_ADMIN";
 
     public final static String OPERATION_ID_1 = "operation-id-1";
+    public final static String OPERATION_ID_2 = "operation-id-2";
+    public final static String OPERATION_ID_3 = "operation-id-3";
+    public final static String OPERATION_ID_4 = "operation-id-4";
 
     public final static String LOGICAL_ID = "MyResource";
     public final static String REQUEST_TOKEN = "token";
+    public final static String LIST_TOKEN = "next-token";
 
     public final static String SERVICE_MANAGED = "SERVICE_MANAGED";
     public final static String SELF_MANAGED = "SELF_MANAGED";
@@ -229,6 +251,10 @@ public class TestUtils {
             .retainStacksOnAccountRemoval(false)
             .build();
 
+    public final static ManagedExecution MANAGED_EXECUTION_ACTIVE = ManagedExecution.builder()
+            .active(true)
+            .build();
+
     public final static GetTemplateSummaryResponse VALID_TEMPLATE_SUMMARY_RESPONSE = GetTemplateSummaryResponse.builder()
             .resourceTypes(Arrays.asList("AWS::CloudFormation::WaitCondition"))
             .build();
@@ -481,6 +507,33 @@ public class TestUtils {
             .tags(TAGS)
             .build();
 
+    public final static ResourceModel MANAGED_EXECUTION_SELF_MANAGED_MODEL = ResourceModel.builder()
+            .stackSetId(STACK_SET_ID)
+            .permissionModel(SELF_MANAGED)
+            .capabilities(CAPABILITIES)
+            .templateBody(TEMPLATE_BODY)
+            .description(DESCRIPTION)
+            .stackInstancesGroup(
+                    new HashSet<>(Arrays.asList(SELF_MANAGED_STACK_INSTANCES_1, SELF_MANAGED_STACK_INSTANCES_2)))
+            .parameters(new HashSet<>(Arrays.asList(PARAMETER_1, PARAMETER_2)))
+            .operationPreferences(OPERATION_PREFERENCES)
+            .managedExecution(MANAGED_EXECUTION_ACTIVE)
+            .tags(TAGS)
+            .build();
+
+    public final static ResourceModel UPDATED_MANAGED_EXECUTION_SELF_MANAGED_MODEL = ResourceModel.builder()
+            .stackSetId(STACK_SET_ID)
+            .permissionModel(SELF_MANAGED)
+            .capabilities(CAPABILITIES)
+            .templateBody(TEMPLATE_BODY)
+            .stackInstancesGroup(
+                    new HashSet<>(Arrays.asList(SELF_MANAGED_STACK_INSTANCES_3, SELF_MANAGED_STACK_INSTANCES_4)))
+            .parameters(new HashSet<>(Arrays.asList(PARAMETER_1, PARAMETER_3)))
+            .operationPreferences(OPERATION_PREFERENCES)
+            .managedExecution(MANAGED_EXECUTION_ACTIVE)
+            .tags(TAGS)
+            .build();
+
     public final static ResourceModel SELF_MANAGED_NO_INSTANCES_MODEL = ResourceModel.builder()
             .stackSetId(STACK_SET_ID)
             .permissionModel(SELF_MANAGED)
@@ -502,6 +555,18 @@ public class TestUtils {
             .tags(TAGS)
             .build();
 
+    public final static ResourceModel SELF_MANAGED_ONE_INSTANCES_TOLERANT_MODEL = ResourceModel.builder()
+            .stackSetId(STACK_SET_ID)
+            .permissionModel(SELF_MANAGED)
+            .capabilities(CAPABILITIES)
+            .templateBody(TEMPLATE_BODY)
+            .description(DESCRIPTION)
+            .stackInstancesGroup(new HashSet<>(Arrays.asList(SELF_MANAGED_STACK_INSTANCES_2)))
+            .operationPreferences(OperationPreferences.builder().failureToleranceCount(2).maxConcurrentCount(3).build())
+            .parameters(new HashSet<>(Arrays.asList(PARAMETER_1, PARAMETER_2)))
+            .tags(TAGS)
+            .build();
+
     public final static ResourceModel SELF_MANAGED_DUPLICATE_INSTANCES_MODEL = ResourceModel.builder()
             .stackSetId(STACK_SET_ID)
             .permissionModel(SELF_MANAGED)
@@ -514,6 +579,16 @@ public class TestUtils {
             .tags(TAGS)
             .build();
 
+    public final static ResourceModel SELF_MANAGED_NESTED_STACK_MODEL = ResourceModel.builder()
+            .stackSetId(STACK_SET_ID)
+            .permissionModel(SELF_MANAGED)
+            .capabilities(CAPABILITIES)
+            .templateBody(NESTED_STACK_TEMPLATE_BODY)
+            .description(DESCRIPTION)
+            .stackInstancesGroup(new HashSet<>(Arrays.asList(SELF_MANAGED_STACK_INSTANCES_1)))
+            .tags(TAGS)
+            .build();
+
     public final static ResourceModel SELF_MANAGED_INVALID_INSTANCES_MODEL = ResourceModel.builder()
             .stackSetId(STACK_SET_ID)
             .permissionModel(SELF_MANAGED)
@@ -627,6 +702,73 @@ public class TestUtils {
                             .build())
                     .build();
 
+    public final static DescribeStackSetOperationResponse OPERATION_FAILED_RESPONSE =
+            DescribeStackSetOperationResponse.builder()
+                    .stackSetOperation(StackSetOperation.builder()
+                            .status(StackSetOperationStatus.FAILED)
+                            .build())
+                    .build();
+
+    public final static DescribeStackSetOperationResponse OPERATION_RUNNING_RESPONSE =
+            DescribeStackSetOperationResponse.builder()
+                    .stackSetOperation(StackSetOperation.builder()
+                            .operationId(OPERATION_ID_1)
+                            .action(StackSetOperationAction.CREATE)
+                            .status(StackSetOperationStatus.RUNNING)
+                            .creationTimestamp(Instant.now())
+                            .operationPreferences(StackSetOperationPreferences.builder()
+                                    .maxConcurrentCount(1)
+                                    .build())
+                            .build())
+                    .build();
+
+    public final static ListStackSetOperationsResponse LIST_STACK_SET_OPERATIONS_RESPONSE =
+            ListStackSetOperationsResponse.builder()
+                    .summaries(StackSetOperationSummary.builder()
+                            .operationId(OPERATION_ID_2)
+                            .action(StackSetOperationAction.CREATE)
+                            .status(StackSetOperationStatus.SUCCEEDED)
+                            .creationTimestamp(Instant.now().minus(Duration.ofMinutes(5L)))
+                            .endTimestamp(Instant.now())
+                            .build())
+                    .build();
+
+    public final static ListStackSetOperationsResponse LIST_STACK_SET_OPERATIONS_RUNNING_RESPONSE =
+            ListStackSetOperationsResponse.builder()
+                    .summaries(StackSetOperationSummary.builder()
+                                    .operationId(OPERATION_ID_3)
+                                    .action(StackSetOperationAction.UPDATE)
+                                    .status(StackSetOperationStatus.QUEUED)
+                                    .creationTimestamp(Instant.now())
+                                    .build(),
+                            StackSetOperationSummary.builder()
+                                    .operationId(OPERATION_ID_2)
+                                    .action(StackSetOperationAction.UPDATE)
+                                    .status(StackSetOperationStatus.RUNNING)
+                                    .creationTimestamp(Instant.now())
+                                    .build())
+                    .build();
+
+    public final static ListStackSetOperationResultsResponse LIST_OPERATION_RESULTS_RESPONSE_1 =
+            ListStackSetOperationResultsResponse.builder()
+                    .summaries(StackSetOperationResultSummary.builder()
+                            .account(ACCOUNT_ID_2)
+                            .region(EU_EAST_1)
+                            .status(StackSetOperationResultStatus.SUCCEEDED)
+                            .build())
+                    .nextToken(LIST_TOKEN)
+                    .build();
+
+    public final static ListStackSetOperationResultsResponse LIST_OPERATION_RESULTS_RESPONSE_2 =
+            ListStackSetOperationResultsResponse.builder()
+                    .summaries(StackSetOperationResultSummary.builder()
+                            .account(ACCOUNT_ID_2)
+                            .region(EU_EAST_2)
+                            .status(StackSetOperationResultStatus.FAILED)
+                            .statusReason("Account 222222222222 should have 'AWSCloudFormationStackSetExecutionRole' role")
+                            .build())
+                    .build();
+
     public final static CreateStackSetResponse CREATE_STACK_SET_RESPONSE =
             CreateStackSetResponse.builder()
                     .stackSetId(STACK_SET_ID)
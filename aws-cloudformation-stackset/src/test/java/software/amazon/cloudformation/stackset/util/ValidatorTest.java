@@ -0,0 +1,68 @@
+package software.amazon.cloudformation.stackset.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.cloudformation.CloudFormationClient;
+import software.amazon.awssdk.services.cloudformation.model.GetTemplateSummaryRequest;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static software.amazon.cloudformation.stackset.util.TestUtils.NESTED_STACK_TEMPLATE_BODY;
+import static software.amazon.cloudformation.stackset.util.TestUtils.TEMPLATE_BODY;
+import static software.amazon.cloudformation.stackset.util.TestUtils.TEMPLATE_SUMMARY_RESPONSE_WITH_NESTED_STACK;
+import static software.amazon.cloudformation.stackset.util.TestUtils.TEMPLATE_URL;
+import static software.amazon.cloudformation.stackset.util.TestUtils.VALID_TEMPLATE_SUMMARY_RESPONSE;
+
+@ExtendWith(MockitoExtension.class)
+public class ValidatorTest {
+
+    @Mock
+    private ProxyClient<CloudFormationClient> proxyClient;
+
+    @Mock
+    private CloudFormationClient client;
+
+    @Test
+    public void testValidateTemplate_TemplateBodyValidatedLocally() {
+        new Validator().validateTemplate(proxyClient, TEMPLATE_BODY, null);
+
+        assertThrows(CfnInvalidRequestException.class,
+                () -> new Validator().validateTemplate(proxyClient, NESTED_STACK_TEMPLATE_BODY, null));
+
+        verifyZeroInteractions(proxyClient);
+    }
+
+    @Test
+    public void testValidateTemplate_TemplateURL() {
+        when(proxyClient.client()).thenReturn(client);
+        when(proxyClient.injectCredentialsAndInvokeV2(any(GetTemplateSummaryRequest.class), any()))
+                .thenReturn(TEMPLATE_SUMMARY_RESPONSE_WITH_NESTED_STACK);
+
+        final Validator validator = new Validator(TemplateSummaryCache.builder().build());
+        assertThrows(CfnInvalidRequestException.class,
+                () -> validator.validateTemplate(proxyClient, null, TEMPLATE_URL));
+        assertThrows(CfnInvalidRequestException.class,
+                () -> validator.validateTemplate(proxyClient, null, TEMPLATE_URL));
+
+        // Served from the cache the second time
+        verify(proxyClient).injectCredentialsAndInvokeV2(any(GetTemplateSummaryRequest.class), any());
+    }
+
+    @Test
+    public void testValidateTemplate_TemplateBodyNotReadLocally() {
+        when(proxyClient.client()).thenReturn(client);
+        when(proxyClient.injectCredentialsAndInvokeV2(any(GetTemplateSummaryRequest.class), any()))
+                .thenReturn(VALID_TEMPLATE_SUMMARY_RESPONSE);
+
+        new Validator(TemplateSummaryCache.builder().build()).validateTemplate(proxyClient, "Resources:\n  Queue: &queue\n    Type: AWS::SQS::Queue\n", null);
+
+        verify(proxyClient).injectCredentialsAndInvokeV2(any(GetTemplateSummaryRequest.class), any());
+    }
+}